@@ -0,0 +1,79 @@
+package de.sikeller.aqs.benchmark;
+
+import de.sikeller.aqs.model.Algorithm;
+import de.sikeller.aqs.model.AlgorithmParameter;
+import de.sikeller.aqs.model.AlgorithmResult;
+import de.sikeller.aqs.model.TaxiAlgorithm;
+import de.sikeller.aqs.model.WorldObject;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the first {@link TaxiAlgorithm#nextStep} of every algorithm in a fresh world in which
+ * all clients are waiting. The algorithms use the default values of their parameters. Other
+ * algorithms and counts can be selected with the <code>-p</code> option of JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlgorithmStepBenchmark {
+  @Param({
+    "TaxiAlgorithmDoNothing",
+    "TaxiAlgorithmSinglePassenger",
+    "TaxiAlgorithmFillAllSeats",
+    "TaxiAlgorithmFillRandomSeats",
+    "TaxiAlgorithmGroupByDirection",
+    "TaxiAlgorithmGroupByProximity",
+    "TaxiAlgorithmGroupByTarget",
+    "TaxiAlgorithmLongestToShortestDistance",
+    "TaxiAlgorithmShortestToLongestDistance",
+    "TaxiAlgorithmVehicleRouting",
+    "TaxiAlgorithmVehicleRoutingDecomposed",
+    "TaxiAlgorithmMinCostMatching",
+    "TaxiAlgorithmDistributed"
+  })
+  private String algorithm;
+
+  @Param({"10", "100"})
+  private int taxiCount;
+
+  @Param({"100", "1000"})
+  private int clientCount;
+
+  private Class<?> algorithmClass;
+  private WorldObject world;
+  private TaxiAlgorithm taxiAlgorithm;
+
+  @Setup
+  public void findAlgorithm() {
+    for (Class<?> candidate : new Algorithm(null).getAllAlgorithms()) {
+      if (candidate.getSimpleName().equals(algorithm)) {
+        algorithmClass = candidate;
+        return;
+      }
+    }
+    throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+  }
+
+  @Setup(Level.Invocation)
+  public void setup() throws ReflectiveOperationException {
+    world = BenchmarkWorlds.create(taxiCount, clientCount, 1);
+    taxiAlgorithm = (TaxiAlgorithm) algorithmClass.getDeclaredConstructor().newInstance();
+    Map<String, Integer> parameters = new HashMap<>();
+    for (AlgorithmParameter parameter : taxiAlgorithm.getParameters().getParameters()) {
+      parameters.put(parameter.name(), parameter.defaultValue());
+    }
+    taxiAlgorithm.setParameters(parameters);
+    taxiAlgorithm.init(world);
+  }
+
+  @Benchmark
+  public AlgorithmResult nextStep() {
+    return taxiAlgorithm.nextStep(world);
+  }
+}
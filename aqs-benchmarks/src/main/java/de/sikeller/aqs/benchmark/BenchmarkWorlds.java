@@ -0,0 +1,73 @@
+package de.sikeller.aqs.benchmark;
+
+import de.sikeller.aqs.model.Client;
+import de.sikeller.aqs.model.Position;
+import de.sikeller.aqs.model.TargetList;
+import de.sikeller.aqs.model.Taxi;
+import de.sikeller.aqs.model.WorldObject;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+
+/** Creates the random worlds of the benchmarks. */
+final class BenchmarkWorlds {
+  static final int SIZE = 40000;
+
+  private BenchmarkWorlds() {}
+
+  /**
+   * Create a world with random taxis and clients. All clients are spawned and waiting at time 1.
+   *
+   * @param taxiCount the number of taxis with 4 seats and a speed of 80
+   * @param clientCount the number of clients with a speed of 5
+   * @param seed the seed of the positions
+   * @return the world at time 1
+   */
+  static WorldObject create(int taxiCount, int clientCount, long seed) {
+    return create(taxiCount, clientCount, 0, seed);
+  }
+
+  /**
+   * Create a world with random taxis and clients, whose spawn times are spread over a window.
+   *
+   * @param taxiCount the number of taxis with 4 seats and a speed of 80
+   * @param clientCount the number of clients with a speed of 5
+   * @param spawnWindow the clients are spawned at random times before it, or all at 0 if it is 0
+   * @param seed the seed of the positions and spawn times
+   * @return the world at time 1
+   */
+  static WorldObject create(int taxiCount, int clientCount, int spawnWindow, long seed) {
+    var world = WorldObject.builder().maxX(SIZE).maxY(SIZE).build();
+    var random = new Random(seed);
+    for (int i = 0; i < taxiCount; i++) {
+      world.addTaxi("t" + i, 4, randomPosition(random), 80);
+    }
+    for (int i = 0; i < clientCount; i++) {
+      int spawnTime = spawnWindow == 0 ? 0 : random.nextInt(spawnWindow);
+      world.addClient("c" + i, spawnTime, randomPosition(random), randomPosition(random), 5);
+    }
+    world.setCurrentTime(1);
+    return world;
+  }
+
+  /**
+   * Plan waiting clients for the taxis, one taxi after the other, so the taxis drive routes with
+   * several stops.
+   *
+   * @param world the world
+   * @param clientsPerTaxi the number of clients to plan for every taxi, at most its seat count
+   */
+  static void planClients(WorldObject world, int clientsPerTaxi) {
+    Iterator<Client> clients = new ArrayList<>(world.getClients()).iterator();
+    for (Taxi taxi : new ArrayList<>(world.getTaxis())) {
+      for (int i = 0; i < clientsPerTaxi && clients.hasNext(); i++) {
+        world.mutate().planClientForTaxi(taxi, clients.next(), TargetList.sequentialOrders);
+      }
+    }
+  }
+
+  /** A random position inside the worlds of the benchmarks. */
+  static Position randomPosition(Random random) {
+    return new Position(random.nextInt(SIZE), random.nextInt(SIZE));
+  }
+}
@@ -0,0 +1,53 @@
+package de.sikeller.aqs.benchmark;
+
+import de.sikeller.aqs.model.ClientMode;
+import de.sikeller.aqs.model.WorldObject;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the client queries which the simulation and the algorithms run every step, in a world
+ * where only a small part of the clients is spawned yet (a long spawn window).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientQueryBenchmark {
+  private static final int SPAWN_WINDOW = 1_000_000;
+
+  @Param({"100000", "1000000"})
+  private int clientCount;
+
+  private WorldObject world;
+  private long time;
+
+  @Setup
+  public void setup() {
+    world = BenchmarkWorlds.create(0, clientCount, SPAWN_WINDOW, 1);
+  }
+
+  @Setup(Level.Iteration)
+  public void nextWindow() {
+    // start each iteration a bit later in the spawn window
+    time += SPAWN_WINDOW / 100;
+    world.setCurrentTime(time);
+  }
+
+  @Benchmark
+  public boolean isFinished() {
+    return world.isFinished();
+  }
+
+  @Benchmark
+  public int waitingSpawnedClients() {
+    return world.getClientsByMode(ClientMode.WAITING, true).size();
+  }
+
+  @Benchmark
+  public int spawnProgress() {
+    return world.getSpawnProgress();
+  }
+}
@@ -0,0 +1,49 @@
+package de.sikeller.aqs.benchmark;
+
+import de.sikeller.aqs.model.AlgorithmResult;
+import de.sikeller.aqs.model.WorldObject;
+import de.sikeller.aqs.taxi.algorithm.distributed.TaxiAlgorithmDistributed;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the assignment throughput of the {@link TaxiAlgorithmDistributed}: one step assigns a
+ * batch of waiting clients in a world with many taxis. Every assignment plans the client for the
+ * chosen taxi through the {@link de.sikeller.aqs.model.WorldMutator}, which looks up the taxi and
+ * the client by name. The score is the time per assigned client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(DistributedAssignmentBenchmark.CLIENT_COUNT)
+public class DistributedAssignmentBenchmark {
+  static final int CLIENT_COUNT = 200;
+
+  @Param({"50000"})
+  private int taxiCount;
+
+  /** With the default of 10 % the search radius covers most of the world and all taxis. */
+  @Param({"1"})
+  private int initialSearchRadiusFactor;
+
+  private WorldObject world;
+  private TaxiAlgorithmDistributed algorithm;
+  private int round;
+
+  @Setup(Level.Invocation)
+  public void setup() {
+    world = BenchmarkWorlds.create(taxiCount, CLIENT_COUNT, round++);
+    algorithm = new TaxiAlgorithmDistributed();
+    algorithm.setParameters(Map.of("InitialSearchRadiusFactor", initialSearchRadiusFactor));
+    algorithm.init(world);
+  }
+
+  @Benchmark
+  public AlgorithmResult assignClients() {
+    return algorithm.nextStep(world);
+  }
+}
@@ -0,0 +1,76 @@
+package de.sikeller.aqs.benchmark;
+
+import de.sikeller.aqs.model.Client;
+import de.sikeller.aqs.model.ClientMode;
+import de.sikeller.aqs.model.Taxi;
+import de.sikeller.aqs.model.WorldObject;
+import de.sikeller.aqs.taxi.algorithm.distributed.costing.CostCalculationResult;
+import de.sikeller.aqs.taxi.algorithm.distributed.costing.SequentialCostCalculator;
+import de.sikeller.aqs.taxi.algorithm.distributed.rqs.SimulatedRangeQuerySystem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the two building blocks of the {@link
+ * de.sikeller.aqs.taxi.algorithm.distributed.TaxiAlgorithmDistributed} for a single waiting client:
+ * the candidate search of the {@link SimulatedRangeQuerySystem} and the marginal cost of one taxi
+ * with the {@link SequentialCostCalculator}. The taxis already drive routes with <code>
+ * plannedClients</code> clients each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistributedComponentsBenchmark {
+  private static final int WAITING_CLIENTS = 256;
+
+  @Param({"100", "10000"})
+  private int taxiCount;
+
+  @Param({"0", "3"})
+  private int plannedClients;
+
+  /** The search radius in percent of the world size. */
+  @Param({"5"})
+  private int searchRadiusPercent;
+
+  private WorldObject world;
+  private List<Taxi> taxis;
+  private List<Client> waitingClients;
+  private SimulatedRangeQuerySystem rangeQuerySystem;
+  private SequentialCostCalculator costCalculator;
+  private double searchRadius;
+  private int next;
+
+  @Setup
+  public void setup() {
+    world = BenchmarkWorlds.create(taxiCount, taxiCount * plannedClients + WAITING_CLIENTS, 1);
+    BenchmarkWorlds.planClients(world, plannedClients);
+    taxis = new ArrayList<>(world.getTaxiView());
+    waitingClients = new ArrayList<>(world.getClientsByMode(ClientMode.WAITING, true));
+    rangeQuerySystem = new SimulatedRangeQuerySystem();
+    rangeQuerySystem.init(world);
+    costCalculator = new SequentialCostCalculator();
+    searchRadius = BenchmarkWorlds.SIZE * searchRadiusPercent / 100.0;
+  }
+
+  @Benchmark
+  public Set<Taxi> findTaxisInRange() {
+    var client = waitingClients.get(next++ % waitingClients.size());
+    return rangeQuerySystem.findTaxisInRange(
+        world, client.getPosition(), client.getTarget(), searchRadius);
+  }
+
+  @Benchmark
+  public CostCalculationResult calculateMarginalCost() {
+    int i = next++;
+    var client = waitingClients.get(i % waitingClients.size());
+    var taxi = taxis.get(i % taxis.size());
+    return costCalculator.calculateMarginalCost(taxi, client, Double.POSITIVE_INFINITY);
+  }
+}
@@ -0,0 +1,113 @@
+package de.sikeller.aqs.benchmark;
+
+import de.sikeller.aqs.model.Geometry;
+import de.sikeller.aqs.model.Position;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the per-call cost of the geometry functions. The <code>pow</code> benchmarks repeat the
+ * former implementation of {@link Position#distance(Position)} with {@link Math#pow(double,
+ * double)} as the reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(GeometryBenchmark.POINTS)
+public class GeometryBenchmark {
+  static final int POINTS = 1024;
+  private static final double RADIUS = 5000;
+  private static final double MOVE_DISTANCE = 22.2;
+
+  private final Position[] positions = new Position[POINTS];
+  private final Position[] targets = new Position[POINTS];
+  private final int[] x = new int[POINTS];
+  private final int[] y = new int[POINTS];
+  private final int[] targetX = new int[POINTS];
+  private final int[] targetY = new int[POINTS];
+
+  @Setup
+  public void setup() {
+    var random = new Random(1);
+    for (int i = 0; i < POINTS; i++) {
+      x[i] = random.nextInt(40000);
+      y[i] = random.nextInt(40000);
+      targetX[i] = random.nextInt(40000);
+      targetY[i] = random.nextInt(40000);
+      positions[i] = new Position(x[i], y[i]);
+      targets[i] = new Position(targetX[i], targetY[i]);
+    }
+  }
+
+  @Benchmark
+  public double distancePow() {
+    double sum = 0;
+    for (int i = 0; i < POINTS; i++) {
+      Position a = positions[i];
+      Position b = targets[i];
+      sum += Math.sqrt(Math.pow((a.getX() - b.getX()), 2) + Math.pow((a.getY() - b.getY()), 2));
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double distance() {
+    double sum = 0;
+    for (int i = 0; i < POINTS; i++) {
+      sum += positions[i].distance(targets[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long distanceSquared() {
+    long sum = 0;
+    for (int i = 0; i < POINTS; i++) {
+      sum += Geometry.distanceSquared(x[i], y[i], targetX[i], targetY[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int withinRadiusPow() {
+    int count = 0;
+    for (int i = 0; i < POINTS; i++) {
+      Position a = positions[i];
+      Position b = targets[i];
+      double distance =
+          Math.sqrt(Math.pow((a.getX() - b.getX()), 2) + Math.pow((a.getY() - b.getY()), 2));
+      if (distance <= RADIUS) count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int withinRadius() {
+    int count = 0;
+    for (int i = 0; i < POINTS; i++) {
+      if (Geometry.isWithin(x[i], y[i], targetX[i], targetY[i], RADIUS)) count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public void moveTowardsPosition(Blackhole blackhole) {
+    for (int i = 0; i < POINTS; i++) {
+      blackhole.consume(positions[i].moveTowards(targets[i], MOVE_DISTANCE));
+    }
+  }
+
+  @Benchmark
+  public long moveTowardsPacked() {
+    long sum = 0;
+    for (int i = 0; i < POINTS; i++) {
+      sum += Geometry.moveTowards(x[i], y[i], targetX[i], targetY[i], MOVE_DISTANCE);
+    }
+    return sum;
+  }
+}
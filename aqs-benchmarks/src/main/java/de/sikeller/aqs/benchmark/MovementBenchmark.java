@@ -0,0 +1,53 @@
+package de.sikeller.aqs.benchmark;
+
+import de.sikeller.aqs.model.Position;
+import de.sikeller.aqs.model.WorldObject;
+import de.sikeller.aqs.model.WorldSimulator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures one movement step of the {@link WorldSimulator} with many walking clients, once with the
+ * entity objects and once with the columnar entity store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementBenchmark {
+  @Param({"100000"})
+  private int clientCount;
+
+  @Param({"false", "true"})
+  private boolean columnarStore;
+
+  private WorldObject world;
+  private WorldSimulator simulator;
+  private long time;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    world = WorldObject.builder().maxX(400000).maxY(400000).columnarStore(columnarStore).build();
+    var random = new Random(1);
+    for (int i = 0; i < clientCount; i++) {
+      // the targets are far enough away, so no client arrives during an iteration
+      world.addClient(
+          "c" + i,
+          0,
+          new Position(random.nextInt(1000), random.nextInt(1000)),
+          new Position(399000 + random.nextInt(1000), 399000 + random.nextInt(1000)),
+          5);
+    }
+    simulator = new WorldSimulator(world);
+    time = 0;
+  }
+
+  @Benchmark
+  public long move() {
+    simulator.move(++time);
+    return world.getCurrentTime();
+  }
+}
@@ -0,0 +1,72 @@
+package de.sikeller.aqs.benchmark;
+
+import de.sikeller.aqs.model.EntityUtils;
+import de.sikeller.aqs.model.Position;
+import de.sikeller.aqs.model.Taxi;
+import de.sikeller.aqs.model.Tuple;
+import de.sikeller.aqs.model.World;
+import de.sikeller.aqs.model.WorldObject;
+import de.sikeller.aqs.model.WorldSimulator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the parts of a simulation step outside of the algorithms: one movement step of the
+ * {@link WorldSimulator} with driving taxis and walking clients, a {@link WorldObject#snapshot()}
+ * as taken for every step and the nearest taxi of a position with {@link
+ * EntityUtils#findNearestNeighbor}. Half of the clients are planned for the taxis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationBenchmark {
+  @Param({"100", "1000"})
+  private int taxiCount;
+
+  @Param({"1000", "10000"})
+  private int clientCount;
+
+  private WorldObject world;
+  private WorldSimulator simulator;
+  private List<Taxi> taxis;
+  private Position[] queries;
+  private long time;
+  private int query;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    world = BenchmarkWorlds.create(taxiCount, clientCount, 1);
+    int clientsPerTaxi = Math.min(4, Math.max(1, clientCount / 2 / taxiCount));
+    BenchmarkWorlds.planClients(world, clientsPerTaxi);
+    simulator = new WorldSimulator(world);
+    taxis = new ArrayList<>(world.getTaxiView());
+    var random = new Random(2);
+    queries = new Position[1024];
+    for (int i = 0; i < queries.length; i++) {
+      queries[i] = BenchmarkWorlds.randomPosition(random);
+    }
+    time = world.getCurrentTime();
+  }
+
+  @Benchmark
+  public long move() {
+    simulator.move(++time);
+    return world.getCurrentTime();
+  }
+
+  @Benchmark
+  public World snapshot() {
+    return world.snapshot();
+  }
+
+  @Benchmark
+  public Tuple<Taxi, Double> findNearestNeighbor() {
+    return EntityUtils.findNearestNeighbor(queries[query++ & (queries.length - 1)], taxis);
+  }
+}
@@ -0,0 +1,68 @@
+package de.sikeller.aqs.benchmark;
+
+import de.sikeller.aqs.model.Client;
+import de.sikeller.aqs.model.Order;
+import de.sikeller.aqs.model.OrderFlattenFunction;
+import de.sikeller.aqs.model.OrderNode;
+import de.sikeller.aqs.model.TargetList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the route of a taxi: adding the orders of several clients with {@link
+ * TargetList#addOrder} and driving the route stop by stop with {@link TargetList#getAnRemoveFirst}.
+ * The score is the time for the whole route of <code>clientCount</code> clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TargetListBenchmark {
+  @Param({"4", "32"})
+  private int clientCount;
+
+  /** The planning of the stops, see {@link TargetList#sequentialOrders} and the merged orders. */
+  @Param({"sequential", "merge"})
+  private String flatten;
+
+  private final List<Order> orders = new ArrayList<>();
+  private OrderFlattenFunction flattenFunction;
+
+  @Setup
+  public void setup() {
+    var world = BenchmarkWorlds.create(0, clientCount, 1);
+    for (Client client : world.getClients()) {
+      orders.add(
+          Order.builder()
+              .client(client)
+              .path(new ArrayList<>(List.of(client.getPosition(), client.getTarget())))
+              .timestamp(1)
+              .build());
+    }
+    flattenFunction =
+        flatten.equals("merge") ? TargetList.mergeOrders : TargetList.sequentialOrders;
+  }
+
+  @Benchmark
+  public TargetList addOrder() {
+    var targets = new TargetList();
+    for (Order order : orders) {
+      targets.addOrder(order, flattenFunction);
+    }
+    return targets;
+  }
+
+  @Benchmark
+  public OrderNode addOrderAndRemoveFirst() {
+    var targets = addOrder();
+    OrderNode last = null;
+    while (!targets.isEmpty()) {
+      last = targets.getAnRemoveFirst();
+    }
+    return last;
+  }
+}
@@ -0,0 +1,66 @@
+package de.sikeller.aqs.benchmark;
+
+import de.sikeller.aqs.model.Client;
+import de.sikeller.aqs.model.Taxi;
+import de.sikeller.aqs.model.WorldObject;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares reading all entities of a world through the copying getters with the read views. Each
+ * benchmark counts the taxis with free capacity (or the finished clients), which is what the
+ * algorithms and the stats collector do every step.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldReadBenchmark {
+  @Param({"1000", "100000"})
+  private int entityCount;
+
+  private WorldObject world;
+
+  @Setup
+  public void setup() {
+    world = BenchmarkWorlds.create(entityCount, entityCount, 1);
+  }
+
+  @Benchmark
+  public int taxisCopy() {
+    int count = 0;
+    for (Taxi taxi : world.getTaxis()) {
+      if (taxi.hasCapacity()) count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int taxisView() {
+    int count = 0;
+    for (Taxi taxi : world.getTaxiView()) {
+      if (taxi.hasCapacity()) count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int clientsCopy() {
+    int count = 0;
+    for (Client client : world.getClients()) {
+      if (client.isFinished()) count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int clientsView() {
+    int count = 0;
+    for (Client client : world.getClientView()) {
+      if (client.isFinished()) count++;
+    }
+    return count;
+  }
+}
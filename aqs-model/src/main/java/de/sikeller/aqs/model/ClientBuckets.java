@@ -0,0 +1,168 @@
+package de.sikeller.aqs.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps the clients of a world in one bit set per {@link ClientMode} and tracks which clients are
+ * spawned, so queries by mode only look at the words of the bit sets instead of every client, and
+ * the number of clients per mode and the number of spawned clients are available in O(1).
+ *
+ * <p>The mode buckets are updated by the mode listeners of the clients. The spawned clients are
+ * updated lazily on every query: the clients are ordered by their spawn time, so advancing the time
+ * only visits the newly spawned clients. Results are always in the order the clients were added.
+ */
+class ClientBuckets {
+  private static final ClientMode[] MODES = ClientMode.values();
+
+  private final List<ClientEntity> clients = new ArrayList<>();
+  private final int[] modeCounts = new int[MODES.length];
+  private long[][] modeWords = new long[MODES.length][1];
+  private long[] spawnedWords = new long[1];
+
+  /** Client indices ordered by spawn time, null if it has to be rebuilt. */
+  private int[] spawnOrder = new int[0];
+
+  private int spawnedCount = 0;
+
+  /**
+   * Add a client to the buckets and register for its mode changes.
+   *
+   * @param client the client to add
+   */
+  synchronized void add(ClientEntity client) {
+    int index = clients.size();
+    clients.add(client);
+    ensureCapacity(index + 1);
+    set(modeWords[client.getMode().ordinal()], index);
+    modeCounts[client.getMode().ordinal()]++;
+    spawnOrder = null;
+    client.setModeListener((oldMode, newMode) -> changeMode(index, oldMode, newMode));
+  }
+
+  synchronized void changeMode(int index, ClientMode oldMode, ClientMode newMode) {
+    clear(modeWords[oldMode.ordinal()], index);
+    modeCounts[oldMode.ordinal()]--;
+    set(modeWords[newMode.ordinal()], index);
+    modeCounts[newMode.ordinal()]++;
+  }
+
+  synchronized int size() {
+    return clients.size();
+  }
+
+  synchronized int count(ClientMode mode) {
+    return modeCounts[mode.ordinal()];
+  }
+
+  synchronized int countSpawned(long currentTime) {
+    updateSpawned(currentTime);
+    return spawnedCount;
+  }
+
+  /**
+   * Returns the first time after the current time at which another client spawns.
+   *
+   * @param currentTime the current time of the world
+   * @return the next spawn time or {@link Long#MAX_VALUE} if all clients are spawned
+   */
+  synchronized long nextSpawnTime(long currentTime) {
+    updateSpawned(currentTime);
+    if (spawnedCount == spawnOrder.length) return Long.MAX_VALUE;
+    // a client is spawned if the current time is after its spawn time
+    return clients.get(spawnOrder[spawnedCount]).getSpawnTime() + 1;
+  }
+
+  /**
+   * Find all clients in one of the given modes.
+   *
+   * @param modes the modes of the clients
+   * @param onlySpawned if true only clients spawned at the current time are returned
+   * @param currentTime the current time of the world
+   * @return the matching clients in the order they were added
+   */
+  synchronized Collection<Client> findByModes(
+      Set<ClientMode> modes, boolean onlySpawned, long currentTime) {
+    if (onlySpawned) updateSpawned(currentTime);
+    int expected = 0;
+    for (ClientMode mode : modes) expected += modeCounts[mode.ordinal()];
+    Collection<Client> result =
+        new ArrayList<>(onlySpawned ? Math.min(expected, spawnedCount) : expected);
+    if (expected == 0) return result;
+    for (int w = 0; w < spawnedWords.length; w++) {
+      long word = 0;
+      for (ClientMode mode : modes) word |= modeWords[mode.ordinal()][w];
+      if (onlySpawned) word &= spawnedWords[w];
+      collect(word, w, result);
+    }
+    return result;
+  }
+
+  /**
+   * Find all clients which are spawned at the current time.
+   *
+   * @param currentTime the current time of the world
+   * @return the spawned clients in the order they were added
+   */
+  synchronized Collection<Client> findSpawned(long currentTime) {
+    updateSpawned(currentTime);
+    Collection<Client> result = new ArrayList<>(spawnedCount);
+    for (int w = 0; w < spawnedWords.length; w++) {
+      collect(spawnedWords[w], w, result);
+    }
+    return result;
+  }
+
+  private void collect(long word, int wordIndex, Collection<Client> result) {
+    while (word != 0) {
+      int bit = Long.numberOfTrailingZeros(word);
+      result.add(clients.get(wordIndex * Long.SIZE + bit));
+      word &= word - 1;
+    }
+  }
+
+  /** Move the spawned marker along the spawn time order to the current time. */
+  private void updateSpawned(long currentTime) {
+    if (spawnOrder == null) {
+      spawnOrder =
+          IntStream.range(0, clients.size())
+              .boxed()
+              .sorted(Comparator.comparingLong(i -> clients.get(i).getSpawnTime()))
+              .mapToInt(Integer::intValue)
+              .toArray();
+      Arrays.fill(spawnedWords, 0);
+      spawnedCount = 0;
+    }
+    // a client is spawned if the current time is after its spawn time
+    while (spawnedCount < spawnOrder.length
+        && clients.get(spawnOrder[spawnedCount]).isSpawned(currentTime)) {
+      set(spawnedWords, spawnOrder[spawnedCount++]);
+    }
+    while (spawnedCount > 0 && !clients.get(spawnOrder[spawnedCount - 1]).isSpawned(currentTime)) {
+      clear(spawnedWords, spawnOrder[--spawnedCount]);
+    }
+  }
+
+  private void ensureCapacity(int size) {
+    int words = (size + Long.SIZE - 1) / Long.SIZE;
+    if (words <= spawnedWords.length) return;
+    int newLength = Math.max(words, spawnedWords.length * 2);
+    for (int m = 0; m < MODES.length; m++) {
+      modeWords[m] = Arrays.copyOf(modeWords[m], newLength);
+    }
+    spawnedWords = Arrays.copyOf(spawnedWords, newLength);
+  }
+
+  private static void set(long[] words, int index) {
+    words[index / Long.SIZE] |= 1L << index;
+  }
+
+  private static void clear(long[] words, int index) {
+    words[index / Long.SIZE] &= ~(1L << index);
+  }
+}
@@ -1,15 +1,18 @@
 package de.sikeller.aqs.model;
 
 import de.sikeller.aqs.model.events.EventClientFinished;
-import de.sikeller.aqs.model.events.EventDispatcher;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 @Data
 @Builder
 @EqualsAndHashCode(of = "name")
-class ClientEntity implements Client {
+class ClientEntity implements Client, StoredEntity {
   private final String name;
   @Builder.Default private long spawnTime = 0;
   @Builder.Default private ClientMode mode = ClientMode.WAITING;
@@ -17,19 +20,105 @@ class ClientEntity implements Client {
   private Position target;
   @Builder.Default private long lastUpdate = 0;
   @Builder.Default private double currentSpeed = 1;
+  @ToString.Exclude private PositionListener positionListener;
+  @ToString.Exclude private ModeListener modeListener;
+
+  @Builder.Default @ToString.Exclude
+  private final SimulationContext context = new SimulationContext();
+
+  /** If set, the mode, position, speed and last update are kept in this store. */
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  private EntityStore store;
+
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  private int slot;
 
   public ClientEntity snapshot() {
     return ClientEntity.builder()
         .name(name)
+        .context(context)
         .spawnTime(spawnTime)
-        .mode(mode)
-        .position(position)
+        .mode(getMode())
+        .position(getPosition())
         .target(target)
-        .lastUpdate(lastUpdate)
-        .currentSpeed(currentSpeed)
+        .lastUpdate(getLastUpdate())
+        .currentSpeed(getCurrentSpeed())
         .build();
   }
 
+  /**
+   * Move the movement state of this client into a columnar store.
+   *
+   * @param store the store which holds the state from now on
+   */
+  void attach(EntityStore store) {
+    this.slot = store.add(position, currentSpeed, mode, lastUpdate);
+    this.store = store;
+  }
+
+  @Override
+  public boolean isStored() {
+    return store != null;
+  }
+
+  @Override
+  public ClientMode getMode() {
+    return store == null ? mode : store.getMode(slot);
+  }
+
+  public void setMode(ClientMode mode) {
+    var oldMode = getMode();
+    if (store == null) {
+      this.mode = mode;
+    } else {
+      store.setMode(slot, mode);
+    }
+    if (modeListener != null && oldMode != mode) modeListener.onModeChanged(oldMode, mode);
+  }
+
+  @Override
+  public Position getPosition() {
+    return store == null ? position : store.getPosition(slot);
+  }
+
+  public void setPosition(Position position) {
+    if (store == null) {
+      this.position = position;
+    } else {
+      store.setPosition(slot, position);
+    }
+  }
+
+  @Override
+  public long getLastUpdate() {
+    return store == null ? lastUpdate : store.getLastUpdate(slot);
+  }
+
+  public void setLastUpdate(long lastUpdate) {
+    if (store == null) {
+      this.lastUpdate = lastUpdate;
+    } else {
+      store.setLastUpdate(slot, lastUpdate);
+    }
+  }
+
+  @Override
+  public double getCurrentSpeed() {
+    return store == null ? currentSpeed : store.getSpeed(slot);
+  }
+
+  public void setCurrentSpeed(double currentSpeed) {
+    if (store == null) {
+      this.currentSpeed = currentSpeed;
+    } else {
+      store.setSpeed(slot, currentSpeed);
+    }
+  }
+
   @Override
   public boolean isSpawned(long currentTime) {
     return currentTime > spawnTime;
@@ -37,17 +126,17 @@ class ClientEntity implements Client {
 
   @Override
   public boolean isWaiting() {
-    return mode.equals(ClientMode.WAITING);
+    return getMode().equals(ClientMode.WAITING);
   }
 
   @Override
   public boolean isMoving() {
-    return mode.equals(ClientMode.MOVING);
+    return getMode().equals(ClientMode.MOVING);
   }
 
   @Override
   public boolean isFinished() {
-    return mode.equals(ClientMode.FINISHED);
+    return getMode().equals(ClientMode.FINISHED);
   }
 
   public boolean isSame(Client client) {
@@ -55,14 +144,59 @@ class ClientEntity implements Client {
   }
 
   public void updatePosition(Position position, long currentTime) {
-    this.lastUpdate = currentTime;
+    setLastUpdate(currentTime);
     // if client is in waiting mode, it is by default walking towards target until picked up
     // if client is in moving mode, it is already picked up and should move with the taxi
     if (!isMoving() && !isWaiting()) return;
-    this.position = position;
-    if (this.position.equals(target)) {
-      EventDispatcher.dispatch(new EventClientFinished(currentTime, this));
-      mode = ClientMode.FINISHED;
+    var oldPosition = getPosition();
+    setPosition(position);
+    if (positionListener != null) {
+      var listener = positionListener;
+      DeferredEffects.run(() -> listener.onPositionChanged(oldPosition, position));
+    }
+    if (position.equals(target)) {
+      finish(currentTime);
     }
   }
+
+  /**
+   * Same as {@link #updatePosition(Position, long)} for a client in a store, without creating a
+   * position.
+   */
+  void updatePosition(int x, int y, long currentTime) {
+    store.setLastUpdate(slot, currentTime);
+    if (!isMoving() && !isWaiting()) return;
+    int oldX = store.getX(slot);
+    int oldY = store.getY(slot);
+    store.setPosition(slot, x, y);
+    firePositionChanged(oldX, oldY, x, y);
+    if (x == target.getX() && y == target.getY()) {
+      finish(currentTime);
+    }
+  }
+
+  @Override
+  public void moveTowardsTarget(double moveDistance, long currentTime) {
+    store.setLastUpdate(slot, currentTime);
+    if (!isMoving() && !isWaiting()) return;
+    int oldX = store.getX(slot);
+    int oldY = store.getY(slot);
+    boolean targetReached = store.moveTowards(slot, target, moveDistance);
+    firePositionChanged(oldX, oldY, store.getX(slot), store.getY(slot));
+    if (targetReached) {
+      finish(currentTime);
+    }
+  }
+
+  private void firePositionChanged(int oldX, int oldY, int newX, int newY) {
+    if (positionListener != null) {
+      var listener = positionListener;
+      DeferredEffects.run(() -> listener.onPositionChanged(oldX, oldY, newX, newY));
+    }
+  }
+
+  private void finish(long currentTime) {
+    context.dispatch(new EventClientFinished(currentTime, this));
+    setMode(ClientMode.FINISHED);
+  }
 }
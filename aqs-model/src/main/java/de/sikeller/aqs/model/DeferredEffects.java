@@ -0,0 +1,52 @@
+package de.sikeller.aqs.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Effects of an entity update on state which is shared by all entities, i.e. dispatched events and
+ * updates of the spatial indexes. Usually an effect runs immediately. While the {@link
+ * WorldSimulator} moves entities in parallel, the effects of each thread are recorded instead and
+ * replayed afterwards in the order of a sequential move, so the shared state ends up the same.
+ */
+public final class DeferredEffects {
+  private static final ThreadLocal<List<Runnable>> recorded = new ThreadLocal<>();
+
+  private DeferredEffects() {}
+
+  /**
+   * Run an effect now, or record it if the current thread records effects.
+   *
+   * @param effect the effect on shared state
+   */
+  public static void run(Runnable effect) {
+    var effects = recorded.get();
+    if (effects == null) {
+      effect.run();
+    } else {
+      effects.add(effect);
+    }
+  }
+
+  /**
+   * Run an action and record all effects it causes on the current thread instead of running them.
+   *
+   * @param action the action to run
+   * @return the recorded effects in the order they occurred
+   */
+  static List<Runnable> record(Runnable action) {
+    var previous = recorded.get();
+    List<Runnable> effects = new ArrayList<>();
+    recorded.set(effects);
+    try {
+      action.run();
+    } finally {
+      if (previous == null) {
+        recorded.remove();
+      } else {
+        recorded.set(previous);
+      }
+    }
+    return effects;
+  }
+}
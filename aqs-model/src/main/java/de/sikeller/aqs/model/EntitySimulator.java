@@ -17,7 +17,29 @@ public class EntitySimulator {
     var timePassed = currentTime - entity.getLastUpdate();
     if (timePassed == 0) return;
     var movedDistance = speedQuotient * entity.getCurrentSpeed() * timePassed;
+    if (entity instanceof StoredEntity storedEntity && storedEntity.isStored()) {
+      // entities in a columnar store move without creating positions
+      storedEntity.moveTowardsTarget(movedDistance, currentTime);
+      return;
+    }
     var newPosition = entity.getPosition().moveTowards(entity.getTarget(), movedDistance);
     entity.updatePosition(newPosition, currentTime);
   }
+
+  /**
+   * Calculate the first time at which a {@link #move(long)} lets the entity reach its current
+   * target. Like a move the calculation starts at the last update of the entity, and at least one
+   * unit of time has to pass.
+   *
+   * @return the arrival time or {@link Long#MAX_VALUE} if the entity does not move
+   */
+  public long nextArrivalTime() {
+    var speed = speedQuotient * entity.getCurrentSpeed();
+    if (speed <= 0) return Long.MAX_VALUE;
+    var distance = entity.getPosition().distance(entity.getTarget());
+    var timeNeeded = Math.max(1, (long) Math.ceil(distance / speed));
+    // the same comparison as Position.moveTowards, which could differ by a rounding error
+    while (speed * timeNeeded < distance) timeNeeded++;
+    return entity.getLastUpdate() + timeNeeded;
+  }
 }
@@ -0,0 +1,153 @@
+package de.sikeller.aqs.model;
+
+import java.util.Arrays;
+
+/**
+ * A columnar store for the movement state of entities. Each entity gets a slot and its coordinates,
+ * speed, mode and last update time are kept in parallel primitive arrays instead of the fields of
+ * the entity object. Entities which are attached to a store read and write their state through it,
+ * so they still implement the {@link Taxi} and {@link Client} interfaces.
+ *
+ * <p>Moving an entity only updates the coordinates in place. A {@link Position} object is created
+ * on the first read after a move and cached until the next move, so entities which are moved every
+ * step but not read do not allocate anything.
+ *
+ * <p>The arrays only grow while entities are added, which happens under the write lock of the
+ * world. Different slots can be updated concurrently.
+ */
+final class EntityStore {
+  private static final ClientMode[] MODES = ClientMode.values();
+
+  private int[] x;
+  private int[] y;
+  private double[] speed;
+  private byte[] mode;
+  private long[] lastUpdate;
+  private Position[] positions;
+  private int size = 0;
+
+  EntityStore() {
+    this(16);
+  }
+
+  EntityStore(int initialCapacity) {
+    int capacity = Math.max(1, initialCapacity);
+    x = new int[capacity];
+    y = new int[capacity];
+    speed = new double[capacity];
+    mode = new byte[capacity];
+    lastUpdate = new long[capacity];
+    positions = new Position[capacity];
+  }
+
+  /**
+   * Add a slot for an entity.
+   *
+   * @return the slot of the entity
+   */
+  int add(Position position, double currentSpeed, ClientMode clientMode, long lastUpdateTime) {
+    if (size == x.length) grow();
+    int slot = size++;
+    setPosition(slot, position);
+    speed[slot] = currentSpeed;
+    mode[slot] = (byte) clientMode.ordinal();
+    lastUpdate[slot] = lastUpdateTime;
+    return slot;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int getX(int slot) {
+    return x[slot];
+  }
+
+  int getY(int slot) {
+    return y[slot];
+  }
+
+  Position getPosition(int slot) {
+    var position = positions[slot];
+    if (position == null) {
+      position = new Position(x[slot], y[slot]);
+      positions[slot] = position;
+    }
+    return position;
+  }
+
+  void setPosition(int slot, Position position) {
+    x[slot] = position.getX();
+    y[slot] = position.getY();
+    positions[slot] = position;
+  }
+
+  void setPosition(int slot, int newX, int newY) {
+    if (x[slot] == newX && y[slot] == newY) return;
+    x[slot] = newX;
+    y[slot] = newY;
+    positions[slot] = null;
+  }
+
+  double getSpeed(int slot) {
+    return speed[slot];
+  }
+
+  void setSpeed(int slot, double currentSpeed) {
+    speed[slot] = currentSpeed;
+  }
+
+  ClientMode getMode(int slot) {
+    return MODES[mode[slot]];
+  }
+
+  void setMode(int slot, ClientMode clientMode) {
+    mode[slot] = (byte) clientMode.ordinal();
+  }
+
+  long getLastUpdate(int slot) {
+    return lastUpdate[slot];
+  }
+
+  void setLastUpdate(int slot, long time) {
+    lastUpdate[slot] = time;
+  }
+
+  /**
+   * Move the coordinates of a slot towards a target, with the same result as {@link
+   * Position#moveTowards(Position, double)}.
+   *
+   * @return true if the target is reached
+   */
+  boolean moveTowards(int slot, Position target, double moveDistance) {
+    long moved = Geometry.moveTowards(x[slot], y[slot], target.getX(), target.getY(), moveDistance);
+    int newX = Geometry.packedX(moved);
+    int newY = Geometry.packedY(moved);
+    if (newX == target.getX() && newY == target.getY()) {
+      if (x[slot] != newX || y[slot] != newY) setPosition(slot, target);
+      return true;
+    }
+    setPosition(slot, newX, newY);
+    return false;
+  }
+
+  /**
+   * Calculate the distance between a slot and a point, with the same result as {@link
+   * Position#distance(Position)}.
+   *
+   * @return the Euclidean distance
+   */
+  double distance(int slot, int otherX, int otherY) {
+    return Geometry.distance(x[slot], y[slot], otherX, otherY);
+  }
+
+  private void grow() {
+    int capacity = x.length * 2;
+    x = Arrays.copyOf(x, capacity);
+    y = Arrays.copyOf(y, capacity);
+    speed = Arrays.copyOf(speed, capacity);
+    mode = Arrays.copyOf(mode, capacity);
+    lastUpdate = Arrays.copyOf(lastUpdate, capacity);
+    positions = Arrays.copyOf(positions, capacity);
+  }
+}
@@ -1,5 +1,7 @@
 package de.sikeller.aqs.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
@@ -29,10 +31,17 @@ public class EntityUtils {
    */
   public static <T extends Entity> Tuple<T, Double> findNearestNeighbor(
       Position position, Collection<T> others) {
-    return others.stream()
-        .map(e -> new Tuple<>(e, e.getPosition().distance(position)))
-        .min(Comparator.comparingDouble(Tuple::v2))
-        .orElse(null);
+    // compare the squared distances and only take the root of the nearest one
+    T nearest = null;
+    long nearestDistanceSquared = Long.MAX_VALUE;
+    for (T other : others) {
+      long distanceSquared = other.getPosition().distanceSquared(position);
+      if (nearest == null || distanceSquared < nearestDistanceSquared) {
+        nearest = other;
+        nearestDistanceSquared = distanceSquared;
+      }
+    }
+    return nearest == null ? null : new Tuple<>(nearest, Math.sqrt(nearestDistanceSquared));
   }
 
   /**
@@ -62,7 +71,20 @@ public class EntityUtils {
    */
   public static <T extends Entity> List<Tuple<T, Double>> sortByNearest(
       Position position, Collection<T> others, Function<Entity, Position> distanceFunction) {
-    return sortBy(others, entity -> distanceFunction.apply(entity).distance(position));
+    // sort by the squared distances, which have the same order, and take the roots afterwards
+    long[] keys = new long[others.size()];
+    List<T> elements = new ArrayList<>(others);
+    Integer[] order = new Integer[elements.size()];
+    for (int i = 0; i < order.length; i++) {
+      keys[i] = distanceFunction.apply(elements.get(i)).distanceSquared(position);
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingLong(i -> keys[i]));
+    List<Tuple<T, Double>> result = new ArrayList<>(order.length);
+    for (int i : order) {
+      result.add(new Tuple<>(elements.get(i), Math.sqrt(keys[i])));
+    }
+    return result;
   }
 
   /**
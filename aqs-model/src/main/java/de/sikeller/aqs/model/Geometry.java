@@ -0,0 +1,89 @@
+package de.sikeller.aqs.model;
+
+/**
+ * Geometry functions on raw coordinates. They neither create {@link Position} objects nor use
+ * {@link Math#pow(double, double)}, and the distances are the same as the ones of {@link
+ * Position#distance(Position)}.
+ *
+ * <p>Comparisons of distances should use the squared distances, which are exact for all coordinates
+ * of a world, so the square root is only needed where the distance itself is used. Movement results
+ * are packed into a single long, see {@link #packedX(long)} and {@link #packedY(long)}.
+ */
+public final class Geometry {
+  /** Relative margin around the squared radius in which the square root decides. */
+  private static final double RADIUS_MARGIN = 1e-9;
+
+  private Geometry() {}
+
+  /**
+   * Calculate the squared Euclidean distance between two points.
+   *
+   * @return the exact squared distance
+   */
+  public static long distanceSquared(int x1, int y1, int x2, int y2) {
+    long dx = (long) x2 - x1;
+    long dy = (long) y2 - y1;
+    return dx * dx + dy * dy;
+  }
+
+  /**
+   * Calculate the Euclidean distance between two points.
+   *
+   * @return the Euclidean distance
+   */
+  public static double distance(int x1, int y1, int x2, int y2) {
+    return Math.sqrt(distanceSquared(x1, y1, x2, y2));
+  }
+
+  /**
+   * Check whether the distance between two points is smaller or equal to a radius. The result is
+   * the same as <code>distance(x1, y1, x2, y2) &lt;= radius</code>, but the square root is only
+   * calculated if the point is so close to the radius that the rounding matters.
+   *
+   * @return true if the points are within the radius
+   */
+  public static boolean isWithin(int x1, int y1, int x2, int y2, double radius) {
+    if (!(radius >= 0)) return false;
+    double squared = distanceSquared(x1, y1, x2, y2);
+    double radiusSquared = radius * radius;
+    if (squared < radiusSquared * (1 - RADIUS_MARGIN)) return true;
+    if (squared > radiusSquared * (1 + RADIUS_MARGIN)) return false;
+    return Math.sqrt(squared) <= radius;
+  }
+
+  /**
+   * Move a point towards a target by a distance. The target is returned if it is closer than the
+   * distance, otherwise the moved point is rounded to the next integer coordinates.
+   *
+   * @return the new coordinates, packed with {@link #pack(int, int)}
+   */
+  public static long moveTowards(int x, int y, int targetX, int targetY, double moveDistance) {
+    // the difference of two integers needs a long and its square a double to not overflow
+    long dx = (long) targetX - x;
+    long dy = (long) targetY - y;
+    double distance = Math.sqrt((double) dx * dx + (double) dy * dy);
+    if (distance <= moveDistance) return pack(targetX, targetY);
+
+    double directionX = dx / distance;
+    double directionY = dy / distance;
+
+    int newX = (int) Math.round(x + directionX * moveDistance);
+    int newY = (int) Math.round(y + directionY * moveDistance);
+    return pack(newX, newY);
+  }
+
+  /** Pack two coordinates into a single long. */
+  public static long pack(int x, int y) {
+    return ((long) x << 32) | (y & 0xFFFFFFFFL);
+  }
+
+  /** Returns the x coordinate of packed coordinates. */
+  public static int packedX(long packed) {
+    return (int) (packed >> 32);
+  }
+
+  /** Returns the y coordinate of packed coordinates. */
+  public static int packedY(long packed) {
+    return (int) packed;
+  }
+}
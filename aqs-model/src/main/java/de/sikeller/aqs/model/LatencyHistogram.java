@@ -0,0 +1,112 @@
+package de.sikeller.aqs.model;
+
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * A histogram of non-negative long values (e.g. durations in nanoseconds) with a fixed memory
+ * footprint. Values below {@value #SUB_BUCKETS} are counted exactly. Larger values are counted in
+ * log-linear buckets: every power of two is split into {@value #SUB_BUCKETS}/2 buckets of equal
+ * width, so a percentile is at most 1/128 (below 0.8%) above the recorded value, independent of the
+ * number of recorded values.
+ *
+ * <p>The histogram is not thread-safe.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 8;
+
+  /** The number of exact buckets for the smallest values. */
+  public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+  private static final int BUCKET_COUNT =
+      SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+  private final long[] counts = new long[BUCKET_COUNT];
+
+  /** The number of recorded values. */
+  @Getter private long count = 0;
+
+  /** The smallest recorded value or {@link Long#MAX_VALUE} if no value was recorded. */
+  @Getter private long min = Long.MAX_VALUE;
+
+  /** The largest recorded value or 0 if no value was recorded. */
+  @Getter private long max = 0;
+
+  /** The sum of the recorded values. */
+  @Getter private long sum = 0;
+
+  /**
+   * Record a value. Negative values are recorded as 0.
+   *
+   * @param value the value
+   */
+  public void record(long value) {
+    value = Math.max(0, value);
+    counts[indexOf(value)]++;
+    count++;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    sum += value;
+  }
+
+  /**
+   * Add all values of another histogram to this histogram.
+   *
+   * @param other the other histogram
+   * @return this histogram
+   */
+  public LatencyHistogram combine(LatencyHistogram other) {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] += other.counts[i];
+    }
+    count += other.count;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    sum += other.sum;
+    return this;
+  }
+
+  /** Remove all recorded values. */
+  public void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    min = Long.MAX_VALUE;
+    max = 0;
+    sum = 0;
+  }
+
+  /**
+   * Returns the value below or at which the given percentage of the recorded values lie. The result
+   * is the upper bound of the bucket of the value, limited to the recorded minimum and maximum.
+   *
+   * @param percentile the percentile between 0 and 100
+   * @return the value of the percentile or 0 if no value was recorded
+   */
+  public long percentile(double percentile) {
+    if (count == 0) return 0;
+    long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.max(min, Math.min(max, highestValueOf(i)));
+      }
+    }
+    return max;
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKETS) return (int) value;
+    int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    int top = (int) (value >>> shift);
+    return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + top - HALF_SUB_BUCKETS;
+  }
+
+  static long highestValueOf(int index) {
+    if (index < SUB_BUCKETS) return index;
+    int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+    long top = HALF_SUB_BUCKETS + (index - SUB_BUCKETS) % HALF_SUB_BUCKETS;
+    return ((top + 1) << shift) - 1;
+  }
+}
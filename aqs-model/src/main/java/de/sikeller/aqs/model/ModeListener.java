@@ -0,0 +1,7 @@
+package de.sikeller.aqs.model;
+
+/** Listener which is informed if the {@link ClientMode} of a client changed. */
+@FunctionalInterface
+interface ModeListener {
+  void onModeChanged(ClientMode oldMode, ClientMode newMode);
+}
@@ -1,5 +1,6 @@
 package de.sikeller.aqs.model;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -23,13 +24,25 @@ public class Order {
   }
 
   public Order snapshot() {
-    return Order.builder().client(client).path(new LinkedList<>(path)).timestamp(timestamp).build();
+    return Order.builder().client(client).path(new ArrayList<>(path)).timestamp(timestamp).build();
   }
 
   public void removeIf(Predicate<OrderNode> filter) {
     path.removeIf(position -> filter.test(new OrderNode(client, position)));
   }
 
+  /**
+   * Remove all occurrences of a position from the path.
+   *
+   * @param position the position to remove
+   * @return the number of removed positions
+   */
+  public int removePosition(Position position) {
+    int size = path.size();
+    path.removeIf(position::equals);
+    return size - path.size();
+  }
+
   public boolean isEmpty() {
     return path.isEmpty();
   }
@@ -15,7 +15,30 @@ public class Position {
    * @return the Euclidean distance between the two positions
    */
   public double distance(Position other) {
-    return Math.sqrt(Math.pow((x - other.x), 2) + Math.pow((y - other.y), 2));
+    return Geometry.distance(x, y, other.x, other.y);
+  }
+
+  /**
+   * Calculate the squared Euclidean distance between this and another position, which is enough to
+   * compare distances.
+   *
+   * @param other the other position
+   * @return the exact squared distance between the two positions
+   */
+  public long distanceSquared(Position other) {
+    return Geometry.distanceSquared(x, y, other.x, other.y);
+  }
+
+  /**
+   * Check whether another position is within a radius around this position, without calculating the
+   * distance in most cases.
+   *
+   * @param other the other position
+   * @param radius the radius
+   * @return true if the distance to the other position is smaller or equal to the radius
+   */
+  public boolean isWithin(Position other, double radius) {
+    return Geometry.isWithin(x, y, other.x, other.y, radius);
   }
 
   /**
@@ -26,17 +49,11 @@ public class Position {
    * @return the new position
    */
   public Position moveTowards(Position target, double moveDistance) {
-    // use long values here because the dx * dx of two integers could lead to very large numbers
-    long dx = target.getX() - x;
-    long dy = target.getY() - y;
-    double distance = Math.sqrt(dx * dx + dy * dy);
-    if (distance <= moveDistance) return target;
-
-    double directionX = dx / distance;
-    double directionY = dy / distance;
-
-    int newX = (int) Math.round(x + directionX * moveDistance);
-    int newY = (int) Math.round(y + directionY * moveDistance);
+    long moved = Geometry.moveTowards(x, y, target.x, target.y, moveDistance);
+    int newX = Geometry.packedX(moved);
+    int newY = Geometry.packedY(moved);
+    if (newX == target.x && newY == target.y) return target;
+    if (newX == x && newY == y) return this;
     return new Position(newX, newY);
   }
 
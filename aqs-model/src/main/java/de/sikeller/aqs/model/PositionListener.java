@@ -0,0 +1,12 @@
+package de.sikeller.aqs.model;
+
+/** Listener which is informed if the position of an {@link Entity} changed. */
+@FunctionalInterface
+interface PositionListener {
+  void onPositionChanged(int oldX, int oldY, int newX, int newY);
+
+  default void onPositionChanged(Position oldPosition, Position newPosition) {
+    onPositionChanged(
+        oldPosition.getX(), oldPosition.getY(), newPosition.getX(), newPosition.getY());
+  }
+}
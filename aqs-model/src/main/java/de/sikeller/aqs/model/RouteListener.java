@@ -0,0 +1,11 @@
+package de.sikeller.aqs.model;
+
+/**
+ * Listener which is informed if the planned route of a {@link Taxi} was changed by the {@link
+ * WorldMutator}. Reaching a target does not trigger this listener, because the remaining route is
+ * always a part of the previously planned route.
+ */
+@FunctionalInterface
+public interface RouteListener {
+  void onRouteChanged(Taxi taxi);
+}
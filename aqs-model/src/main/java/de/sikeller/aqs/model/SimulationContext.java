@@ -0,0 +1,35 @@
+package de.sikeller.aqs.model;
+
+import de.sikeller.aqs.model.events.Event;
+import de.sikeller.aqs.model.events.EventDispatcher;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The state of a single simulation which is shared by its world and entities: the event dispatcher
+ * which records the events of the simulation and the error handler which reports invalid actions.
+ *
+ * <p>Every {@link WorldObject} has its own context, so several simulations can run in the same JVM
+ * at the same time, each on its own thread, without mixing their events.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SimulationContext {
+  private final EventDispatcher eventDispatcher;
+  private final ErrorHandler errorHandler;
+
+  /** Create a context with an empty event dispatcher and an error handler which throws errors. */
+  public SimulationContext() {
+    this(new EventDispatcher(), new ErrorHandler(true));
+  }
+
+  /**
+   * Dispatch an event of this simulation. While the effects of entities are recorded (see {@link
+   * DeferredEffects}), the event is dispatched when the recorded effects are replayed.
+   *
+   * @param event the event to dispatch
+   */
+  public void dispatch(Event event) {
+    DeferredEffects.run(() -> eventDispatcher.dispatchEvent(event));
+  }
+}
@@ -0,0 +1,233 @@
+package de.sikeller.aqs.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import lombok.Getter;
+
+/**
+ * A uniform grid spatial index for {@link Entity}s. The world is divided into quadratic cells of a
+ * fixed size and each entity is stored in the bucket of the cell its position is in. Position
+ * updates only touch the index if an entity crosses a cell border.
+ *
+ * <p>Nearest neighbor queries search the cells in rings around the query position and stop as soon
+ * as no closer entity can be found in the remaining rings, so they only look at the entities close
+ * to the query position instead of scanning and sorting all entities.
+ *
+ * <p>By default the entities are indexed by their current position. A grid can index them by
+ * another position as well, e.g. by their target (see {@link #SpatialGrid(int, int, int,
+ * Function)}).
+ *
+ * @param <T> the type of the indexed entities
+ */
+public class SpatialGrid<T extends Entity> {
+  @Getter private final int cellSize;
+  private final int columns;
+  private final int rows;
+  private final List<T>[] cells;
+  private final Function<? super T, Position> positionFunction;
+  @Getter private int size = 0;
+
+  public SpatialGrid(int maxX, int maxY, int cellSize) {
+    this(maxX, maxY, cellSize, Entity::getPosition);
+  }
+
+  /**
+   * Create a grid which indexes the entities by the position of a function. The position of an
+   * indexed entity must not change unless the grid is updated with {@link #move(Entity, Position,
+   * Position)}.
+   *
+   * @param maxX the maximum x coordinate
+   * @param maxY the maximum y coordinate
+   * @param cellSize the size of the cells
+   * @param positionFunction the function which returns the indexed position of an entity
+   */
+  @SuppressWarnings("unchecked")
+  public SpatialGrid(
+      int maxX, int maxY, int cellSize, Function<? super T, Position> positionFunction) {
+    if (cellSize <= 0) throw new IllegalArgumentException("Cell size must be positive.");
+    this.cellSize = cellSize;
+    this.positionFunction = positionFunction;
+    this.columns = Math.max(1, (maxX + cellSize - 1) / cellSize);
+    this.rows = Math.max(1, (maxY + cellSize - 1) / cellSize);
+    this.cells = new List[columns * rows];
+  }
+
+  /**
+   * Add an entity at its indexed position.
+   *
+   * @param entity the entity to add
+   */
+  public void add(T entity) {
+    int cell = cellOf(positionFunction.apply(entity));
+    if (cells[cell] == null) {
+      cells[cell] = new ArrayList<>();
+    }
+    cells[cell].add(entity);
+    size++;
+  }
+
+  /**
+   * Remove an entity at its indexed position.
+   *
+   * @param entity the entity to remove
+   */
+  public void remove(T entity) {
+    remove(entity, cellOf(positionFunction.apply(entity)));
+  }
+
+  /**
+   * Update the index after an entity moved from one position to another.
+   *
+   * @param entity the moved entity
+   * @param oldPosition the position the entity is currently indexed with
+   * @param newPosition the new position of the entity
+   */
+  public void move(T entity, Position oldPosition, Position newPosition) {
+    move(entity, oldPosition.getX(), oldPosition.getY(), newPosition.getX(), newPosition.getY());
+  }
+
+  /**
+   * Update the index after an entity moved from one position to another, see {@link #move(Entity,
+   * Position, Position)}.
+   */
+  public void move(T entity, int oldX, int oldY, int newX, int newY) {
+    int oldCell = row(oldY) * columns + column(oldX);
+    int newCell = row(newY) * columns + column(newX);
+    if (oldCell == newCell) return;
+    if (remove(entity, oldCell)) {
+      if (cells[newCell] == null) {
+        cells[newCell] = new ArrayList<>();
+      }
+      cells[newCell].add(entity);
+      size++;
+    }
+  }
+
+  /** Remove all entities from the index. */
+  public void clear() {
+    for (List<T> cell : cells) {
+      if (cell != null) cell.clear();
+    }
+    size = 0;
+  }
+
+  /**
+   * Find the k nearest entities to a given position which match a filter.
+   *
+   * @param position the position to which to find the nearest entities
+   * @param k the maximum number of entities to return
+   * @param filter only entities matching this filter are considered
+   * @return a list of tuples containing the entity and its distance, sorted by the distance
+   */
+  public List<Tuple<T, Double>> findNearest(Position position, int k, Predicate<? super T> filter) {
+    if (k <= 0 || size == 0) return List.of();
+    // max heap: the head is the farthest of the best k entities found so far
+    PriorityQueue<Tuple<T, Double>> best =
+        new PriorityQueue<>(
+            k, Comparator.comparingDouble((Tuple<T, Double> t) -> t.v2()).reversed());
+    int centerColumn = column(position.getX());
+    int centerRow = row(position.getY());
+    int maxRing = Math.max(columns, rows);
+    for (int ring = 0; ring <= maxRing; ring++) {
+      // all entities in this ring are at least (ring - 1) cells away from the query position
+      if (best.size() == k && (ring - 1) * (double) cellSize > best.peek().v2()) break;
+      for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+        if (r < 0 || r >= rows) continue;
+        boolean borderRow = r == centerRow - ring || r == centerRow + ring;
+        int step = borderRow ? 1 : 2 * ring;
+        for (int c = centerColumn - ring; c <= centerColumn + ring; c += Math.max(1, step)) {
+          if (c < 0 || c >= columns) continue;
+          List<T> cell = cells[r * columns + c];
+          if (cell == null) continue;
+          for (T entity : cell) {
+            if (!filter.test(entity)) continue;
+            double distance = positionFunction.apply(entity).distance(position);
+            if (best.size() < k) {
+              best.add(new Tuple<>(entity, distance));
+            } else if (distance < best.peek().v2()) {
+              best.poll();
+              best.add(new Tuple<>(entity, distance));
+            }
+          }
+        }
+      }
+    }
+    List<Tuple<T, Double>> result = new ArrayList<>(best);
+    result.sort(Comparator.comparingDouble(Tuple::v2));
+    return result;
+  }
+
+  /**
+   * Find the nearest entity to a given position which matches a filter.
+   *
+   * @param position the position to which to find the nearest entity
+   * @param filter only entities matching this filter are considered
+   * @return a tuple containing the nearest entity and the distance to it, or null if no entity
+   *     matches
+   */
+  public Tuple<T, Double> findNearest(Position position, Predicate<? super T> filter) {
+    var nearest = findNearest(position, 1, filter);
+    return nearest.isEmpty() ? null : nearest.getFirst();
+  }
+
+  /**
+   * Find all entities within a radius around a given position which match a filter.
+   *
+   * @param position the center of the search area
+   * @param radius the search radius
+   * @param filter only entities matching this filter are considered
+   * @return all matching entities with a distance smaller or equal to the radius
+   */
+  public Collection<T> findInRadius(Position position, double radius, Predicate<? super T> filter) {
+    Collection<T> result = new ArrayList<>();
+    if (radius < 0 || size == 0) return result;
+    int minColumn = column((int) Math.floor(position.getX() - radius));
+    int maxColumn = column((int) Math.ceil(position.getX() + radius));
+    int minRow = row((int) Math.floor(position.getY() - radius));
+    int maxRow = row((int) Math.ceil(position.getY() + radius));
+    for (int r = minRow; r <= maxRow; r++) {
+      for (int c = minColumn; c <= maxColumn; c++) {
+        List<T> cell = cells[r * columns + c];
+        if (cell == null) continue;
+        for (T entity : cell) {
+          if (filter.test(entity) && positionFunction.apply(entity).isWithin(position, radius)) {
+            result.add(entity);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private boolean remove(T entity, int cell) {
+    List<T> bucket = cells[cell];
+    if (bucket == null) return false;
+    for (int i = 0; i < bucket.size(); i++) {
+      if (bucket.get(i) == entity) {
+        // swap with the last element to avoid shifting the bucket
+        bucket.set(i, bucket.getLast());
+        bucket.removeLast();
+        size--;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int cellOf(Position position) {
+    return row(position.getY()) * columns + column(position.getX());
+  }
+
+  private int column(int x) {
+    return Math.clamp(x / cellSize, 0, columns - 1);
+  }
+
+  private int row(int y) {
+    return Math.clamp(y / cellSize, 0, rows - 1);
+  }
+}
@@ -0,0 +1,17 @@
+package de.sikeller.aqs.model;
+
+/** An entity which can keep its movement state in an {@link EntityStore}. */
+interface StoredEntity extends Entity {
+  /** Returns true if the entity is attached to a store. */
+  boolean isStored();
+
+  /**
+   * Move the entity towards its target like {@link Entity#updatePosition(Position, long)} with the
+   * result of {@link Position#moveTowards(Position, double)}, but without creating positions. Only
+   * allowed if the entity {@link #isStored()}.
+   *
+   * @param moveDistance the distance to move towards the target
+   * @param currentTime the current time
+   */
+  void moveTowardsTarget(double moveDistance, long currentTime);
+}
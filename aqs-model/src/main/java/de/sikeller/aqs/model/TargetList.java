@@ -1,21 +1,34 @@
 package de.sikeller.aqs.model;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.stream.Collectors;
-import lombok.Builder;
+import java.util.NoSuchElementException;
 
-@Builder
-public class TargetList {
-  @Builder.Default private final List<Order> orders = new LinkedList<>();
-  @Builder.Default private final List<OrderNode> flattenedTargets = new LinkedList<>();
+/**
+ * The planned route of a taxi. The route consists of the orders of the taxi and the stops, which
+ * are the flattened positions of these orders in the order the taxi visits them.
+ *
+ * <p>The stops are stored in a ring buffer, so reaching the next stop is O(1) and all stops can be
+ * read by index (see {@link #size()}, {@link #get(int)} and {@link #getPosition(int)}) or iterated
+ * without copying the route.
+ */
+public class TargetList implements Iterable<OrderNode> {
+  private final List<Order> orders;
+  private OrderNode[] stops;
+  private int head = 0;
+  private int size = 0;
+
+  /** True as long as the stops are the {@link #sequentialOrders} of the orders. */
+  private boolean sequential = true;
 
   /**
    * <code>
    * [[A, B], [a, b, c], [1, 2]] => [A, B, a, b, c, 1, 2]
    * </code>
    */
-  public static OrderFlattenFunction sequentialOrders =
+  public static final OrderFlattenFunction sequentialOrders =
       orders -> orders.stream().flatMap(Order::stream).toList();
 
   /**
@@ -23,7 +36,7 @@ public class TargetList {
    * [[A, B], [a, b, c], [1, 2]] => [A, a, 1, B, b, 2, c]
    * </code>
    */
-  public static OrderFlattenFunction mergeOrders =
+  public static final OrderFlattenFunction mergeOrders =
       orders -> {
         List<OrderNode> result = new LinkedList<>();
         int maxSize = orders.stream().mapToInt(Order::size).max().orElse(0);
@@ -37,49 +50,200 @@ public class TargetList {
         return result;
       };
 
+  public TargetList() {
+    this.orders = new ArrayList<>();
+    this.stops = new OrderNode[8];
+  }
+
+  private TargetList(TargetList other) {
+    this.orders = new ArrayList<>(other.orders.size());
+    other.orders.forEach(o -> this.orders.add(o.snapshot()));
+    this.stops = new OrderNode[other.stops.length];
+    for (int i = 0; i < other.size; i++) {
+      this.stops[i] = other.get(i);
+    }
+    this.size = other.size;
+    this.sequential = other.sequential;
+  }
+
+  /**
+   * Add an order and plan the stops again. Appending to stops which are planned sequentially only
+   * adds the stops of the new order.
+   *
+   * @param order the new order
+   * @param flattenFunction the function which plans the stops of all orders
+   */
   public void addOrder(Order order, OrderFlattenFunction flattenFunction) {
-    orders.add(order.snapshot());
-    planOrders(flattenFunction);
+    var snapshot = order.snapshot();
+    orders.add(snapshot);
+    if (flattenFunction == sequentialOrders && sequential) {
+      ensureCapacity(size + snapshot.size());
+      for (int i = 0; i < snapshot.size(); i++) {
+        append(snapshot.get(i));
+      }
+    } else {
+      planOrders(flattenFunction);
+    }
   }
 
   public void planOrders(OrderFlattenFunction flattenFunction) {
-    flattenedTargets.clear();
-    flattenedTargets.addAll(flattenFunction.apply(orders));
+    var flattened = flattenFunction.apply(orders);
+    clearStops();
+    ensureCapacity(flattened.size());
+    for (OrderNode node : flattened) {
+      append(node);
+    }
+    sequential = flattenFunction == sequentialOrders;
+  }
+
+  /**
+   * Remove the order of a client and its stops. The remaining stops keep their order.
+   *
+   * @param client the client whose order is removed
+   */
+  public void removeOrders(Client client) {
+    orders.removeIf(order -> order.getClient().equals(client));
+    List<OrderNode> remaining = new ArrayList<>(size);
+    for (OrderNode stop : this) {
+      if (!client.equals(stop.getClient())) remaining.add(stop);
+    }
+    clearStops();
+    for (OrderNode stop : remaining) {
+      append(stop);
+    }
   }
 
   public OrderNode getAnRemoveFirst() {
-    OrderNode position = flattenedTargets.removeFirst();
-    orders.forEach(o -> o.removeIf(e -> e.equals(position)));
+    if (size == 0) throw new NoSuchElementException();
+    OrderNode target = stops[head];
+    stops[head] = null;
+    head = (head + 1) & (stops.length - 1);
+    size--;
+    int removed = 0;
+    for (int i = 0; i < orders.size(); i++) {
+      var order = orders.get(i);
+      if (order.getClient().equals(target.getClient())) {
+        removed += order.removePosition(target.getPosition());
+      }
+    }
     orders.removeIf(Order::isEmpty);
-    return position;
+    if (removed != 1) {
+      // the stops do not match the remaining orders anymore
+      sequential = false;
+    }
+    return target;
   }
 
   public void clear() {
     orders.clear();
-    flattenedTargets.clear();
+    clearStops();
+    sequential = true;
   }
 
   public TargetList snapshot() {
-    return TargetList.builder()
-        .orders(
-            orders.stream().map(Order::snapshot).collect(Collectors.toCollection(LinkedList::new)))
-        .flattenedTargets(new LinkedList<>(flattenedTargets))
-        .build();
+    return new TargetList(this);
   }
 
+  /**
+   * Copy the stops into a new list. Prefer {@link #get(int)} or iterating over this target list to
+   * read the stops without copying.
+   *
+   * @return a new list with all stops
+   */
   public List<OrderNode> toList() {
-    return new LinkedList<>(flattenedTargets);
+    // read the fields once, the visualization copies the route while the simulation is running
+    OrderNode[] currentStops = stops;
+    int currentHead = head;
+    int currentSize = Math.min(size, currentStops.length);
+    List<OrderNode> result = new ArrayList<>(currentSize);
+    for (int i = 0; i < currentSize; i++) {
+      OrderNode node = currentStops[(currentHead + i) & (currentStops.length - 1)];
+      if (node != null) result.add(node);
+    }
+    return result;
   }
 
   public boolean isEmpty() {
-    return flattenedTargets.isEmpty();
+    return size == 0;
+  }
+
+  /** Returns the number of stops. */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the stop at the given index without copying the route.
+   *
+   * @param index the index of the stop, 0 is the next stop
+   * @return the stop at the given index
+   */
+  public OrderNode get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return stops[(head + index) & (stops.length - 1)];
+  }
+
+  /**
+   * Returns the position of the stop at the given index without copying the route.
+   *
+   * @param index the index of the stop, 0 is the next stop
+   * @return the position of the stop at the given index
+   */
+  public Position getPosition(int index) {
+    return get(index).getPosition();
   }
 
   public Position getFirst(Position orDefault) {
-    return flattenedTargets.isEmpty() ? orDefault : flattenedTargets.getFirst().getPosition();
+    return size == 0 ? orDefault : stops[head].getPosition();
   }
 
   public OrderNode getFirst() {
-    return flattenedTargets.isEmpty() ? null : flattenedTargets.getFirst();
+    return size == 0 ? null : stops[head];
+  }
+
+  @Override
+  public Iterator<OrderNode> iterator() {
+    return new Iterator<>() {
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public OrderNode next() {
+        if (index >= size) throw new NoSuchElementException();
+        return get(index++);
+      }
+    };
+  }
+
+  private void append(OrderNode node) {
+    stops[(head + size) & (stops.length - 1)] = node;
+    size++;
+  }
+
+  private void clearStops() {
+    for (int i = 0; i < size; i++) {
+      stops[(head + i) & (stops.length - 1)] = null;
+    }
+    head = 0;
+    size = 0;
+  }
+
+  /** Grow the ring buffer to a power of two which can hold the given number of stops. */
+  private void ensureCapacity(int capacity) {
+    if (capacity <= stops.length) return;
+    int newLength = stops.length;
+    while (newLength < capacity) newLength <<= 1;
+    OrderNode[] newStops = new OrderNode[newLength];
+    for (int i = 0; i < size; i++) {
+      newStops[i] = stops[(head + i) & (stops.length - 1)];
+    }
+    stops = newStops;
+    head = 0;
   }
 }
@@ -2,14 +2,17 @@ package de.sikeller.aqs.model;
 
 import de.sikeller.aqs.model.events.EventClientEntersTaxi;
 import de.sikeller.aqs.model.events.EventClientLeaveTaxi;
-import de.sikeller.aqs.model.events.EventDispatcher;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -28,17 +31,32 @@ import lombok.extern.slf4j.Slf4j;
 @Data
 @Builder
 @EqualsAndHashCode(of = "name")
-class TaxiEntity implements Taxi {
+class TaxiEntity implements Taxi, StoredEntity {
   private final String name;
   private final int capacity;
   private Position position;
-  @Builder.Default private final TargetList targets = TargetList.builder().build();
+  @Builder.Default private final TargetList targets = new TargetList();
   @Builder.Default private final Set<ClientEntity> containedPassengers = new HashSet<>();
   @Builder.Default private final Set<ClientEntity> plannedPassengers = new HashSet<>();
   @Builder.Default private long lastUpdate = 0;
   @Builder.Default private double currentSpeed = 1;
   @Builder.Default private double travelDistance = 0;
-  private final ErrorHandler errorHandler = ErrorHandlerFactory.getInstance();
+
+  @Builder.Default @ToString.Exclude
+  private final SimulationContext context = new SimulationContext();
+
+  @ToString.Exclude private PositionListener positionListener;
+
+  /** If set, the position, speed and last update are kept in this store. */
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  private EntityStore store;
+
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  @ToString.Exclude
+  private int slot;
 
   @Override
   public Set<Client> getContainedPassengers() {
@@ -53,8 +71,9 @@ class TaxiEntity implements Taxi {
   public TaxiEntity snapshot(Map<String, ClientEntity> clientSnapshots) {
     return TaxiEntity.builder()
         .name(name)
+        .context(context)
         .capacity(capacity)
-        .position(position)
+        .position(getPosition())
         .targets(targets.snapshot())
         .containedPassengers(
             containedPassengers.stream()
@@ -67,6 +86,60 @@ class TaxiEntity implements Taxi {
         .build();
   }
 
+  /**
+   * Move the movement state of this taxi into a columnar store.
+   *
+   * @param store the store which holds the state from now on
+   */
+  void attach(EntityStore store) {
+    this.slot = store.add(position, currentSpeed, ClientMode.MOVING, lastUpdate);
+    this.store = store;
+  }
+
+  @Override
+  public boolean isStored() {
+    return store != null;
+  }
+
+  @Override
+  public Position getPosition() {
+    return store == null ? position : store.getPosition(slot);
+  }
+
+  public void setPosition(Position position) {
+    if (store == null) {
+      this.position = position;
+    } else {
+      store.setPosition(slot, position);
+    }
+  }
+
+  @Override
+  public long getLastUpdate() {
+    return store == null ? lastUpdate : store.getLastUpdate(slot);
+  }
+
+  public void setLastUpdate(long lastUpdate) {
+    if (store == null) {
+      this.lastUpdate = lastUpdate;
+    } else {
+      store.setLastUpdate(slot, lastUpdate);
+    }
+  }
+
+  @Override
+  public double getCurrentSpeed() {
+    return store == null ? currentSpeed : store.getSpeed(slot);
+  }
+
+  public void setCurrentSpeed(double currentSpeed) {
+    if (store == null) {
+      this.currentSpeed = currentSpeed;
+    } else {
+      store.setSpeed(slot, currentSpeed);
+    }
+  }
+
   /**
    * Update the position of the taxi. This will check if the taxi has reached its target, if a
    * client is entering the taxi, and if a client is leaving the taxi.
@@ -76,12 +149,45 @@ class TaxiEntity implements Taxi {
    */
   @Override
   public void updatePosition(Position position, long currentTime) {
-    this.lastUpdate = currentTime;
+    setLastUpdate(currentTime);
     if (!isMoving()) return;
-    this.travelDistance += this.position.distance(position);
-    this.position = position;
+    var oldPosition = getPosition();
+    this.travelDistance += oldPosition.distance(position);
+    setPosition(position);
+    if (positionListener != null) {
+      var listener = positionListener;
+      DeferredEffects.run(() -> listener.onPositionChanged(oldPosition, position));
+    }
     containedPassengers.forEach(p -> p.updatePosition(position, currentTime));
-    OrderNode target = checkTargetReached(position);
+    checkTarget(position.getX(), position.getY(), currentTime);
+  }
+
+  @Override
+  public void moveTowardsTarget(double moveDistance, long currentTime) {
+    store.setLastUpdate(slot, currentTime);
+    if (!isMoving()) return;
+    int oldX = store.getX(slot);
+    int oldY = store.getY(slot);
+    store.moveTowards(slot, targets.getFirst().getPosition(), moveDistance);
+    int x = store.getX(slot);
+    int y = store.getY(slot);
+    this.travelDistance += store.distance(slot, oldX, oldY);
+    if (positionListener != null) {
+      var listener = positionListener;
+      DeferredEffects.run(() -> listener.onPositionChanged(oldX, oldY, x, y));
+    }
+    for (ClientEntity passenger : containedPassengers) {
+      if (passenger.isStored()) {
+        passenger.updatePosition(x, y, currentTime);
+      } else {
+        passenger.updatePosition(getPosition(), currentTime);
+      }
+    }
+    checkTarget(x, y, currentTime);
+  }
+
+  private void checkTarget(int x, int y, long currentTime) {
+    OrderNode target = checkTargetReached(x, y);
     if (target != null) {
       checkClientLeaving(currentTime);
       checkClientEntering(target, currentTime);
@@ -94,8 +200,8 @@ class TaxiEntity implements Taxi {
   }
 
   public void pickupClient(ClientEntity client) {
-    if (!client.getPosition().equals(position)) {
-      errorHandler.error("Try to pickup a client which is too far away :-(");
+    if (!client.getPosition().equals(getPosition())) {
+      error("Try to pickup a client which is too far away :-(");
       return;
     }
     client.setMode(ClientMode.MOVING);
@@ -105,7 +211,7 @@ class TaxiEntity implements Taxi {
 
   public void forgetClient(ClientEntity client) {
     if (!plannedPassengers.contains(client)) {
-      errorHandler.error("Try to forget a client which is unknown to the given taxi!");
+      error("Try to forget a client which is unknown to the given taxi!");
       return;
     }
     // todo cleanup targets
@@ -113,9 +219,19 @@ class TaxiEntity implements Taxi {
     plannedPassengers.remove(client);
   }
 
+  /**
+   * Forget a planned client which is not picked up yet and remove its stops from the route.
+   *
+   * @param client the planned client
+   */
+  public void unplanClient(ClientEntity client) {
+    forgetClient(client);
+    targets.removeOrders(client);
+  }
+
   public void dropOffClient(ClientEntity client) {
     if (!containedPassengers.contains(client)) {
-      errorHandler.error("Try to drop off a client which is not contained in the given taxi!");
+      error("Try to drop off a client which is not contained in the given taxi!");
       return;
     }
     // todo cleanup targets
@@ -141,8 +257,9 @@ class TaxiEntity implements Taxi {
     targets.planOrders(flattenFunction);
   }
 
-  private OrderNode checkTargetReached(Position position) {
-    if (!targets.isEmpty() && position.equals(getTarget())) {
+  private OrderNode checkTargetReached(int x, int y) {
+    var next = targets.getFirst();
+    if (next != null && next.getPosition().getX() == x && next.getPosition().getY() == y) {
       var target = targets.getAnRemoveFirst();
       log.debug("Taxi {} reached a target: {}", name, target);
       return target;
@@ -154,7 +271,7 @@ class TaxiEntity implements Taxi {
     for (ClientEntity client : new HashSet<>(containedPassengers)) {
       if (client.isFinished()) {
         containedPassengers.remove(client);
-        EventDispatcher.dispatch(new EventClientLeaveTaxi(currentTime, client, this));
+        context.dispatch(new EventClientLeaveTaxi(currentTime, client, this));
         log.debug("Taxi {} passenger {} left", name, client.getName());
       }
     }
@@ -162,7 +279,7 @@ class TaxiEntity implements Taxi {
 
   private void checkClientEntering(OrderNode currentTarget, long currentTime) {
     if (currentTarget.getClient() == null) {
-      errorHandler.error("Taxi reached a target but client in order node is empty!");
+      error("Taxi reached a target but client in order node is empty!");
       return;
     }
     var client =
@@ -176,21 +293,21 @@ class TaxiEntity implements Taxi {
     }
     if (client.getPosition().equals(currentTarget.getPosition())) {
       if (containedPassengers.size() >= capacity) {
-        errorHandler.error(
+        error(
             "Client %s should enter taxi %s but capacity reached. Client does not enter taxi!",
             client.getName(), this.getName());
         forgetClient(client);
         return;
       }
       pickupClient(client);
-      EventDispatcher.dispatch(new EventClientEntersTaxi(currentTime, client, this));
+      context.dispatch(new EventClientEntersTaxi(currentTime, client, this));
       log.debug("Taxi {} passenger {} enters", name, client.getName());
     }
   }
 
   @Override
   public Position getTarget() {
-    return targets.getFirst(position);
+    return targets.getFirst(getPosition());
   }
 
   @Override
@@ -226,4 +343,8 @@ class TaxiEntity implements Taxi {
   public boolean isSame(Taxi taxi) {
     return name.equals(taxi.getName());
   }
+
+  private void error(String message, Object... vars) {
+    context.getErrorHandler().error(message, vars);
+  }
 }
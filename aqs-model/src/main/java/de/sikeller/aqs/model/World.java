@@ -1,7 +1,9 @@
 package de.sikeller.aqs.model;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 public interface World extends WorldMutator {
   Set<Client> getSpawnedClients();
@@ -18,6 +20,14 @@ public interface World extends WorldMutator {
 
   boolean isFinished();
 
+  /**
+   * Returns the first time after the current time at which a client spawns, so an event-driven
+   * simulation can jump there directly.
+   *
+   * @return the next spawn time or {@link Long#MAX_VALUE} if all clients are spawned
+   */
+  long getNextSpawnTime();
+
   int getMaxX();
 
   int getMaxY();
@@ -26,7 +36,80 @@ public interface World extends WorldMutator {
 
   Collection<Client> getClients();
 
+  /**
+   * Read all taxis without copying them. In contrast to {@link #getTaxis()} the returned
+   * collection is an unmodifiable view which is shared by all callers and only rebuilt if taxis are
+   * added or the world is reset, so it can be iterated every step at no extra cost.
+   *
+   * @return an unmodifiable view of all taxis in the order they were added
+   */
+  Collection<Taxi> getTaxiView();
+
+  /**
+   * Read all clients without copying them, see {@link #getTaxiView()}.
+   *
+   * @return an unmodifiable view of all clients in the order they were added
+   */
+  Collection<Client> getClientView();
+
   long getCurrentTime();
 
+  /**
+   * Find the k nearest taxis to a position using the spatial index of the world.
+   *
+   * @param position the position to which to find the nearest taxis
+   * @param k the maximum number of taxis to return
+   * @param filter only taxis matching this filter are considered
+   * @return a list of tuples containing the taxi and its distance, sorted by the distance
+   */
+  List<Tuple<Taxi, Double>> findNearestTaxis(Position position, int k, Predicate<Taxi> filter);
+
+  /**
+   * Find all taxis within a radius around a position using the spatial index of the world.
+   *
+   * @param position the center of the search area
+   * @param radius the search radius
+   * @param filter only taxis matching this filter are considered
+   * @return all matching taxis within the radius
+   */
+  Collection<Taxi> findTaxisInRadius(Position position, double radius, Predicate<Taxi> filter);
+
+  /**
+   * Find the k nearest clients to a position using the spatial index of the world.
+   *
+   * @param position the position to which to find the nearest clients
+   * @param k the maximum number of clients to return
+   * @param filter only clients matching this filter are considered
+   * @return a list of tuples containing the client and its distance, sorted by the distance
+   */
+  List<Tuple<Client, Double>> findNearestClients(
+      Position position, int k, Predicate<Client> filter);
+
+  /**
+   * Find all clients within a radius around a position using the spatial index of the world.
+   *
+   * @param position the center of the search area
+   * @param radius the search radius
+   * @param filter only clients matching this filter are considered
+   * @return all matching clients within the radius
+   */
+  Collection<Client> findClientsInRadius(
+      Position position, double radius, Predicate<Client> filter);
+
   WorldMutator mutate();
+
+  /**
+   * Register a listener which is informed about every route change of a taxi by the {@link
+   * WorldMutator}. All listeners are removed if the world is reset.
+   *
+   * @param listener the listener to register
+   */
+  void registerRouteListener(RouteListener listener);
+
+  /**
+   * Remove a listener which was registered with {@link #registerRouteListener}.
+   *
+   * @param listener the listener to remove
+   */
+  void removeRouteListener(RouteListener listener);
 }
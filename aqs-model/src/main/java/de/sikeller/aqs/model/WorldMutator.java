@@ -25,6 +25,15 @@ public interface WorldMutator {
    */
   void planOrderPath(Taxi taxi, OrderFlattenFunction flattenFunction);
 
+  /**
+   * Remove a planned client, which is not picked up yet, from a taxi. The stops of the client are
+   * removed from the order path, while the other stops and the passengers in the taxi are kept.
+   *
+   * @param taxi the taxi which planned the client
+   * @param client the client which is waiting again afterwards
+   */
+  void unplanClientForTaxi(Taxi taxi, Client client);
+
   /**
    * Fully clear a taxi. Removes all contained and planned clients and clears the order path.
    *
@@ -1,12 +1,16 @@
 package de.sikeller.aqs.model;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
 /**
  * The World class represents a simulation environment where taxis and clients are present. It
@@ -27,9 +31,75 @@ public class WorldObject implements World {
   @Builder.Default private final Collection<ClientEntity> clientEntities = new ArrayList<>();
   @Builder.Default private long currentTime = 0;
 
+  /** The events and the error handling of the simulation in this world. */
+  @Builder.Default private final SimulationContext context = new SimulationContext();
+
+  /**
+   * Keep the movement state of taxis and clients in columnar {@link EntityStore}s, so moving them
+   * does not create position objects. Only applies to entities added after building the world.
+   */
+  @Builder.Default private final boolean columnarStore = false;
+
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private EntityStore taxiStore;
+
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private EntityStore clientStore;
+
+  /** Cell size of the spatial indexes for taxis and clients. */
+  @Builder.Default private final int spatialCellSize = 500;
+
+  /** Lazily created on the first spatial query and updated by the entity position listeners. */
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private volatile SpatialGrid<Taxi> taxiIndex;
+
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private volatile SpatialGrid<Client> clientIndex;
+
+  /** Lazily created read views, dropped whenever taxis or clients are added. */
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private volatile Collection<Taxi> taxiView;
+
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private volatile Collection<Client> clientView;
+
+  /** Lazily created on the first query by mode and updated by the client mode listeners. */
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private volatile ClientBuckets clientBuckets;
+
+  @Getter(AccessLevel.NONE)
+  private final Object clientBucketsMonitor = new Object();
+
+  /** Lazily created on the first mutator call and updated when taxis or clients are added. */
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private volatile Map<String, TaxiEntity> taxiEntitiesByName;
+
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private volatile Map<String, ClientEntity> clientEntitiesByName;
+
+  @Getter(AccessLevel.NONE)
+  private final Object entitiesByNameMonitor = new Object();
+
+  @Getter(AccessLevel.NONE)
+  @Builder.Default
+  // copy on write, so listeners can be added while the route changes are fired
+  private final List<RouteListener> routeListeners = new CopyOnWriteArrayList<>();
+
   @Builder.Default
   private Function<WorldObject, Boolean> isFinished =
-      world -> world.clients.stream().allMatch(Client::isFinished);
+      world -> {
+        var buckets = world.clientBuckets();
+        return buckets.count(ClientMode.FINISHED) == buckets.size();
+      };
 
   @Override
   public Collection<Client> getClients() {
@@ -51,13 +121,41 @@ public class WorldObject implements World {
     }
   }
 
+  @Override
+  public Collection<Taxi> getTaxiView() {
+    var view = taxiView;
+    if (view == null) {
+      try {
+        lock.readLock().lock();
+        view = Collections.unmodifiableList(new ArrayList<>(taxis));
+        taxiView = view;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+    return view;
+  }
+
+  @Override
+  public Collection<Client> getClientView() {
+    var view = clientView;
+    if (view == null) {
+      try {
+        lock.readLock().lock();
+        view = Collections.unmodifiableList(new ArrayList<>(clients));
+        clientView = view;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+    return view;
+  }
+
   @Override
   public Set<Client> getSpawnedClients() {
     try {
       lock.readLock().lock();
-      return clients.stream()
-          .filter(client -> client.isSpawned(currentTime))
-          .collect(Collectors.toSet());
+      return new HashSet<>(clientBuckets().findSpawned(currentTime));
     } finally {
       lock.readLock().unlock();
     }
@@ -67,14 +165,7 @@ public class WorldObject implements World {
   public Collection<Client> getClientsByModes(Set<ClientMode> modes, boolean onlySpawned) {
     try {
       lock.readLock().lock();
-      Collection<Client> result = new ArrayList<>();
-      // for loop to improve performance for large client collections and use ArrayList as result
-      for (Client client : clients) {
-        if ((!onlySpawned || client.isSpawned(currentTime)) && modes.contains(client.getMode())) {
-          result.add(client);
-        }
-      }
-      return result;
+      return clientBuckets().findByModes(modes, onlySpawned, currentTime);
     } finally {
       lock.readLock().unlock();
     }
@@ -84,14 +175,7 @@ public class WorldObject implements World {
   public Collection<Client> getClientsByMode(ClientMode mode, boolean onlySpawned) {
     try {
       lock.readLock().lock();
-      Collection<Client> result = new ArrayList<>();
-      // for loop to improve performance for large client collections and use ArrayList as result
-      for (Client client : clients) {
-        if ((!onlySpawned || client.isSpawned(currentTime)) && mode.equals(client.getMode())) {
-          result.add(client);
-        }
-      }
-      return result;
+      return clientBuckets().findByModes(EnumSet.of(mode), onlySpawned, currentTime);
     } finally {
       lock.readLock().unlock();
     }
@@ -101,7 +185,18 @@ public class WorldObject implements World {
   public Set<Client> getFinishedClients() {
     try {
       lock.readLock().lock();
-      return clients.stream().filter(Client::isFinished).collect(Collectors.toSet());
+      return new HashSet<>(
+          clientBuckets().findByModes(EnumSet.of(ClientMode.FINISHED), false, currentTime));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long getNextSpawnTime() {
+    try {
+      lock.readLock().lock();
+      return clientBuckets().nextSpawnTime(currentTime);
     } finally {
       lock.readLock().unlock();
     }
@@ -111,9 +206,8 @@ public class WorldObject implements World {
   public int getSpawnProgress() {
     try {
       lock.readLock().lock();
-      long spawnedClients =
-          clients.stream().filter(client -> client.isSpawned(currentTime)).count();
-      return Math.round(1.0f * spawnedClients / clients.size() * 100);
+      var buckets = clientBuckets();
+      return Math.round(1.0f * buckets.countSpawned(currentTime) / buckets.size() * 100);
     } finally {
       lock.readLock().unlock();
     }
@@ -123,8 +217,8 @@ public class WorldObject implements World {
   public int getFinishedProgress() {
     try {
       lock.readLock().lock();
-      long finishedClients = clients.stream().filter(Client::isFinished).count();
-      return Math.round(1.0f * finishedClients / clients.size() * 100);
+      var buckets = clientBuckets();
+      return Math.round(1.0f * buckets.count(ClientMode.FINISHED) / buckets.size() * 100);
     } finally {
       lock.readLock().unlock();
     }
@@ -140,6 +234,114 @@ public class WorldObject implements World {
     }
   }
 
+  @Override
+  public List<Tuple<Taxi, Double>> findNearestTaxis(
+      Position position, int k, Predicate<Taxi> filter) {
+    var index = taxiIndex();
+    try {
+      lock.readLock().lock();
+      return index.findNearest(position, k, filter);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Collection<Taxi> findTaxisInRadius(
+      Position position, double radius, Predicate<Taxi> filter) {
+    var index = taxiIndex();
+    try {
+      lock.readLock().lock();
+      return index.findInRadius(position, radius, filter);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Tuple<Client, Double>> findNearestClients(
+      Position position, int k, Predicate<Client> filter) {
+    var index = clientIndex();
+    try {
+      lock.readLock().lock();
+      return index.findNearest(position, k, filter);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Collection<Client> findClientsInRadius(
+      Position position, double radius, Predicate<Client> filter) {
+    var index = clientIndex();
+    try {
+      lock.readLock().lock();
+      return index.findInRadius(position, radius, filter);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private SpatialGrid<Taxi> taxiIndex() {
+    if (taxiIndex == null) {
+      try {
+        lock.writeLock().lock();
+        if (taxiIndex == null) {
+          var index = new SpatialGrid<Taxi>(maxX, maxY, spatialCellSize);
+          taxiEntities.forEach(taxiEntity -> indexTaxi(index, taxiEntity));
+          taxiIndex = index;
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+    return taxiIndex;
+  }
+
+  private SpatialGrid<Client> clientIndex() {
+    if (clientIndex == null) {
+      try {
+        lock.writeLock().lock();
+        if (clientIndex == null) {
+          var index = new SpatialGrid<Client>(maxX, maxY, spatialCellSize);
+          clientEntities.forEach(clientEntity -> indexClient(index, clientEntity));
+          clientIndex = index;
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+    return clientIndex;
+  }
+
+  /** Must be called with the read or write lock held, so no clients are added meanwhile. */
+  private ClientBuckets clientBuckets() {
+    var buckets = clientBuckets;
+    if (buckets == null) {
+      synchronized (clientBucketsMonitor) {
+        buckets = clientBuckets;
+        if (buckets == null) {
+          buckets = new ClientBuckets();
+          clientEntities.forEach(buckets::add);
+          clientBuckets = buckets;
+        }
+      }
+    }
+    return buckets;
+  }
+
+  private static void indexTaxi(SpatialGrid<Taxi> index, TaxiEntity taxiEntity) {
+    index.add(taxiEntity);
+    taxiEntity.setPositionListener(
+        (oldX, oldY, newX, newY) -> index.move(taxiEntity, oldX, oldY, newX, newY));
+  }
+
+  private static void indexClient(SpatialGrid<Client> index, ClientEntity clientEntity) {
+    index.add(clientEntity);
+    clientEntity.setPositionListener(
+        (oldX, oldY, newX, newY) -> index.move(clientEntity, oldX, oldY, newX, newY));
+  }
+
   public World snapshot() {
     try {
       lock.readLock().lock();
@@ -170,6 +372,8 @@ public class WorldObject implements World {
           .clients(clients)
           .clientEntities(clientEntities)
           .currentTime(currentTime)
+          .context(context)
+          .spatialCellSize(spatialCellSize)
           .isFinished(isFinished)
           .build();
     } finally {
@@ -184,6 +388,16 @@ public class WorldObject implements World {
       this.taxiEntities.clear();
       this.clients.clear();
       this.clientEntities.clear();
+      this.taxiIndex = null;
+      this.clientIndex = null;
+      this.taxiView = null;
+      this.clientView = null;
+      this.clientBuckets = null;
+      this.taxiStore = null;
+      this.clientStore = null;
+      this.taxiEntitiesByName = null;
+      this.clientEntitiesByName = null;
+      this.routeListeners.clear();
       currentTime = 0;
     } finally {
       lock.writeLock().unlock();
@@ -195,35 +409,87 @@ public class WorldObject implements World {
     return this;
   }
 
+  @Override
+  public void registerRouteListener(RouteListener listener) {
+    try {
+      lock.writeLock().lock();
+      if (!routeListeners.contains(listener)) {
+        routeListeners.add(listener);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void removeRouteListener(RouteListener listener) {
+    routeListeners.remove(listener);
+  }
+
   @Override
   public void planClientForTaxi(Taxi taxi, Client client, OrderFlattenFunction flattenFunction) {
     var clientEntity = findClientEntity(client);
     var taxiEntity = findTaxiEntity(taxi);
     taxiEntity.planClient(clientEntity);
     taxiEntity.addOrder(Order.of(clientEntity, currentTime), flattenFunction);
+    fireRouteChanged(taxiEntity);
   }
 
   @Override
   public void planOrderPath(Taxi taxi, OrderFlattenFunction flattenFunction) {
     var taxiEntity = findTaxiEntity(taxi);
     taxiEntity.planOrderPath(flattenFunction);
+    fireRouteChanged(taxiEntity);
+  }
+
+  @Override
+  public void unplanClientForTaxi(Taxi taxi, Client client) {
+    TaxiEntity taxiEntity;
+    try {
+      lock.writeLock().lock();
+      taxiEntity = findTaxiEntity(taxi);
+      taxiEntity.unplanClient(findClientEntity(client));
+    } finally {
+      lock.writeLock().unlock();
+    }
+    fireRouteChanged(taxiEntity);
   }
 
   @Override
   public void clearTaxi(Taxi taxi) {
+    TaxiEntity taxiEntity;
     try {
       lock.writeLock().lock();
-      var taxiEntity = findTaxiEntity(taxi);
+      taxiEntity = findTaxiEntity(taxi);
       taxiEntity.clearTaxi();
     } finally {
       lock.writeLock().unlock();
     }
+    fireRouteChanged(taxiEntity);
+  }
+
+  private void fireRouteChanged(TaxiEntity taxiEntity) {
+    for (RouteListener listener : routeListeners) {
+      listener.onRouteChanged(taxiEntity);
+    }
   }
 
   private TaxiEntity findTaxiEntity(Taxi taxi) {
     try {
       lock.readLock().lock();
-      return taxiEntities.stream().filter(t -> t.isSame(taxi)).findFirst().orElseThrow();
+      var byName = taxiEntitiesByName;
+      if (byName == null) {
+        synchronized (entitiesByNameMonitor) {
+          byName = taxiEntitiesByName;
+          if (byName == null) {
+            byName = indexByName(taxiEntities, TaxiEntity::getName);
+            taxiEntitiesByName = byName;
+          }
+        }
+      }
+      var taxiEntity = byName.get(taxi.getName());
+      if (taxiEntity == null) throw new NoSuchElementException("No taxi " + taxi.getName());
+      return taxiEntity;
     } finally {
       lock.readLock().unlock();
     }
@@ -232,12 +498,34 @@ public class WorldObject implements World {
   private ClientEntity findClientEntity(Client client) {
     try {
       lock.readLock().lock();
-      return clientEntities.stream().filter(c -> c.isSame(client)).findFirst().orElseThrow();
+      var byName = clientEntitiesByName;
+      if (byName == null) {
+        synchronized (entitiesByNameMonitor) {
+          byName = clientEntitiesByName;
+          if (byName == null) {
+            byName = indexByName(clientEntities, ClientEntity::getName);
+            clientEntitiesByName = byName;
+          }
+        }
+      }
+      var clientEntity = byName.get(client.getName());
+      if (clientEntity == null) throw new NoSuchElementException("No client " + client.getName());
+      return clientEntity;
     } finally {
       lock.readLock().unlock();
     }
   }
 
+  /** Keeps the first entity of a name, like the linear search did before. */
+  private static <T> Map<String, T> indexByName(
+      Collection<T> entities, Function<T, String> nameFunction) {
+    Map<String, T> byName = new HashMap<>(entities.size() * 2);
+    for (T entity : entities) {
+      byName.putIfAbsent(nameFunction.apply(entity), entity);
+    }
+    return byName;
+  }
+
   public void addClient(
       String name, int spawnTime, Position position, Position target, Integer clientSpeed) {
     try {
@@ -249,9 +537,18 @@ public class WorldObject implements World {
               .position(position)
               .target(target)
               .currentSpeed(clientSpeed)
+              .context(context)
               .build();
+      if (columnarStore) {
+        if (clientStore == null) clientStore = new EntityStore();
+        clientEntity.attach(clientStore);
+      }
       this.clients.add(clientEntity);
       this.clientEntities.add(clientEntity);
+      if (clientIndex != null) indexClient(clientIndex, clientEntity);
+      this.clientView = null;
+      if (clientBuckets != null) clientBuckets.add(clientEntity);
+      if (clientEntitiesByName != null) clientEntitiesByName.putIfAbsent(name, clientEntity);
     } finally {
       lock.writeLock().unlock();
     }
@@ -267,9 +564,17 @@ public class WorldObject implements World {
               .capacity(taxiSeatCount)
               .position(taxiPosition)
               .currentSpeed(taxiSpeed)
+              .context(context)
               .build();
+      if (columnarStore) {
+        if (taxiStore == null) taxiStore = new EntityStore();
+        taxiEntity.attach(taxiStore);
+      }
       this.taxis.add(taxiEntity);
       this.taxiEntities.add(taxiEntity);
+      if (taxiIndex != null) indexTaxi(taxiIndex, taxiEntity);
+      this.taxiView = null;
+      if (taxiEntitiesByName != null) taxiEntitiesByName.putIfAbsent(name, taxiEntity);
     } finally {
       lock.writeLock().unlock();
     }
@@ -1,5 +1,9 @@
 package de.sikeller.aqs.model;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
 import lombok.Data;
 
 /**
@@ -8,23 +12,87 @@ import lombok.Data;
  *
  * <p>The move method advances the simulation by a specified amount of time, updating the current
  * time of the world and moving each taxi according to its current speed and target.
+ *
+ * <p>Instead of moving the world one unit of time after the other, an event-driven simulation can
+ * move it directly to the {@link #nextEventTime(long)}, the next time at which a taxi reaches a
+ * target, a waiting client arrives at its target or a client spawns. The same events are dispatched
+ * by the entities, only the steps in between, in which nothing can happen, are skipped.
+ *
+ * <p>If {@link #isParallel()} is set, the taxis and afterwards the waiting clients are moved in
+ * chunks on the common fork-join pool. Every entity only changes its own state and the state of its
+ * passengers, the events and index updates are recorded as {@link DeferredEffects} and replayed in
+ * the order of the sequential move, so the results are identical.
  */
 @Data
 public class WorldSimulator {
+  /** Below this number of entities a parallel move is not worth the overhead. */
+  private static final int PARALLEL_THRESHOLD = 2048;
+
+  private static final int CHUNK_SIZE = 512;
+
   private final WorldObject world;
+  private boolean parallel = false;
 
   public void move(long currentTime) {
     var timePassed = currentTime - world.getCurrentTime();
     if (timePassed == 0) return;
     world.setCurrentTime(currentTime);
-    // use for loops here to improve performance
-    for (Taxi taxi : world.getTaxis()) {
-      EntitySimulator simulator = new EntitySimulator(taxi);
+    moveAll(world.getTaxiView(), currentTime);
+    moveAll(world.getClientsByMode(ClientMode.WAITING, true), currentTime);
+  }
+
+  private void moveAll(Collection<? extends Entity> entities, long currentTime) {
+    if (!parallel || entities.size() < PARALLEL_THRESHOLD) {
+      // use for loops here to improve performance
+      for (Entity entity : entities) {
+        EntitySimulator simulator = new EntitySimulator(entity);
+        simulator.move(currentTime);
+      }
+      return;
+    }
+    List<? extends Entity> list =
+        entities instanceof List<? extends Entity> l ? l : new ArrayList<>(entities);
+    int chunks = (list.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    @SuppressWarnings("unchecked")
+    List<Runnable>[] effects = new List[chunks];
+    IntStream.range(0, chunks)
+        .parallel()
+        .forEach(
+            chunk ->
+                effects[chunk] = DeferredEffects.record(() -> moveChunk(list, chunk, currentTime)));
+    for (List<Runnable> chunkEffects : effects) {
+      chunkEffects.forEach(Runnable::run);
+    }
+  }
+
+  private static void moveChunk(List<? extends Entity> entities, int chunk, long currentTime) {
+    int end = Math.min(entities.size(), (chunk + 1) * CHUNK_SIZE);
+    for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+      EntitySimulator simulator = new EntitySimulator(entities.get(i));
       simulator.move(currentTime);
     }
+  }
+
+  /**
+   * Calculate the next time at which the state of the world changes, i.e. a taxi reaches its next
+   * target, a waiting client walks to its target or a client spawns.
+   *
+   * @param maxTimeStep the maximum time between two events, 0 for no limit
+   * @return the next event time, but at least the next unit of time
+   */
+  public long nextEventTime(long maxTimeStep) {
+    var currentTime = world.getCurrentTime();
+    var nextTime = world.getNextSpawnTime();
+    for (Taxi taxi : world.getTaxiView()) {
+      if (!taxi.isMoving()) continue;
+      nextTime = Math.min(nextTime, new EntitySimulator(taxi).nextArrivalTime());
+    }
     for (Client client : world.getClientsByMode(ClientMode.WAITING, true)) {
-      EntitySimulator simulator = new EntitySimulator(client);
-      simulator.move(currentTime);
+      nextTime = Math.min(nextTime, new EntitySimulator(client).nextArrivalTime());
     }
+    // nothing will happen, let the algorithm continue step by step
+    if (nextTime == Long.MAX_VALUE) return currentTime + 1;
+    if (maxTimeStep > 0) nextTime = Math.min(nextTime, currentTime + maxTimeStep);
+    return Math.max(nextTime, currentTime + 1);
   }
 }
@@ -1,26 +1,56 @@
 package de.sikeller.aqs.model.events;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Consumer;
 
+/**
+ * Records the events of a simulation and informs the registered listeners. Each simulation has its
+ * own dispatcher, see {@link de.sikeller.aqs.model.SimulationContext}.
+ *
+ * <p>By default the events are kept in memory. With an {@link EventJournal} they are written to the
+ * journal instead, so long runs do not fill the heap with events. Without {@link #keepEvents} they
+ * are only passed to the listeners.
+ */
 @Slf4j
 public class EventDispatcher implements EventList {
-  private static final EventDispatcher instance = new EventDispatcher();
   private final List<Event> eventList = new LinkedList<>();
   private final List<Consumer<Event>> listeners = new LinkedList<>();
 
+  /** If set, the events are appended to this journal instead of being kept in memory. */
+  @Getter @Setter private EventJournal journal;
+
+  /** If false, the events are neither kept in memory nor written to a journal. */
+  @Getter @Setter private boolean keepEvents = true;
+
   public void dispatchEvent(Event event) {
-    eventList.add(event);
+    if (journal != null) {
+      journal.append(event);
+    } else if (keepEvents) {
+      eventList.add(event);
+    }
     listeners.forEach(l -> l.accept(event));
   }
 
   public void print() {
+    if (journal != null) {
+      try (var reader = journal.reader()) {
+        reader.forEach(r -> log.info("{}", reader.printMessage(r)));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return;
+    }
     eventList.forEach(e -> log.info("{}", e.printMessage()));
   }
 
+  /** Returns the events kept in memory, which are none while a {@link #journal} is set. */
   public List<Event> getAll() {
     return new LinkedList<>(eventList);
   }
@@ -29,13 +59,5 @@ public class EventDispatcher implements EventList {
     this.listeners.add(listener);
   }
 
-  public static EventDispatcher instance() {
-    return instance;
-  }
-
-  public static void dispatch(Event event) {
-    instance.dispatchEvent(event);
-  }
-
   public void resetEvents() { this.eventList.clear();}
   }
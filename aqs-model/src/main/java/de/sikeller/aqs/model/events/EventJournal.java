@@ -0,0 +1,172 @@
+package de.sikeller.aqs.model.events;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+
+/**
+ * An append-only journal of events in a memory-mapped file. Every event is written as a record of
+ * {@value #RECORD_SIZE} bytes (type, time, client id, taxi id and travel time), so the heap used by
+ * the journal does not grow with the number of events. The file is mapped in regions of {@value
+ * #REGION_SIZE} bytes and truncated to the written records when the journal is closed.
+ *
+ * <p>Clients and taxis are stored by ids which are assigned in the order the entities appear in the
+ * events. The names of the ids are appended to a second file with the suffix {@value
+ * #NAMES_SUFFIX}. Use an {@link EventJournalReader} to read the events back.
+ */
+public class EventJournal implements Closeable {
+  /** The size of a record in bytes. */
+  public static final int RECORD_SIZE = 32;
+
+  /** The suffix of the file with the names of the clients and taxis. */
+  public static final String NAMES_SUFFIX = ".names";
+
+  static final int REGION_SIZE = RECORD_SIZE * (1 << 20);
+  static final String CLIENT_PREFIX = "client\t";
+  static final String TAXI_PREFIX = "taxi\t";
+
+  @Getter private final Path path;
+  private final FileChannel channel;
+  private final BufferedWriter names;
+  private final Map<String, Integer> clientIds = new HashMap<>();
+  private final Map<String, Integer> taxiIds = new HashMap<>();
+  private MappedByteBuffer region;
+  private long regionStart = 0;
+
+  /** The number of written records. */
+  @Getter private long size = 0;
+
+  /**
+   * Create a new journal. An existing journal with the same path is overwritten.
+   *
+   * @param path the path of the journal file
+   * @throws IOException if the files cannot be created
+   */
+  public EventJournal(Path path) throws IOException {
+    this.path = path;
+    this.channel =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    this.names = Files.newBufferedWriter(namesPath(path), StandardCharsets.UTF_8);
+    this.region = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_SIZE);
+  }
+
+  static Path namesPath(Path path) {
+    return path.resolveSibling(path.getFileName() + NAMES_SUFFIX);
+  }
+
+  /**
+   * Append an event to the journal.
+   *
+   * @param event the event
+   * @throws IllegalArgumentException if the type of the event is not supported
+   */
+  public void append(Event event) {
+    try {
+      if (event instanceof EventClientEntersTaxi e) {
+        append(
+            JournalRecord.Type.CLIENT_ENTERS_TAXI,
+            e.getCurrentTime(),
+            clientId(e.getClient().getName()),
+            taxiId(e.getTaxi().getName()),
+            0);
+      } else if (event instanceof EventClientLeaveTaxi e) {
+        append(
+            JournalRecord.Type.CLIENT_LEAVE_TAXI,
+            e.getCurrentTime(),
+            clientId(e.getClient().getName()),
+            taxiId(e.getTaxi().getName()),
+            0);
+      } else if (event instanceof EventClientFinished e) {
+        append(
+            JournalRecord.Type.CLIENT_FINISHED,
+            e.getCurrentTime(),
+            clientId(e.getClient().getName()),
+            JournalRecord.NO_TAXI,
+            e.getTravelTime());
+      } else {
+        throw new IllegalArgumentException("Unsupported event: " + event);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void append(JournalRecord.Type type, long time, int clientId, int taxiId, long value)
+      throws IOException {
+    if (!region.hasRemaining()) {
+      regionStart += REGION_SIZE;
+      region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE);
+    }
+    region.putInt(type.code);
+    region.putInt(clientId);
+    region.putLong(time);
+    region.putInt(taxiId);
+    region.putInt(0);
+    region.putLong(value);
+    size++;
+  }
+
+  private int clientId(String name) throws IOException {
+    return id(clientIds, CLIENT_PREFIX, name);
+  }
+
+  private int taxiId(String name) throws IOException {
+    return id(taxiIds, TAXI_PREFIX, name);
+  }
+
+  private int id(Map<String, Integer> ids, String prefix, String name) throws IOException {
+    var id = ids.get(name);
+    if (id == null) {
+      id = ids.size();
+      ids.put(name, id);
+      names.write(prefix + name);
+      names.newLine();
+    }
+    return id;
+  }
+
+  /**
+   * Write the names which are not written yet, so a reader sees all events appended so far.
+   *
+   * @throws IOException if the names cannot be written
+   */
+  public void flush() throws IOException {
+    names.flush();
+  }
+
+  /**
+   * Create a reader for the events appended so far.
+   *
+   * @return a new reader which has to be closed
+   * @throws IOException if the journal cannot be read
+   */
+  public EventJournalReader reader() throws IOException {
+    flush();
+    return new EventJournalReader(path, size);
+  }
+
+  /** Truncate the journal file to the written records and close it. */
+  @Override
+  public void close() throws IOException {
+    region = null;
+    try (channel;
+        names) {
+      channel.truncate(size * RECORD_SIZE);
+    }
+  }
+}
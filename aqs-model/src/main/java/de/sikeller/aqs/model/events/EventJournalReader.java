@@ -0,0 +1,149 @@
+package de.sikeller.aqs.model.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.Getter;
+
+/**
+ * Reads the events of an {@link EventJournal} back. The records are streamed from the memory-mapped
+ * file, so reading a journal does not load all events into the heap.
+ */
+public class EventJournalReader implements Closeable, Iterable<JournalRecord> {
+  private final FileChannel channel;
+  private final List<String> clientNames = new ArrayList<>();
+  private final List<String> taxiNames = new ArrayList<>();
+
+  /** The number of records in the journal. */
+  @Getter private final long size;
+
+  EventJournalReader(Path path, long size) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.size = size;
+    var namesPath = EventJournal.namesPath(path);
+    if (Files.exists(namesPath)) {
+      for (String line : Files.readAllLines(namesPath, StandardCharsets.UTF_8)) {
+        if (line.startsWith(EventJournal.CLIENT_PREFIX)) {
+          clientNames.add(line.substring(EventJournal.CLIENT_PREFIX.length()));
+        } else if (line.startsWith(EventJournal.TAXI_PREFIX)) {
+          taxiNames.add(line.substring(EventJournal.TAXI_PREFIX.length()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Open a closed journal file.
+   *
+   * @param path the path of the journal file
+   * @return a new reader which has to be closed
+   * @throws IOException if the journal cannot be read
+   */
+  public static EventJournalReader open(Path path) throws IOException {
+    return new EventJournalReader(path, Files.size(path) / EventJournal.RECORD_SIZE);
+  }
+
+  /**
+   * Returns the name of a client of the journal.
+   *
+   * @param clientId the id of the client in the records
+   * @return the name or the id if the name is unknown
+   */
+  public String clientName(int clientId) {
+    return clientId < clientNames.size() ? clientNames.get(clientId) : "#" + clientId;
+  }
+
+  /**
+   * Returns the name of a taxi of the journal.
+   *
+   * @param taxiId the id of the taxi in the records
+   * @return the name or the id if the name is unknown
+   */
+  public String taxiName(int taxiId) {
+    return taxiId >= 0 && taxiId < taxiNames.size() ? taxiNames.get(taxiId) : "#" + taxiId;
+  }
+
+  /**
+   * Format a record like {@link Event#printMessage()} formats the original event.
+   *
+   * @param record a record of this journal
+   * @return the message of the event
+   */
+  public String printMessage(JournalRecord record) {
+    var message =
+        switch (record.type()) {
+          case CLIENT_ENTERS_TAXI ->
+              "Client %s enters taxi %s"
+                  .formatted(clientName(record.clientId()), taxiName(record.taxiId()));
+          case CLIENT_LEAVE_TAXI ->
+              "Client %s leave taxi %s"
+                  .formatted(clientName(record.clientId()), taxiName(record.taxiId()));
+          case CLIENT_FINISHED ->
+              "Client %s arrived at target after %d"
+                  .formatted(clientName(record.clientId()), record.travelTime());
+        };
+    return "%05d: %s".formatted(record.time(), message);
+  }
+
+  /** Returns a sequential stream of all records in the order they were appended. */
+  public Stream<JournalRecord> stream() {
+    return StreamSupport.stream(
+        Spliterators.spliterator(
+            iterator(), size, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE),
+        false);
+  }
+
+  @Override
+  public Iterator<JournalRecord> iterator() {
+    return new Iterator<>() {
+      private long index = 0;
+      private MappedByteBuffer region;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public JournalRecord next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        if (region == null || !region.hasRemaining()) {
+          long start = index * EventJournal.RECORD_SIZE;
+          long length = Math.min(EventJournal.REGION_SIZE, size * EventJournal.RECORD_SIZE - start);
+          try {
+            region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+        var type = JournalRecord.Type.of(region.getInt());
+        int clientId = region.getInt();
+        long time = region.getLong();
+        int taxiId = region.getInt();
+        region.getInt();
+        long travelTime = region.getLong();
+        index++;
+        return new JournalRecord(type, time, clientId, taxiId, travelTime);
+      }
+    };
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
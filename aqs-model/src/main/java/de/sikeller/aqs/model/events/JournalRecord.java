@@ -0,0 +1,37 @@
+package de.sikeller.aqs.model.events;
+
+/**
+ * A single event as it is stored in an {@link EventJournal}. Clients and taxis are referenced by
+ * their ids in the journal, see {@link EventJournalReader#clientName(int)} and {@link
+ * EventJournalReader#taxiName(int)}.
+ *
+ * @param type the type of the event
+ * @param time the simulation time of the event
+ * @param clientId the id of the client
+ * @param taxiId the id of the taxi or {@link #NO_TAXI}
+ * @param travelTime the travel time of the client, only set for {@link Type#CLIENT_FINISHED}
+ */
+public record JournalRecord(Type type, long time, int clientId, int taxiId, long travelTime) {
+  /** The taxi id of events without a taxi. */
+  public static final int NO_TAXI = -1;
+
+  /** The types of events. The codes are stored in the journal, so they must not change. */
+  public enum Type {
+    CLIENT_ENTERS_TAXI(1),
+    CLIENT_LEAVE_TAXI(2),
+    CLIENT_FINISHED(3);
+
+    final int code;
+
+    Type(int code) {
+      this.code = code;
+    }
+
+    static Type of(int code) {
+      for (Type type : values()) {
+        if (type.code == code) return type;
+      }
+      throw new IllegalArgumentException("Unknown event type: " + code);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package de.sikeller.aqs.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ClientBucketsTest {
+
+  @Test
+  void queriesMatchLinearScan() {
+    var random = new Random(3);
+    var buckets = new ClientBuckets();
+    List<ClientEntity> clients = new ArrayList<>();
+    ClientMode[] modes = ClientMode.values();
+    long time = 0;
+    // add clients, change their modes or move the time mostly forward and sometimes back
+    for (int step = 0; step < 2000; step++) {
+      switch (random.nextInt(4)) {
+        case 0 -> {
+          // clients are not added in the order of their spawn times
+          var client = client("c" + clients.size(), random.nextInt(500));
+          clients.add(client);
+          buckets.add(client);
+        }
+        case 1 -> {
+          if (!clients.isEmpty()) {
+            clients
+                .get(random.nextInt(clients.size()))
+                .setMode(modes[random.nextInt(modes.length)]);
+          }
+        }
+        default -> time = Math.max(0, time + random.nextInt(20) - 4);
+      }
+
+      Set<ClientMode> queried = EnumSet.noneOf(ClientMode.class);
+      for (ClientMode mode : modes) {
+        if (random.nextBoolean()) queried.add(mode);
+      }
+      assertEquals(
+          expected(clients, queried, false, time), buckets.findByModes(queried, false, time));
+      assertEquals(
+          expected(clients, queried, true, time), buckets.findByModes(queried, true, time));
+      assertEquals(
+          expected(clients, EnumSet.allOf(ClientMode.class), true, time),
+          buckets.findSpawned(time));
+      for (ClientMode mode : modes) {
+        assertEquals(expected(clients, EnumSet.of(mode), false, time).size(), buckets.count(mode));
+      }
+      assertEquals(clients.size(), buckets.size());
+      long finalTime = time;
+      assertEquals(
+          clients.stream().filter(c -> c.isSpawned(finalTime)).count(), buckets.countSpawned(time));
+      assertEquals(
+          clients.stream()
+              .filter(c -> !c.isSpawned(finalTime))
+              .mapToLong(c -> c.getSpawnTime() + 1)
+              .min()
+              .orElse(Long.MAX_VALUE),
+          buckets.nextSpawnTime(time));
+    }
+    assertTrue(clients.size() > 300);
+  }
+
+  @Test
+  void clientsAreSpawnedAfterTheirSpawnTime() {
+    var buckets = new ClientBuckets();
+    var late = client("late", 20);
+    var early = client("early", 10);
+    buckets.add(late);
+    buckets.add(early);
+
+    assertTrue(buckets.findSpawned(10).isEmpty());
+    assertEquals(11, buckets.nextSpawnTime(10));
+    assertEquals(List.of(early), buckets.findSpawned(11));
+    assertEquals(List.of(late, early), buckets.findSpawned(21));
+    assertEquals(Long.MAX_VALUE, buckets.nextSpawnTime(21));
+
+    // a client added later is spawned in the order of the spawn times as well
+    var first = client("first", 0);
+    buckets.add(first);
+    assertEquals(List.of(early, first), buckets.findSpawned(11));
+
+    early.setMode(ClientMode.MOVING);
+    assertEquals(List.of(first), buckets.findByModes(Set.of(ClientMode.WAITING), true, 11));
+    assertEquals(List.of(late, first), buckets.findByModes(Set.of(ClientMode.WAITING), false, 11));
+    assertEquals(1, buckets.count(ClientMode.MOVING));
+    assertEquals(2, buckets.count(ClientMode.WAITING));
+  }
+
+  private static List<Client> expected(
+      List<ClientEntity> clients, Set<ClientMode> modes, boolean onlySpawned, long time) {
+    return clients.stream()
+        .filter(c -> modes.contains(c.getMode()))
+        .filter(c -> !onlySpawned || c.isSpawned(time))
+        .map(c -> (Client) c)
+        .toList();
+  }
+
+  private static ClientEntity client(String name, long spawnTime) {
+    return ClientEntity.builder()
+        .name(name)
+        .spawnTime(spawnTime)
+        .position(new Position(0, 0))
+        .target(new Position(100, 0))
+        .build();
+  }
+}
@@ -0,0 +1,60 @@
+package de.sikeller.aqs.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void percentilesMatchSortedValues() {
+    var random = new Random(42);
+    var histogram = new LatencyHistogram();
+    var values = new long[100_000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (long) Math.exp(random.nextDouble() * 25);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+
+    for (double percentile : new double[] {0, 50, 90, 99, 99.9, 100}) {
+      long expected = values[Math.max(0, (int) Math.ceil(percentile / 100 * values.length) - 1)];
+      long actual = histogram.percentile(percentile);
+      assertTrue(actual >= expected, percentile + ": " + actual + " < " + expected);
+      assertTrue(
+          actual <= expected + expected / 128, percentile + ": " + actual + " > " + expected);
+    }
+    assertEquals(values[0], histogram.getMin());
+    assertEquals(values[values.length - 1], histogram.getMax());
+    assertEquals(Arrays.stream(values).sum(), histogram.getSum());
+  }
+
+  @Test
+  void bucketsCoverTheLongRange() {
+    for (long value : new long[] {0, 255, 256, 257, 511, 512, 1L << 40, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.indexOf(value);
+      assertTrue(LatencyHistogram.highestValueOf(index) >= value, String.valueOf(value));
+      assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value);
+    }
+  }
+
+  @Test
+  void combine() {
+    var first = new LatencyHistogram();
+    var second = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      (i % 2 == 0 ? first : second).record(i);
+    }
+
+    var combined = first.combine(second);
+
+    assertEquals(100, combined.getCount());
+    assertEquals(1, combined.getMin());
+    assertEquals(100, combined.getMax());
+    assertEquals(50, combined.percentile(50));
+    assertEquals(99, combined.percentile(99));
+    assertEquals(0, new LatencyHistogram().percentile(50));
+  }
+}
@@ -12,4 +12,33 @@ class PositionTest {
     assertEquals(35057, result.getX());
     assertEquals(4047, result.getY());
   }
-}
\ No newline at end of file
+
+  @org.junit.jupiter.api.Test
+  void moveTowardsFarTarget() {
+    // the difference of the coordinates must not overflow the int range
+    var position = new Position(-2_000_000_000, 0);
+    var target = new Position(2_000_000_000, 0);
+    var result = position.moveTowards(target, 1000);
+    assertEquals(-1_999_999_000, result.getX());
+    assertEquals(0, result.getY());
+  }
+
+  @org.junit.jupiter.api.Test
+  void distanceOfLargeNumbers() {
+    // the squared distance must not overflow the int range of the coordinates
+    var position = new Position(-1_000_000_000, 1_000_000_000);
+    var other = new Position(1_000_000_000, -1_000_000_000);
+    assertEquals(8_000_000_000_000_000_000L, position.distanceSquared(other));
+    assertEquals(Math.sqrt(8) * 1_000_000_000, position.distance(other), 1e-3);
+  }
+
+  @org.junit.jupiter.api.Test
+  void isWithinMatchesDistance() {
+    var position = new Position(0, 0);
+    var other = new Position(3, 4);
+    assertTrue(position.isWithin(other, 5));
+    assertTrue(position.isWithin(other, 5.000001));
+    assertFalse(position.isWithin(other, 4.999999));
+    assertFalse(position.isWithin(other, -1));
+  }
+}
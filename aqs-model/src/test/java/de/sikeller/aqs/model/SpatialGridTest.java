@@ -0,0 +1,103 @@
+package de.sikeller.aqs.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SpatialGridTest {
+
+  @Test
+  void findNearestMatchesLinearScan() {
+    var random = new Random(42);
+    var grid = new SpatialGrid<Taxi>(10000, 10000, 250);
+    List<Taxi> taxis = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      var taxi = taxi("t" + i, new Position(random.nextInt(10000), random.nextInt(10000)));
+      taxis.add(taxi);
+      grid.add(taxi);
+    }
+
+    for (int q = 0; q < 50; q++) {
+      var position = new Position(random.nextInt(10000), random.nextInt(10000));
+      var expected =
+          taxis.stream()
+              .map(t -> t.getPosition().distance(position))
+              .sorted(Comparator.naturalOrder())
+              .limit(5)
+              .toList();
+      var actual = grid.findNearest(position, 5, t -> true).stream().map(Tuple::v2).toList();
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  void findNearestRespectsFilter() {
+    var grid = new SpatialGrid<Taxi>(1000, 1000, 100);
+    grid.add(taxi("near", new Position(10, 10)));
+    grid.add(taxi("far", new Position(900, 900)));
+
+    var nearest = grid.findNearest(new Position(0, 0), t -> t.getName().equals("far"));
+
+    assertEquals("far", nearest.v1().getName());
+    assertNull(grid.findNearest(new Position(0, 0), t -> false));
+  }
+
+  @Test
+  void moveUpdatesCell() {
+    var grid = new SpatialGrid<Taxi>(1000, 1000, 100);
+    var taxi = taxi("t", new Position(10, 10));
+    grid.add(taxi);
+
+    var newPosition = new Position(950, 950);
+    grid.move(taxi, taxi.getPosition(), newPosition);
+    taxi.setPosition(newPosition);
+
+    assertTrue(grid.findInRadius(new Position(0, 0), 100, t -> true).isEmpty());
+    assertEquals(1, grid.findInRadius(new Position(1000, 1000), 100, t -> true).size());
+    assertEquals(1, grid.getSize());
+  }
+
+  @Test
+  void indexesPositionOfFunction() {
+    var grid = new SpatialGrid<Client>(1000, 1000, 100, Entity::getTarget);
+    var client =
+        ClientEntity.builder()
+            .name("c")
+            .position(new Position(10, 10))
+            .target(new Position(900, 900))
+            .build();
+    grid.add(client);
+
+    assertTrue(grid.findInRadius(new Position(10, 10), 50, c -> true).isEmpty());
+    assertEquals(client, grid.findNearest(new Position(1000, 1000), c -> true).v1());
+    assertEquals(
+        new Position(900, 900).distance(new Position(1000, 1000)),
+        grid.findNearest(new Position(1000, 1000), c -> true).v2());
+    grid.remove(client);
+    assertEquals(0, grid.getSize());
+  }
+
+  @Test
+  void worldIndexFollowsTaxiMovement() {
+    var world = WorldObject.builder().maxX(10000).maxY(10000).build();
+    world.addTaxi("t0", 2, new Position(0, 0), 50);
+    world.addClient("c0", 0, new Position(9000, 9000), new Position(0, 9000), 5);
+
+    var taxi = world.findNearestTaxis(new Position(0, 0), 1, t -> true).getFirst().v1();
+    var client = world.getClients().iterator().next();
+    world.mutate().planClientForTaxi(taxi, client, TargetList.sequentialOrders);
+    new WorldSimulator(world).move(600);
+
+    var nearest = world.findNearestTaxis(new Position(9000, 9000), 1, t -> true).getFirst();
+    assertEquals(taxi.getPosition().distance(new Position(9000, 9000)), nearest.v2());
+    assertEquals(1, world.findTaxisInRadius(taxi.getPosition(), 1, t -> true).size());
+  }
+
+  private static TaxiEntity taxi(String name, Position position) {
+    return TaxiEntity.builder().name(name).capacity(2).position(position).build();
+  }
+}
@@ -0,0 +1,132 @@
+package de.sikeller.aqs.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TargetListTest {
+
+  @Test
+  void wrapAroundKeepsOrderOfStops() {
+    var targets = new TargetList();
+    List<OrderNode> expected = new ArrayList<>();
+    var random = new Random(1);
+    // few stops at a time, so the head runs around the initial buffer many times
+    for (int i = 0; i < 200; i++) {
+      if (expected.size() < 6 && random.nextBoolean()) {
+        addOrder(targets, expected, client("c" + i, i));
+      } else if (!expected.isEmpty()) {
+        assertEquals(expected.removeFirst(), targets.getAnRemoveFirst());
+      }
+      assertStops(expected, targets);
+    }
+  }
+
+  @Test
+  void growthKeepsOrderOfWrappedStops() {
+    var targets = new TargetList();
+    List<OrderNode> expected = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      addOrder(targets, expected, client("c" + i, i));
+    }
+    // move the head to the end of the buffer
+    for (int i = 0; i < 5; i++) {
+      assertEquals(expected.removeFirst(), targets.getAnRemoveFirst());
+    }
+    for (int i = 3; i < 40; i++) {
+      addOrder(targets, expected, client("c" + i, i));
+      assertStops(expected, targets);
+    }
+
+    var snapshot = targets.snapshot();
+    assertStops(expected, snapshot);
+    while (!expected.isEmpty()) {
+      assertEquals(expected.removeFirst(), targets.getAnRemoveFirst());
+    }
+    assertTrue(targets.isEmpty());
+    assertNull(targets.getFirst());
+    assertThrows(IndexOutOfBoundsException.class, () -> targets.get(0));
+    assertEquals(80 - 5, snapshot.size());
+  }
+
+  @Test
+  void removingStopOfOrderInTheMiddleKeepsRemainingOrders() {
+    var targets = new TargetList();
+    var a = client("a", 1);
+    var b = client("b", 2);
+    var c = client("c", 3);
+    for (ClientEntity client : List.of(a, b, c)) {
+      targets.addOrder(Order.of(client, 0), TargetList.mergeOrders);
+    }
+    // [a pickup, b pickup, c pickup, a drop off, b drop off, c drop off]
+    assertEquals(pickup(a), targets.getAnRemoveFirst());
+    assertEquals(pickup(b), targets.getAnRemoveFirst());
+    assertEquals(List.of(pickup(c), dropoff(a), dropoff(b), dropoff(c)), targets.toList());
+
+    // the pickups of a and b are removed from the middle of their orders
+    targets.planOrders(TargetList.sequentialOrders);
+    assertEquals(List.of(dropoff(a), dropoff(b), pickup(c), dropoff(c)), targets.toList());
+
+    var d = client("d", 4);
+    targets.addOrder(Order.of(d, 0), TargetList.sequentialOrders);
+    assertEquals(
+        List.of(dropoff(a), dropoff(b), pickup(c), dropoff(c), pickup(d), dropoff(d)),
+        targets.toList());
+  }
+
+  @Test
+  void appendingAfterCustomPathPlansAllOrdersAgain() {
+    var targets = new TargetList();
+    var a = client("a", 1);
+    var b = client("b", 2);
+    targets.addOrder(Order.of(a, 0), TargetList.sequentialOrders);
+    targets.addOrder(Order.of(b, 0), TargetList.sequentialOrders);
+    targets.planOrders(orders -> List.of(pickup(b), pickup(a), dropoff(a), dropoff(b)));
+    assertEquals(pickup(b), targets.getAnRemoveFirst());
+
+    var c = client("c", 3);
+    targets.addOrder(Order.of(c, 0), TargetList.sequentialOrders);
+
+    assertEquals(
+        List.of(pickup(a), dropoff(a), dropoff(b), pickup(c), dropoff(c)), targets.toList());
+  }
+
+  private static void addOrder(TargetList targets, List<OrderNode> expected, ClientEntity client) {
+    targets.addOrder(Order.of(client, 0), TargetList.sequentialOrders);
+    expected.add(pickup(client));
+    expected.add(dropoff(client));
+  }
+
+  private static void assertStops(List<OrderNode> expected, TargetList targets) {
+    assertEquals(expected.size(), targets.size());
+    assertEquals(expected.isEmpty(), targets.isEmpty());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i), targets.get(i));
+      assertEquals(expected.get(i).getPosition(), targets.getPosition(i));
+    }
+    List<OrderNode> iterated = new ArrayList<>();
+    targets.forEach(iterated::add);
+    assertEquals(expected, iterated);
+    assertEquals(expected, targets.toList());
+    assertEquals(expected.isEmpty() ? null : expected.getFirst(), targets.getFirst());
+  }
+
+  private static OrderNode pickup(ClientEntity client) {
+    return new OrderNode(client, client.getPosition());
+  }
+
+  private static OrderNode dropoff(ClientEntity client) {
+    return new OrderNode(client, client.getTarget());
+  }
+
+  private static ClientEntity client(String name, int x) {
+    return ClientEntity.builder()
+        .name(name)
+        .position(new Position(x, 0))
+        .target(new Position(x, 100))
+        .build();
+  }
+}
@@ -0,0 +1,50 @@
+package de.sikeller.aqs.model;
+
+import java.util.Random;
+
+/** Creates the random worlds of the model tests. */
+final class TestWorlds {
+
+  private TestWorlds() {}
+
+  /**
+   * Add taxis at random positions of the world, named "t0", "t1", ...
+   *
+   * @param world the world
+   * @param random the random of the positions
+   * @param count the number of taxis
+   * @param seats the seat count of the taxis
+   * @param speed the speed of the taxis
+   */
+  static void addTaxis(WorldObject world, Random random, int count, int seats, int speed) {
+    for (int i = 0; i < count; i++) {
+      world.addTaxi("t" + i, seats, randomPosition(random, world), speed);
+    }
+  }
+
+  /**
+   * Add clients at random positions with random targets, named "c0", "c1", ... The i-th client is
+   * spawned at i modulo the spawn period.
+   *
+   * @param world the world
+   * @param random the random of the positions
+   * @param count the number of clients
+   * @param spawnPeriod the number of different spawn times
+   * @param speed the walking speed of the clients
+   */
+  static void addClients(WorldObject world, Random random, int count, int spawnPeriod, int speed) {
+    for (int i = 0; i < count; i++) {
+      world.addClient(
+          "c" + i,
+          i % spawnPeriod,
+          randomPosition(random, world),
+          randomPosition(random, world),
+          speed);
+    }
+  }
+
+  /** A random position inside the world. */
+  static Position randomPosition(Random random, World world) {
+    return new Position(random.nextInt(world.getMaxX()), random.nextInt(world.getMaxY()));
+  }
+}
@@ -0,0 +1,93 @@
+package de.sikeller.aqs.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class WorldObjectTest {
+
+  @Test
+  void routeListenerCanRegisterListenerWhileFired() {
+    var world = world();
+    List<String> changes = new ArrayList<>();
+    RouteListener added = taxi -> changes.add("added " + taxi.getName());
+    world.registerRouteListener(
+        taxi -> {
+          changes.add("first " + taxi.getName());
+          world.registerRouteListener(added);
+        });
+
+    var taxi = world.getTaxiView().iterator().next();
+    var client = world.getClientView().iterator().next();
+    world.mutate().planClientForTaxi(taxi, client, TargetList.sequentialOrders);
+    world.mutate().clearTaxi(taxi);
+
+    assertEquals(List.of("first t0", "first t0", "added t0"), changes);
+  }
+
+  @Test
+  void removedRouteListenerIsNotInformed() {
+    var world = world();
+    List<Taxi> changes = new ArrayList<>();
+    RouteListener listener = changes::add;
+    world.registerRouteListener(listener);
+    world.registerRouteListener(listener);
+    var taxi = world.getTaxiView().iterator().next();
+    var client = world.getClientView().iterator().next();
+
+    world.mutate().planClientForTaxi(taxi, client, TargetList.sequentialOrders);
+    world.removeRouteListener(listener);
+    world.mutate().clearTaxi(taxi);
+
+    assertEquals(List.of(taxi), changes);
+  }
+
+  @Test
+  void unplannedClientIsRemovedFromRouteWithoutPassengers() {
+    var world = world();
+    world.addClient("c1", 0, new Position(200, 0), new Position(300, 0), 5);
+    world.addClient("c2", 0, new Position(0, 100), new Position(0, 900), 5);
+    var simulator = new WorldSimulator(world);
+    simulator.move(2);
+    var taxi = world.getTaxiView().iterator().next();
+    var clients = world.getClientView().iterator();
+    var passenger = clients.next();
+    var planned = clients.next();
+    var other = clients.next();
+    world.mutate().planClientForTaxi(taxi, other, TargetList.sequentialOrders);
+    world.mutate().planClientForTaxi(taxi, passenger, TargetList.sequentialOrders);
+    world.mutate().planClientForTaxi(taxi, planned, TargetList.mergeOrders);
+    for (long time = 3; time <= 13; time++) {
+      simulator.move(time);
+    }
+    assertEquals(ClientMode.MOVING, other.getMode());
+
+    world.mutate().unplanClientForTaxi(taxi, planned);
+
+    assertEquals(ClientMode.WAITING, planned.getMode());
+    assertEquals(Set.of(other), taxi.getContainedPassengers());
+    assertEquals(Set.of(passenger), taxi.getPlannedPassengers());
+    assertEquals(
+        List.of(
+            new OrderNode(passenger, passenger.getPosition()),
+            new OrderNode(other, other.getTarget()),
+            new OrderNode(passenger, passenger.getTarget())),
+        taxi.getTargets().toList());
+    for (long time = 14; time <= 300; time++) {
+      simulator.move(time);
+    }
+    assertTrue(passenger.isFinished());
+    assertTrue(other.isFinished());
+  }
+
+  private static WorldObject world() {
+    var world = WorldObject.builder().maxX(1000).maxY(1000).build();
+    world.addTaxi("t0", 2, new Position(0, 0), 36);
+    world.addClient("c0", 0, new Position(100, 0), new Position(500, 0), 5);
+    new WorldSimulator(world).move(1);
+    return world;
+  }
+}
@@ -0,0 +1,131 @@
+package de.sikeller.aqs.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.events.Event;
+import de.sikeller.aqs.model.events.EventClientEntersTaxi;
+import de.sikeller.aqs.model.events.EventClientFinished;
+import de.sikeller.aqs.model.events.EventClientLeaveTaxi;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class WorldSimulatorTest {
+
+  @Test
+  void nextEventTimeJumpsToSpawnAndArrivals() {
+    var world = WorldObject.builder().maxX(10000).maxY(10000).build();
+    // 36 km/h = 10 m/s
+    world.addTaxi("t0", 2, new Position(0, 0), 36);
+    // the client does not walk, so only the taxi moves
+    world.addClient("c0", 50, new Position(1000, 0), new Position(1000, 500), 0);
+    var simulator = new WorldSimulator(world);
+
+    // the client is spawned after its spawn time
+    assertEquals(51, simulator.nextEventTime(0));
+    assertEquals(20, simulator.nextEventTime(20));
+    simulator.move(simulator.nextEventTime(0));
+
+    var taxi = world.getTaxiView().iterator().next();
+    var client = world.getClientView().iterator().next();
+    world.mutate().planClientForTaxi(taxi, client, TargetList.sequentialOrders);
+
+    // pickup after 1000 m and drop off after another 500 m
+    assertEquals(151, simulator.nextEventTime(0));
+    simulator.move(simulator.nextEventTime(0));
+    assertEquals(ClientMode.MOVING, client.getMode());
+    assertEquals(201, simulator.nextEventTime(0));
+    simulator.move(simulator.nextEventTime(0));
+
+    assertTrue(world.isFinished());
+    List<Event> events = world.getContext().getEventDispatcher().getAll();
+    assertEquals(3, events.size());
+    assertInstanceOf(EventClientEntersTaxi.class, events.get(0));
+    assertEquals(151, events.get(0).getCurrentTime());
+    assertInstanceOf(EventClientFinished.class, events.get(1));
+    assertInstanceOf(EventClientLeaveTaxi.class, events.get(2));
+    assertEquals(201, events.get(2).getCurrentTime());
+  }
+
+  @Test
+  void parallelMoveMatchesSequentialMove() {
+    var sequential = plannedWorld(false);
+    var sequentialEvents = simulate(sequential, false);
+    var parallel = plannedWorld(false);
+    var parallelEvents = simulate(parallel, true);
+
+    assertFalse(sequentialEvents.isEmpty());
+    assertEquals(sequentialEvents, parallelEvents);
+    assertSameState(sequential, parallel);
+  }
+
+  @Test
+  void columnarStoreMatchesEntityFields() {
+    var objects = plannedWorld(false);
+    var objectEvents = simulate(objects, false);
+    var columnar = plannedWorld(true);
+    var columnarEvents = simulate(columnar, true);
+
+    assertFalse(objectEvents.isEmpty());
+    assertEquals(objectEvents, columnarEvents);
+    assertSameState(objects, columnar);
+    var objectDistances = objects.getTaxiView().stream().map(Taxi::getTravelDistance).toList();
+    var columnarDistances = columnar.getTaxiView().stream().map(Taxi::getTravelDistance).toList();
+    assertEquals(objectDistances, columnarDistances);
+  }
+
+  @Test
+  void concurrentSimulationsKeepTheirOwnEvents() {
+    var expected = simulate(plannedWorld(false), false);
+    assertFalse(expected.isEmpty());
+
+    var first = CompletableFuture.supplyAsync(() -> simulate(plannedWorld(false), false));
+    var second = CompletableFuture.supplyAsync(() -> simulate(plannedWorld(true), false));
+    assertEquals(expected, first.join());
+    assertEquals(expected, second.join());
+  }
+
+  private static void assertSameState(WorldObject expected, WorldObject actual) {
+    var expectedTaxis = expected.getTaxiView().stream().map(Taxi::getPosition).toList();
+    var actualTaxis = actual.getTaxiView().stream().map(Taxi::getPosition).toList();
+    assertEquals(expectedTaxis, actualTaxis);
+    var expectedClients = expected.getClientView().stream().map(Client::getPosition).toList();
+    var actualClients = actual.getClientView().stream().map(Client::getPosition).toList();
+    assertEquals(expectedClients, actualClients);
+    var center = new Position(5000, 5000);
+    assertEquals(
+        expected.findNearestTaxis(center, 10, t -> true),
+        actual.findNearestTaxis(center, 10, t -> true));
+  }
+
+  private static WorldObject plannedWorld(boolean columnarStore) {
+    var world = WorldObject.builder().maxX(10000).maxY(10000).columnarStore(columnarStore).build();
+    var random = new Random(7);
+    TestWorlds.addTaxis(world, random, 3000, 2, 50);
+    TestWorlds.addClients(world, random, 3000, 10, 5);
+    // index the taxis, so the index updates are replayed as well
+    world.findNearestTaxis(new Position(0, 0), 1, t -> true);
+    new WorldSimulator(world).move(10);
+    var taxis = world.getTaxiView().iterator();
+    for (Client client : world.getClientView()) {
+      var taxi = taxis.next();
+      if (client.getName().hashCode() % 2 == 0) {
+        world.mutate().planClientForTaxi(taxi, client, TargetList.sequentialOrders);
+      }
+    }
+    world.getContext().getEventDispatcher().resetEvents();
+    return world;
+  }
+
+  private static List<String> simulate(WorldObject world, boolean parallel) {
+    var simulator = new WorldSimulator(world);
+    simulator.setParallel(parallel);
+    for (long time = 11; time <= 900; time++) {
+      simulator.move(time);
+    }
+    return world.getContext().getEventDispatcher().getAll().stream()
+        .map(Event::printMessage)
+        .toList();
+  }
+}
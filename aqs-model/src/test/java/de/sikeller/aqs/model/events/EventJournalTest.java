@@ -0,0 +1,60 @@
+package de.sikeller.aqs.model.events;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EventJournalTest {
+
+  @Test
+  void eventJournalMatchesEventList(@TempDir Path directory) throws IOException {
+    var expected = simulate(plannedWorld());
+    // each client enters, finishes and leaves its taxi
+    assertEquals(30, expected.size());
+
+    var world = plannedWorld();
+    var path = directory.resolve("events");
+    try (var journal = new EventJournal(path)) {
+      world.getContext().getEventDispatcher().setJournal(journal);
+      assertTrue(simulate(world).isEmpty());
+      assertEquals(expected.size(), journal.getSize());
+    }
+    try (var reader = EventJournalReader.open(path)) {
+      assertEquals(expected, reader.stream().map(reader::printMessage).toList());
+    }
+  }
+
+  // ten taxis, each picking up the client in front of it and driving it to the same street
+  private static WorldObject plannedWorld() {
+    var world = WorldObject.builder().maxX(10000).maxY(10000).build();
+    for (int i = 0; i < 10; i++) {
+      // 36 km/h = 10 m/s
+      world.addTaxi("t" + i, 2, new Position(1000 * i, 0), 36);
+      // the clients do not walk, so only the taxis move
+      world.addClient(
+          "c" + i, i, new Position(1000 * i, 500 + 100 * i), new Position(1000 * i, 3000), 0);
+    }
+    new WorldSimulator(world).move(10);
+    var taxis = world.getTaxiView().iterator();
+    for (Client client : world.getClientView()) {
+      world.mutate().planClientForTaxi(taxis.next(), client, TargetList.sequentialOrders);
+    }
+    world.getContext().getEventDispatcher().resetEvents();
+    return world;
+  }
+
+  private static List<String> simulate(WorldObject world) {
+    var simulator = new WorldSimulator(world);
+    for (long time = 11; time <= 400; time++) {
+      simulator.move(time);
+    }
+    return world.getContext().getEventDispatcher().getAll().stream()
+        .map(Event::printMessage)
+        .toList();
+  }
+}
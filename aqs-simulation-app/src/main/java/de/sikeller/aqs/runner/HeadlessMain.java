@@ -0,0 +1,149 @@
+package de.sikeller.aqs.runner;
+
+import de.sikeller.aqs.model.Algorithm;
+import de.sikeller.aqs.model.AlgorithmParameter;
+import de.sikeller.aqs.model.TaxiAlgorithm;
+import de.sikeller.aqs.model.WorldObject;
+import de.sikeller.aqs.simulation.HeadlessSimulationRunner;
+import de.sikeller.aqs.simulation.WorldGeneratorRandom;
+import de.sikeller.aqs.taxi.algorithm.TaxiAlgorithmSinglePassenger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs simulations without UI as fast as possible.
+ *
+ * <p>Usage: <code>HeadlessMain [AlgorithmClassName] [name=value ...]</code>, e.g. <code>
+ * HeadlessMain TaxiAlgorithmDistributed taxiCount=500 clientCount=10000 worldSeed=3</code>.
+ * Parameters which are not given fall back to the defaults of the UI and of the algorithm.
+ *
+ * <p>With <code>runs=N</code> the scenario is simulated N times with the world seeds <code>
+ * worldSeed</code> to <code>worldSeed + N - 1</code>. The runs are independent simulations with
+ * their own world, algorithm and events, and run side by side on <code>threads</code> threads (by
+ * default one per core).
+ *
+ * <p>With <code>eventJournal=file</code> the events are written to a binary journal file instead of
+ * being kept in memory. With several runs the world seed is appended to the file name.
+ *
+ * <p>The summary and the stats of the runs are the result of the program and are printed to stdout,
+ * so they can be piped and compared, while the simulation logs through Slf4j as usual.
+ */
+public class HeadlessMain {
+  private static final String PARAMETER_RUNS = "runs";
+  private static final String PARAMETER_THREADS = "threads";
+  private static final String PARAMETER_EVENT_JOURNAL = "eventJournal";
+
+  public static void main(String[] args) throws ReflectiveOperationException, InterruptedException {
+    Class<?> algorithmClass = TaxiAlgorithmSinglePassenger.class;
+    Path eventJournal = null;
+
+    Map<String, Integer> parameters = new HashMap<>();
+    parameters.put("taxiCount", 5);
+    parameters.put("clientCount", 100);
+    parameters.put("clientSpawnWindow", 10_000);
+    parameters.put("clientSpeed", 5);
+    parameters.put("taxiSeatCount", 2);
+    parameters.put("taxiSpeed", 80);
+
+    for (String arg : args) {
+      if (arg.contains("=")) {
+        var keyValue = arg.split("=", 2);
+        if (keyValue[0].trim().equals(PARAMETER_EVENT_JOURNAL)) {
+          eventJournal = Path.of(keyValue[1].trim());
+          continue;
+        }
+        parameters.put(keyValue[0].trim(), Integer.parseInt(keyValue[1].trim()));
+      } else {
+        algorithmClass = findAlgorithm(arg);
+      }
+    }
+
+    int runs = Math.max(1, parameters.getOrDefault(PARAMETER_RUNS, 1));
+    if (runs == 1) {
+      System.out.print(run(algorithmClass, parameters, eventJournal));
+      return;
+    }
+
+    int threads =
+        parameters.getOrDefault(
+            PARAMETER_THREADS, Math.min(runs, Runtime.getRuntime().availableProcessors()));
+    int firstSeed = parameters.getOrDefault("worldSeed", 1);
+    var executor = Executors.newFixedThreadPool(Math.max(1, threads));
+    try {
+      List<Future<String>> outputs = new ArrayList<>(runs);
+      for (int i = 0; i < runs; i++) {
+        Map<String, Integer> runParameters = new HashMap<>(parameters);
+        runParameters.put("worldSeed", firstSeed + i);
+        var finalAlgorithmClass = algorithmClass;
+        var runEventJournal =
+            eventJournal == null
+                ? null
+                : eventJournal.resolveSibling(eventJournal.getFileName() + "-" + (firstSeed + i));
+        outputs.add(
+            executor.submit(() -> run(finalAlgorithmClass, runParameters, runEventJournal)));
+      }
+      for (int i = 0; i < runs; i++) {
+        System.out.printf("worldSeed=%d%n", firstSeed + i);
+        System.out.print(outputs.get(i).get());
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A simulation run failed", e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Run a single simulation with a new world and a new instance of the algorithm.
+   *
+   * @return the summary and the stats of the run
+   */
+  private static String run(
+      Class<?> algorithmClass, Map<String, Integer> parameters, Path eventJournal)
+      throws ReflectiveOperationException {
+    var algorithm =
+        new Algorithm((TaxiAlgorithm) algorithmClass.getDeclaredConstructor().newInstance());
+    for (AlgorithmParameter parameter : algorithm.get().getParameters().getParameters()) {
+      parameters.putIfAbsent(parameter.name(), parameter.defaultValue());
+    }
+
+    var world =
+        WorldObject.builder()
+            .maxX(40000)
+            .maxY(40000)
+            .columnarStore(parameters.getOrDefault("columnarStore", 0) != 0)
+            .build();
+    var runner = new HeadlessSimulationRunner(world, algorithm, new WorldGeneratorRandom());
+    runner.setEventJournal(eventJournal);
+    var result = runner.run(parameters);
+    var output = new StringBuilder();
+    output.append(
+        "%s: %d steps in %d ms (%.1f steps/s), finished: %s%n"
+            .formatted(
+                algorithm.get().getName(),
+                result.steps(),
+                result.wallClockNanos() / 1_000_000,
+                result.stepsPerSecond(),
+                result.finished()));
+    for (Object[] row : runner.getStatsCollector().tableResults().getData()) {
+      output.append(Arrays.toString(row)).append(System.lineSeparator());
+    }
+    return output.toString();
+  }
+
+  private static Class<?> findAlgorithm(String simpleName) {
+    for (Class<?> algorithmClass : new Algorithm(null).getAllAlgorithms()) {
+      if (algorithmClass.getSimpleName().equals(simpleName)) {
+        return algorithmClass;
+      }
+    }
+    throw new IllegalArgumentException("Unknown algorithm: " + simpleName);
+  }
+}
@@ -0,0 +1,142 @@
+package de.sikeller.aqs.simulation;
+
+import de.sikeller.aqs.model.*;
+import de.sikeller.aqs.model.events.EventDispatcher;
+import de.sikeller.aqs.model.events.EventJournal;
+import de.sikeller.aqs.simulation.stats.StatsCollector;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A simulation runner without any UI. In contrast to the {@link SimulationRunner} there is no
+ * result visualization, no observer notification, no sleep between the steps and no busy waiting
+ * for a start signal. The algorithm and the world simulator are driven back-to-back so a run is
+ * only bound by the CPU, which makes it usable for parameter sweeps on build servers.
+ *
+ * <p>With the parameter {@value #PARAMETER_EVENT_DRIVEN} the runner does not advance the world one
+ * unit of time per step, but jumps directly to the next event of the {@link WorldSimulator}. The
+ * algorithm is then only called when the state of the world changes, which makes sparse scenarios a
+ * lot faster.
+ *
+ * <p>If an {@link #eventJournal} is set, the events of the run are written to this file instead of
+ * being kept in memory, see {@link EventJournal}.
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public class HeadlessSimulationRunner {
+  /** Optional parameter to abort a run after the given number of steps (0 = unlimited). */
+  public static final String PARAMETER_MAX_STEPS = "maxSteps";
+
+  /** Optional parameter to jump from event to event instead of single steps (0 = off, 1 = on). */
+  public static final String PARAMETER_EVENT_DRIVEN = "eventDriven";
+
+  /** Optional parameter to limit the time between two events (0 = unlimited). */
+  public static final String PARAMETER_MAX_TIME_STEP = "maxTimeStep";
+
+  /** Optional parameter to move the entities on all cores (0 = off, 1 = on). */
+  public static final String PARAMETER_PARALLEL_MOVEMENT = "parallelMovement";
+
+  private final WorldObject world;
+  private final Algorithm algorithm;
+  private final WorldGenerator worldGenerator;
+  private final StatsCollector statsCollector = new StatsCollector();
+
+  /** The file to which the events are written, or null to keep them in memory. */
+  @Setter private Path eventJournal;
+
+  /** The outcome of a headless run. */
+  public record Result(long steps, long wallClockNanos, boolean finished) {
+    public double stepsPerSecond() {
+      return wallClockNanos == 0 ? 0 : steps / (wallClockNanos / 1_000_000_000.0);
+    }
+  }
+
+  /**
+   * Initialize the world and the algorithm with the given parameters and run the simulation until
+   * all clients are finished (or the optional step limit is reached).
+   *
+   * @param parameters world and algorithm parameters
+   * @return the number of simulated steps and the wall clock time needed for them
+   */
+  public Result run(Map<String, Integer> parameters) {
+    worldGenerator.init(world, parameters);
+    algorithm.get().setParameters(parameters);
+    algorithm.get().init(world);
+    long maxSteps = parameters.getOrDefault(PARAMETER_MAX_STEPS, 0);
+    boolean eventDriven = parameters.getOrDefault(PARAMETER_EVENT_DRIVEN, 0) != 0;
+    long maxTimeStep = parameters.getOrDefault(PARAMETER_MAX_TIME_STEP, 0);
+
+    WorldSimulator worldSimulator = new WorldSimulator(world);
+    EventDispatcher eventDispatcher = world.getContext().getEventDispatcher();
+    boolean keepEvents = eventDispatcher.isKeepEvents();
+    EventJournal previousJournal = eventDispatcher.getJournal();
+    EventJournal journal = openEventJournal();
+    Result result;
+    try {
+      eventDispatcher.setJournal(journal);
+      // the stats are collected while the events are dispatched, so they are only kept in a journal
+      eventDispatcher.setKeepEvents(false);
+      statsCollector.start(eventDispatcher);
+      worldSimulator.setParallel(parameters.getOrDefault(PARAMETER_PARALLEL_MOVEMENT, 0) != 0);
+      long steps = 0;
+      var runStartTime = System.nanoTime();
+      while (!world.isFinished() && (maxSteps <= 0 || steps < maxSteps)) {
+        var startTime = System.nanoTime();
+        var stepResult = algorithm.get().nextStep(world);
+        var calculationTime = System.nanoTime() - startTime;
+        statsCollector.recordStep(calculationTime, stepResult.getCalculationTime());
+        // the next event depends on the routes planned by the algorithm in this step
+        var currentTime =
+            eventDriven ? worldSimulator.nextEventTime(maxTimeStep) : world.getCurrentTime() + 1;
+        worldSimulator.move(currentTime);
+        steps++;
+      }
+      result = new Result(steps, System.nanoTime() - runStartTime, world.isFinished());
+
+      statsCollector.collect(world, algorithm);
+      statsCollector.print();
+    } finally {
+      // restore the dispatcher even if the run failed, so the world can be used for further runs
+      eventDispatcher.resetEvents();
+      eventDispatcher.setKeepEvents(keepEvents);
+      eventDispatcher.setJournal(previousJournal);
+      if (journal != null) closeEventJournal(journal);
+    }
+
+    log.info(
+        "Headless run with {} finished={} after {} steps (simulated time {}) in {} ms ({} steps/s)",
+        algorithm.get().getName(),
+        result.finished(),
+        result.steps(),
+        world.getCurrentTime(),
+        TimeUnit.NANOSECONDS.toMillis(result.wallClockNanos()),
+        "%.1f".formatted(result.stepsPerSecond()));
+    return result;
+  }
+
+  private EventJournal openEventJournal() {
+    if (eventJournal == null) return null;
+    try {
+      return new EventJournal(eventJournal);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void closeEventJournal(EventJournal journal) {
+    try {
+      journal.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    log.info("{} events written to {}", journal.getSize(), journal.getPath());
+  }
+}
@@ -2,11 +2,9 @@ package de.sikeller.aqs.simulation;
 
 import de.sikeller.aqs.model.*;
 import de.sikeller.aqs.model.events.EventDispatcher;
-import de.sikeller.aqs.simulation.stats.CollectorMinMaxAverage;
 import de.sikeller.aqs.simulation.stats.StatsCollector;
 import de.sikeller.aqs.visualization.ResultVisualization;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -23,7 +21,6 @@ public class SimulationRunner implements SimulationControl {
   private final WorldGenerator worldGenerator;
   private final ResultVisualization resultVisualization = new ResultVisualization();
   private final StatsCollector statsCollector = new StatsCollector();
-  private final EventDispatcher eventDispatcher = EventDispatcher.instance();
   private final List<SimulationObserver> listeners = new LinkedList<>();
   private volatile boolean running = false;
   private volatile int speed = 15;
@@ -41,8 +38,8 @@ public class SimulationRunner implements SimulationControl {
     simulationInitialized = false;
 
     WorldSimulator worldSimulator = new WorldSimulator(world);
-    var algorithmCalculationTime = CollectorMinMaxAverage.longCollector();
-    var customCalculationTime = CollectorMinMaxAverage.longCollector();
+    EventDispatcher eventDispatcher = world.getContext().getEventDispatcher();
+    statsCollector.start(eventDispatcher);
     while (!world.isFinished()) {
       int sleepMillis = (int) Math.min(1000, Math.round(Math.pow(100.0 / speed, 2.0) - 1));
       Thread.sleep(sleepMillis);
@@ -53,21 +50,14 @@ public class SimulationRunner implements SimulationControl {
       var startTime = System.nanoTime();
       var result = algorithm.get().nextStep(world);
       var calculationTime = System.nanoTime() - startTime;
-      algorithmCalculationTime.collect(calculationTime);
-      customCalculationTime.collect(
-          result.getCalculationTime() != null ? result.getCalculationTime() : 0);
+      statsCollector.recordStep(calculationTime, result.getCalculationTime());
       log.debug("Step {}: {} in {} nanos", currentTime, result, calculationTime);
       worldSimulator.move(currentTime);
       listeners.forEach(l -> l.onUpdate(world, false));
     }
 
     eventDispatcher.print();
-    statsCollector.collect(
-        eventDispatcher,
-        world,
-        getAlgorithm(),
-        algorithmCalculationTime.result(TimeUnit.NANOSECONDS::toMillis),
-        customCalculationTime.result(TimeUnit.NANOSECONDS::toMicros));
+    statsCollector.collect(world, getAlgorithm());
     statsCollector.print();
 
     try {
@@ -1,9 +1,9 @@
 package de.sikeller.aqs.simulation.stats;
 
 import java.util.Collection;
-import java.util.function.BiFunction;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
-import lombok.AllArgsConstructor;
+import java.util.function.LongUnaryOperator;
 
 /**
  * A collector class that calculates the minimum, maximum, average, sum, and count of elements in a
@@ -16,84 +16,150 @@ public class CollectorMinMaxAverage<T> {
   public record Result<T>(T min, T max, double avg, T sum, int count) {}
 
   /**
-   * A collector class that calculates the minimum, maximum, average, sum, and count of numbers.
-   *
-   * @param <N> the type of numbers to collect
+   * A collector of long values which calculates the minimum, maximum, average, sum, and count
+   * without boxing the values. Collectors of different threads can be merged with {@link
+   * #combine(LongCollector)}.
    */
-  @AllArgsConstructor
-  public static class Collector<N extends Number & Comparable<N>> {
-    private N min;
-    private N max;
-    private N sum;
-    private int count;
-    private BiFunction<N, N, N> sumCalculator;
-    private BiFunction<N, Integer, Double> avgCalculator;
+  public static final class LongCollector {
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+    private long sum = 0;
+    private int count = 0;
 
     /**
      * Collects a value and updates the statistics.
      *
      * @param value the value to collect
      */
-    public void collect(N value) {
-      if (min.compareTo(value) > 0) {
-        min = value;
-      }
-      if (max.compareTo(value) < 0) {
-        max = value;
-      }
-      sum = sumCalculator.apply(sum, value);
+    public void collect(long value) {
+      if (value < min) min = value;
+      if (value > max) max = value;
+      sum += value;
       count++;
     }
 
+    /**
+     * Adds the values collected by another collector to this collector.
+     *
+     * @param other the other collector, which is not changed
+     * @return this collector
+     */
+    public LongCollector combine(LongCollector other) {
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+      sum += other.sum;
+      count += other.count;
+      return this;
+    }
+
     /**
      * Returns the calculated statistics as a Result object.
      *
      * @return a Result object
      */
-    public Result<N> result() {
+    public Result<Long> result() {
       return result(n -> n);
     }
 
     /**
      * Returns the calculated statistics as a Result object with the values mapped by the given
+     * function.
      *
      * @param mapper the function to map the values
      * @return a Result object with the mapped values
      */
-    public Result<N> result(Function<N, N> mapper) {
+    public Result<Long> result(LongUnaryOperator mapper) {
       if (count == 0) {
         // Return the max value as min and max if no values were collected because the max value
         // is the minimum expected value. And the average is 0.
         return new Result<>(max, max, 0, sum, count);
       }
-      N mappedSum = mapper.apply(sum);
+      long mappedSum = mapper.applyAsLong(sum);
       return new Result<>(
-          mapper.apply(min),
-          mapper.apply(max),
-          avgCalculator.apply(mappedSum, count),
+          mapper.applyAsLong(min),
+          mapper.applyAsLong(max),
+          1.0 * mappedSum / count,
           mappedSum,
           count);
     }
   }
 
-  /** Returns a new Collector for double values. */
-  public static Collector<Double> doubleCollector() {
-    return new Collector<>(Double.MAX_VALUE, 0D, 0D, 0, Double::sum, (sum, count) -> sum / count);
+  /**
+   * A collector of double values which calculates the minimum, maximum, average, sum, and count
+   * without boxing the values. Collectors of different threads can be merged with {@link
+   * #combine(DoubleCollector)}.
+   */
+  public static final class DoubleCollector {
+    private double min = Double.MAX_VALUE;
+    private double max = 0;
+    private double sum = 0;
+    private int count = 0;
+
+    /**
+     * Collects a value and updates the statistics.
+     *
+     * @param value the value to collect
+     */
+    public void collect(double value) {
+      if (value < min) min = value;
+      if (value > max) max = value;
+      sum += value;
+      count++;
+    }
+
+    /**
+     * Adds the values collected by another collector to this collector.
+     *
+     * @param other the other collector, which is not changed
+     * @return this collector
+     */
+    public DoubleCollector combine(DoubleCollector other) {
+      min = Math.min(min, other.min);
+      max = Math.max(max, other.max);
+      sum += other.sum;
+      count += other.count;
+      return this;
+    }
+
+    /**
+     * Returns the calculated statistics as a Result object.
+     *
+     * @return a Result object
+     */
+    public Result<Double> result() {
+      return result(n -> n);
+    }
+
+    /**
+     * Returns the calculated statistics as a Result object with the values mapped by the given
+     * function.
+     *
+     * @param mapper the function to map the values
+     * @return a Result object with the mapped values
+     */
+    public Result<Double> result(DoubleUnaryOperator mapper) {
+      if (count == 0) {
+        // see LongCollector#result(LongUnaryOperator)
+        return new Result<>(max, max, 0, sum, count);
+      }
+      double mappedSum = mapper.applyAsDouble(sum);
+      return new Result<>(
+          mapper.applyAsDouble(min),
+          mapper.applyAsDouble(max),
+          mappedSum / count,
+          mappedSum,
+          count);
+    }
   }
 
-  /** Returns a new Collector for long values. */
-  public static Collector<Long> longCollector() {
-    return new Collector<>(Long.MAX_VALUE, 0L, 0L, 0, Long::sum, (sum, count) -> 1.0 * sum / count);
+  /** Returns a new Collector for double values. */
+  public static DoubleCollector doubleCollector() {
+    return new DoubleCollector();
   }
 
-  /** Collects statistics from a collection of elements by mapping each element to a number. */
-  private <N extends Number & Comparable<N>> Result<N> collect(
-      Collection<T> collection, Function<T, N> mapper, Collector<N> collector) {
-    for (T entry : collection) {
-      var value = mapper.apply(entry);
-      collector.collect(value);
-    }
-    return collector.result();
+  /** Returns a new Collector for long values. */
+  public static LongCollector longCollector() {
+    return new LongCollector();
   }
 
   /**
@@ -105,7 +171,11 @@ public class CollectorMinMaxAverage<T> {
    * @return a Result containing the calculated statistics
    */
   public Result<Double> collectDouble(Collection<T> collection, Function<T, Double> mapper) {
-    return collect(collection, mapper, doubleCollector());
+    var collector = doubleCollector();
+    for (T entry : collection) {
+      collector.collect(mapper.apply(entry));
+    }
+    return collector.result();
   }
 
   /**
@@ -117,6 +187,10 @@ public class CollectorMinMaxAverage<T> {
    * @return a Result containing the calculated statistics
    */
   public Result<Long> collectLong(Collection<T> collection, Function<T, Long> mapper) {
-    return collect(collection, mapper, longCollector());
+    var collector = longCollector();
+    for (T entry : collection) {
+      collector.collect(mapper.apply(entry));
+    }
+    return collector.result();
   }
 }
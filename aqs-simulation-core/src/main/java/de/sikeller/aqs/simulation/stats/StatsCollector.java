@@ -3,117 +3,226 @@ package de.sikeller.aqs.simulation.stats;
 import static java.lang.String.format;
 
 import de.sikeller.aqs.model.*;
+import de.sikeller.aqs.model.events.Event;
 import de.sikeller.aqs.model.events.EventClientFinished;
 import de.sikeller.aqs.model.events.EventList;
+import de.sikeller.aqs.simulation.stats.CollectorMinMaxAverage.LongCollector;
 import de.sikeller.aqs.simulation.stats.CollectorMinMaxAverage.Result;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Collects the statistics of simulation runs. The client travel times are aggregated while the
+ * events are dispatched, so the collector does not need to keep or scan the events and the current
+ * values can be read with {@link #getClientTravelTime()} during a run.
+ *
+ * <p>Besides min, max and average, the collector reports the percentiles {@link #PERCENTILES} of
+ * every result. They are taken from {@link LatencyHistogram}s, so the memory of a run does not grow
+ * with the number of steps or clients.
+ */
 @Slf4j
 public class StatsCollector {
   private static final String DOUBLE_FORMAT = "%.02f";
+
+  /** The percentiles which are reported in the result table. */
+  public static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
   private Result<Double> travelDistance;
   private Result<Long> travelTime;
   private Result<Long> calculationTime;
   private Result<Long> customTime;
+  private LatencyHistogram travelDistanceHistogram;
+  private LatencyHistogram travelTimeHistogram;
+  private LatencyHistogram calculationTimeHistogram;
+  private LatencyHistogram customTimeHistogram;
   private Algorithm algorithm;
   private int runCounter = 0;
 
-  public void collect(
-      EventList eventList,
-      World world,
-      Algorithm algorithm,
-      Result<Long> calculationTime,
-      Result<Long> customTime) {
-    collectClientTravelTime(eventList);
-    collectTaxiTravelDistance(world);
-    this.calculationTime = calculationTime;
-    this.customTime = customTime;
+  /** The running aggregates of the current run. */
+  private LongCollector travelTimeCollector = CollectorMinMaxAverage.longCollector();
+
+  private LatencyHistogram currentTravelTimes = new LatencyHistogram();
+  private LongCollector currentCalculationTimes = CollectorMinMaxAverage.longCollector();
+  private LongCollector currentCustomTimes = CollectorMinMaxAverage.longCollector();
+  private LatencyHistogram currentCalculationTimeHistogram = new LatencyHistogram();
+  private LatencyHistogram currentCustomTimeHistogram = new LatencyHistogram();
+
+  private EventList eventList;
+
+  /**
+   * Start collecting a new run. The collector registers itself as listener of the events, once per
+   * event list.
+   *
+   * @param eventList the events of the run
+   */
+  public void start(EventList eventList) {
+    synchronized (this) {
+      travelTimeCollector = CollectorMinMaxAverage.longCollector();
+      currentTravelTimes = new LatencyHistogram();
+    }
+    currentCalculationTimes = CollectorMinMaxAverage.longCollector();
+    currentCustomTimes = CollectorMinMaxAverage.longCollector();
+    currentCalculationTimeHistogram = new LatencyHistogram();
+    currentCustomTimeHistogram = new LatencyHistogram();
+    if (this.eventList != eventList) {
+      eventList.registerListener(this::onEvent);
+      this.eventList = eventList;
+    }
+  }
+
+  private void onEvent(Event event) {
+    if (event instanceof EventClientFinished finished) {
+      synchronized (this) {
+        travelTimeCollector.collect(finished.getTravelTime());
+        currentTravelTimes.record(finished.getTravelTime());
+      }
+    }
+  }
+
+  /**
+   * Record the times of a single step of the algorithm in the current run.
+   *
+   * @param calculationTimeNanos the measured time of the step in nanoseconds
+   * @param customTimeNanos the time reported by the algorithm in nanoseconds or null
+   */
+  public void recordStep(long calculationTimeNanos, Long customTimeNanos) {
+    long customTime = customTimeNanos != null ? customTimeNanos : 0;
+    currentCalculationTimes.collect(calculationTimeNanos);
+    currentCalculationTimeHistogram.record(calculationTimeNanos);
+    currentCustomTimes.collect(customTime);
+    currentCustomTimeHistogram.record(customTime);
+  }
+
+  /** Returns the client travel times of the current run so far. */
+  public synchronized Result<Long> getClientTravelTime() {
+    return travelTimeCollector.result();
+  }
+
+  /**
+   * Finish the current run.
+   *
+   * @param world the world at the end of the run
+   * @param algorithm the algorithm of the run
+   */
+  public void collect(World world, Algorithm algorithm) {
+    synchronized (this) {
+      this.travelTime = travelTimeCollector.result();
+      this.travelTimeHistogram = currentTravelTimes;
+    }
+    this.travelDistance = getTaxiTravelDistance(world);
+    this.travelDistanceHistogram = new LatencyHistogram();
+    for (Taxi taxi : world.getTaxiView()) {
+      travelDistanceHistogram.record(Math.round(taxi.getTravelDistance()));
+    }
+    this.calculationTime = currentCalculationTimes.result(TimeUnit.NANOSECONDS::toMillis);
+    this.customTime = currentCustomTimes.result(TimeUnit.NANOSECONDS::toMicros);
+    this.calculationTimeHistogram = currentCalculationTimeHistogram;
+    this.customTimeHistogram = currentCustomTimeHistogram;
     this.algorithm = algorithm;
     runCounter++;
   }
 
   public ResultTable tableResults() {
-    var columns = new String[] {"Result", "Min", "Max", "Avg", "Sum", "Count", "Algorithm", "Run"};
+    var columns =
+        new String[] {
+          "Result",
+          "Min",
+          "Max",
+          "Avg",
+          "Sum",
+          "P50",
+          "P90",
+          "P99",
+          "P99.9",
+          "Count",
+          "Algorithm",
+          "Run"
+        };
 
     var data = new Object[4][];
     data[0] =
-        new Object[] {
-          "Taxi Travel Distance [km]",
-          format(DOUBLE_FORMAT, travelDistance.min()),
-          format(DOUBLE_FORMAT, travelDistance.max()),
-          format(DOUBLE_FORMAT, travelDistance.avg()),
-          format(DOUBLE_FORMAT, travelDistance.sum()),
-          travelDistance.count(),
-          algorithm.get().getName(),
-          runCounter
-        };
+        row(
+            "Taxi Travel Distance [km]",
+            format(DOUBLE_FORMAT, travelDistance.min()),
+            format(DOUBLE_FORMAT, travelDistance.max()),
+            format(DOUBLE_FORMAT, travelDistance.avg()),
+            format(DOUBLE_FORMAT, travelDistance.sum()),
+            percentiles(travelDistanceHistogram, value -> format(DOUBLE_FORMAT, (double) value)),
+            travelDistance.count());
     data[1] =
-        new Object[] {
-          "Client Travel Time [min]",
-          travelTime.min(),
-          travelTime.max(),
-          format(DOUBLE_FORMAT, travelTime.avg()),
-          travelTime.sum(),
-          travelTime.count(),
-          algorithm.get().getName(),
-          runCounter
-        };
+        row(
+            "Client Travel Time [min]",
+            travelTime.min(),
+            travelTime.max(),
+            format(DOUBLE_FORMAT, travelTime.avg()),
+            travelTime.sum(),
+            percentiles(travelTimeHistogram, value -> value),
+            travelTime.count());
     data[2] =
-        new Object[] {
-          "Calculation Time [millis]",
-          calculationTime.min(),
-          calculationTime.max(),
-          format(DOUBLE_FORMAT, calculationTime.avg()),
-          calculationTime.sum(),
-          calculationTime.count(),
-          algorithm.get().getName(),
-          runCounter
-        };
+        row(
+            "Calculation Time [millis]",
+            calculationTime.min(),
+            calculationTime.max(),
+            format(DOUBLE_FORMAT, calculationTime.avg()),
+            calculationTime.sum(),
+            percentiles(calculationTimeHistogram, value -> format(DOUBLE_FORMAT, value / 1e6)),
+            calculationTime.count());
     data[3] =
-        new Object[] {
-          "Custom Time [micros]",
-          customTime.min(),
-          customTime.max(),
-          format(DOUBLE_FORMAT, customTime.avg()),
-          customTime.sum(),
-          customTime.count(),
-          algorithm.get().getName(),
-          runCounter
-        };
+        row(
+            "Custom Time [micros]",
+            customTime.min(),
+            customTime.max(),
+            format(DOUBLE_FORMAT, customTime.avg()),
+            customTime.sum(),
+            percentiles(customTimeHistogram, value -> format(DOUBLE_FORMAT, value / 1e3)),
+            customTime.count());
 
     return new ResultTable(columns, data);
   }
 
+  private Object[] row(
+      String name,
+      Object min,
+      Object max,
+      Object avg,
+      Object sum,
+      Object[] percentiles,
+      long count) {
+    var row = new Object[8 + percentiles.length];
+    row[0] = name;
+    row[1] = min;
+    row[2] = max;
+    row[3] = avg;
+    row[4] = sum;
+    System.arraycopy(percentiles, 0, row, 5, percentiles.length);
+    row[row.length - 3] = count;
+    row[row.length - 2] = algorithm.get().getName();
+    row[row.length - 1] = runCounter;
+    return row;
+  }
+
+  private static Object[] percentiles(LatencyHistogram histogram, LongFunction<Object> format) {
+    var values = new Object[PERCENTILES.length];
+    for (int i = 0; i < PERCENTILES.length; i++) {
+      values[i] = format.apply(histogram.percentile(PERCENTILES[i]));
+    }
+    return values;
+  }
+
   public void print() {
     var table = tableResults();
     for (Object[] data : table.getData()) {
       log.info(
-          "[{}] min: {}, max: {}, avg: {}, sum: {}, count: {}, algorithm: {}, run: {}",
-          data[0],
-          data[1],
-          data[2],
-          data[3],
-          data[4],
-          data[5],
-          data[6],
-          data[7]);
+          "[{}] min: {}, max: {}, avg: {}, sum: {}, "
+              + "p50: {}, p90: {}, p99: {}, p99.9: {}, count: {}, algorithm: {}, run: {}",
+          data);
     }
   }
 
-  private void collectTaxiTravelDistance(World world) {
-    travelDistance =
-        new CollectorMinMaxAverage<Taxi>().collectDouble(world.getTaxis(), Taxi::getTravelDistance);
-  }
-
-  private void collectClientTravelTime(EventList eventList) {
-    var finishedEvents =
-        eventList.getAll().stream()
-            .filter(e -> e instanceof EventClientFinished)
-            .map(e -> (EventClientFinished) e)
-            .toList();
-
-    travelTime =
-        new CollectorMinMaxAverage<EventClientFinished>()
-            .collectLong(finishedEvents, EventClientFinished::getTravelTime);
+  /** Returns the travel distances of the taxis of a world so far. */
+  public Result<Double> getTaxiTravelDistance(World world) {
+    return new CollectorMinMaxAverage<Taxi>()
+        .collectDouble(world.getTaxiView(), Taxi::getTravelDistance);
   }
 }
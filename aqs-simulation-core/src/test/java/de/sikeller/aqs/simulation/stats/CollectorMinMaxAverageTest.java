@@ -55,5 +55,48 @@ class CollectorMinMaxAverageTest {
     assertEquals(0, longResult.count());
   }
 
+  @Test
+  void testCombineLong() {
+    var all = CollectorMinMaxAverage.longCollector();
+    var first = CollectorMinMaxAverage.longCollector();
+    var second = CollectorMinMaxAverage.longCollector();
+    for (long value = 1; value <= 100; value++) {
+      all.collect(value);
+      (value % 3 == 0 ? first : second).collect(value);
+    }
+
+    assertEquals(all.result(), first.combine(second).result());
+    assertEquals(all.result(), first.combine(CollectorMinMaxAverage.longCollector()).result());
+  }
+
+  @Test
+  void testCombineDouble() {
+    var first = CollectorMinMaxAverage.doubleCollector();
+    first.collect(2.5);
+    first.collect(0.5);
+    var second = CollectorMinMaxAverage.doubleCollector();
+    second.collect(4.0);
+
+    var result = CollectorMinMaxAverage.doubleCollector().combine(first).combine(second).result();
+    assertEquals(0.5, result.min());
+    assertEquals(4.0, result.max());
+    assertEquals(7.0 / 3, result.avg());
+    assertEquals(7.0, result.sum());
+    assertEquals(3, result.count());
+  }
+
+  @Test
+  void testResultMapper() {
+    var collector = CollectorMinMaxAverage.longCollector();
+    collector.collect(1_500_000);
+    collector.collect(2_500_000);
+
+    var result = collector.result(value -> value / 1_000_000);
+    assertEquals(1L, result.min());
+    assertEquals(2L, result.max());
+    assertEquals(2.0, result.avg());
+    assertEquals(4L, result.sum());
+  }
+
   private record TestData(double doubleValue, long longValue) {}
 }
@@ -0,0 +1,70 @@
+package de.sikeller.aqs.simulation.stats;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.*;
+import de.sikeller.aqs.model.events.EventJournalReader;
+import de.sikeller.aqs.model.events.JournalRecord;
+import de.sikeller.aqs.simulation.HeadlessSimulationRunner;
+import de.sikeller.aqs.simulation.WorldGeneratorRandom;
+import de.sikeller.aqs.taxi.algorithm.TaxiAlgorithmFillAllSeats;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StatsCollectorTest {
+
+  @Test
+  void liveTravelTimesMatchEventsOfRuns(@TempDir Path directory) throws IOException {
+    var world = WorldObject.builder().maxX(10000).maxY(10000).build();
+    var runner =
+        new HeadlessSimulationRunner(
+            world, new Algorithm(new TaxiAlgorithmFillAllSeats()), new WorldGeneratorRandom());
+
+    // the second run checks that the collector starts over and is registered only once
+    for (int seed = 1; seed <= 2; seed++) {
+      var journal = directory.resolve("events" + seed);
+      runner.setEventJournal(journal);
+      var result = runner.run(parameters(seed));
+      assertTrue(result.finished());
+
+      var expected = CollectorMinMaxAverage.longCollector();
+      var histogram = new LatencyHistogram();
+      try (var reader = EventJournalReader.open(journal)) {
+        reader.stream()
+            .filter(r -> r.type() == JournalRecord.Type.CLIENT_FINISHED)
+            .forEach(
+                r -> {
+                  expected.collect(r.travelTime());
+                  histogram.record(r.travelTime());
+                });
+      }
+      var travelTime = expected.result();
+      assertEquals(world.getClientView().size(), travelTime.count());
+      assertEquals(travelTime, runner.getStatsCollector().getClientTravelTime());
+
+      var row = runner.getStatsCollector().tableResults().getData()[1];
+      assertEquals(travelTime.min(), row[1]);
+      assertEquals(travelTime.max(), row[2]);
+      assertEquals(travelTime.sum(), row[4]);
+      for (int i = 0; i < StatsCollector.PERCENTILES.length; i++) {
+        assertEquals(histogram.percentile(StatsCollector.PERCENTILES[i]), row[5 + i]);
+      }
+      assertEquals((long) travelTime.count(), row[row.length - 3]);
+      assertEquals(seed, row[row.length - 1]);
+    }
+  }
+
+  private static Map<String, Integer> parameters(int seed) {
+    var parameters = new HashMap<String, Integer>();
+    parameters.put("worldSeed", seed);
+    parameters.put("taxiCount", 20);
+    parameters.put("clientCount", 200);
+    parameters.put("clientSpawnWindow", 500);
+    parameters.put(HeadlessSimulationRunner.PARAMETER_EVENT_DRIVEN, 1);
+    return parameters;
+  }
+}
@@ -0,0 +1,23 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import de.sikeller.aqs.model.*;
+import java.util.Collection;
+
+/**
+ * Base of the algorithms which group waiting clients with near targets into one taxi. In a batch
+ * the targets of the waiting clients are indexed once, so the clients which are grouped with an
+ * assigned client are found without scanning the waiting clients again.
+ */
+public abstract class AbstractGroupingTaxiAlgorithm extends AbstractTaxiAlgorithm {
+  /**
+   * The waiting clients of the current batch by their targets. Assigned clients have to be removed
+   * by {@link #assignBatchClient}.
+   */
+  protected SpatialGrid<Client> waitingTargets;
+
+  @Override
+  protected AlgorithmResult nextBatch(World world, Collection<Client> waitingClients) {
+    waitingTargets = createClientIndex(world, waitingClients, Entity::getTarget);
+    return super.nextBatch(world, waitingClients);
+  }
+}
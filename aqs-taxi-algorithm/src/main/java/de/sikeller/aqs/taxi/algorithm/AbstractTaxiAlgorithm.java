@@ -5,10 +5,20 @@ import static de.sikeller.aqs.model.ClientMode.WAITING;
 import de.sikeller.aqs.model.*;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public abstract class AbstractTaxiAlgorithm extends AbstractAlgorithm {
+  /** Assign all waiting clients in one step -> 0 = no 1 = yes, see {@link #nextBatch}. */
+  protected static final String PARAMETER_BATCH_ASSIGNMENT = "BatchAssignment";
+
+  /** The parameters set by {@link #setParameters} or null if they are not set yet. */
+  protected Map<String, Integer> parameters;
 
   protected abstract AlgorithmResult nextStep(World world, Collection<Client> waitingClients);
 
@@ -16,18 +26,171 @@ public abstract class AbstractTaxiAlgorithm extends AbstractAlgorithm {
   public AlgorithmResult nextStep(World world) {
     var waitingClients = getClientsByModes(world, Set.of(WAITING));
     if (waitingClients.isEmpty()) return stop("No clients waiting for a taxi.");
+    if (isBatchAssignment()) return nextBatch(world, waitingClients);
     return nextStep(world, waitingClients);
   }
 
+  @Override
+  public void setParameters(Map<String, Integer> parameters) {
+    this.parameters = parameters;
+  }
+
+  /**
+   * Returns the value of a parameter of the algorithm.
+   *
+   * @param name the name of the parameter
+   * @param defaultValue the value if the parameter is not set
+   * @return the value of the parameter
+   */
+  protected int getParameter(String name, int defaultValue) {
+    return parameters == null ? defaultValue : parameters.getOrDefault(name, defaultValue);
+  }
+
+  /**
+   * Returns true if the algorithm assigns all waiting clients in one step with {@link #nextBatch}
+   * instead of one client per step. Algorithms which support the batch assignment offer the
+   * parameter {@value #PARAMETER_BATCH_ASSIGNMENT}.
+   */
+  protected boolean isBatchAssignment() {
+    return getParameter(PARAMETER_BATCH_ASSIGNMENT, 0) != 0;
+  }
+
+  /**
+   * Assign all waiting clients in one step. The empty taxis are collected once into a spatial index
+   * from which assigned taxis are removed, so every client finds its nearest empty taxi without
+   * scanning the taxis again. The clients are assigned in the order of {@link #orderBatch} by
+   * {@link #assignBatchClient} until no empty taxi is left. Clients which are not waiting anymore,
+   * e.g. because they were planned together with an earlier client, are skipped.
+   *
+   * @param world the current world
+   * @param waitingClients the waiting clients
+   * @return the result of the step
+   */
+  protected AlgorithmResult nextBatch(World world, Collection<Client> waitingClients) {
+    var emptyTaxis = createTaxiIndex(world, Taxi::isEmpty);
+    if (emptyTaxis.getSize() == 0) return stop("No taxis with capacity found.");
+    int assigned = 0;
+    for (Client client : orderBatch(waitingClients)) {
+      if (emptyTaxis.getSize() == 0) break;
+      if (!client.isWaiting()) continue;
+      var taxi = emptyTaxis.findNearest(client.getPosition(), t -> true).v1();
+      emptyTaxis.remove(taxi);
+      assignBatchClient(world, taxi, client);
+      assigned++;
+    }
+    log.debug("Assigned {} of {} waiting clients to empty taxis", assigned, waitingClients.size());
+    return ok();
+  }
+
+  /**
+   * Returns the waiting clients in the order in which {@link #nextBatch} assigns them.
+   *
+   * @param waitingClients the waiting clients
+   * @return the clients in the order of the assignment
+   */
+  protected Collection<Client> orderBatch(Collection<Client> waitingClients) {
+    return waitingClients;
+  }
+
+  /**
+   * Assign a client of a batch to its nearest empty taxi.
+   *
+   * @param world the current world
+   * @param taxi the nearest empty taxi
+   * @param client the client
+   */
+  protected void assignBatchClient(World world, Taxi taxi, Client client) {
+    world.mutate().planClientForTaxi(taxi, client, TargetList.sequentialOrders);
+    log.debug("Taxi {} plan client {}", taxi.getName(), client.getName());
+  }
+
+  /**
+   * Create a spatial index of the taxis which match a filter, e.g. as candidates of a batch.
+   *
+   * @param world the current world
+   * @param filter only taxis matching this filter are indexed
+   * @return the index of the taxis
+   */
+  protected SpatialGrid<Taxi> createTaxiIndex(World world, Predicate<Taxi> filter) {
+    var taxis = world.getTaxiView().stream().filter(filter).toList();
+    var index = new SpatialGrid<Taxi>(world.getMaxX(), world.getMaxY(), cellSize(world, taxis));
+    taxis.forEach(index::add);
+    return index;
+  }
+
+  /**
+   * Create a spatial index of clients by a position of the clients, e.g. their targets.
+   *
+   * @param world the current world
+   * @param clients the clients to index
+   * @param positionFunction the function which returns the indexed position of a client
+   * @return the index of the clients
+   */
+  protected SpatialGrid<Client> createClientIndex(
+      World world, Collection<Client> clients, Function<Entity, Position> positionFunction) {
+    var index =
+        new SpatialGrid<Client>(
+            world.getMaxX(), world.getMaxY(), cellSize(world, clients), positionFunction);
+    clients.forEach(index::add);
+    return index;
+  }
+
+  /** Returns a cell size with about one entity per cell. */
+  private static int cellSize(World world, Collection<?> entities) {
+    double area = (double) world.getMaxX() * world.getMaxY();
+    return (int) Math.max(1, Math.sqrt(area / Math.max(1, entities.size())));
+  }
+
   protected Collection<Client> getClientsByModes(World world, Set<ClientMode> modes) {
     return world.getClientsByModes(modes, true);
   }
 
-  protected Set<Taxi> getTaxisWithCapacity(World world) {
-    return world.getTaxis().stream().filter(Taxi::hasCapacity).collect(Collectors.toSet());
+  protected List<Taxi> getTaxisWithCapacity(World world) {
+    return world.getTaxiView().stream().filter(Taxi::hasCapacity).toList();
+  }
+
+  protected List<Taxi> getEmptyTaxis(World world) {
+    return world.getTaxiView().stream().filter(Taxi::isEmpty).toList();
+  }
+
+  /**
+   * Find the first taxi with capacity without collecting all of them.
+   *
+   * @param world the current world
+   * @return the first taxi with capacity or null if all taxis are full
+   */
+  protected Taxi findTaxiWithCapacity(World world) {
+    for (Taxi taxi : world.getTaxiView()) {
+      if (taxi.hasCapacity()) return taxi;
+    }
+    return null;
+  }
+
+  /**
+   * Find the nearest empty taxi to a position using the spatial index of the world.
+   *
+   * @param world the current world
+   * @param position the position to which to find the nearest taxi
+   * @return the nearest empty taxi or null if there is no empty taxi
+   */
+  protected Taxi findNearestEmptyTaxi(World world, Position position) {
+    var nearest = world.findNearestTaxis(position, 1, Taxi::isEmpty);
+    return nearest.isEmpty() ? null : nearest.getFirst().v1();
   }
 
-  protected Set<Taxi> getEmptyTaxis(World world) {
-    return world.getTaxis().stream().filter(Taxi::isEmpty).collect(Collectors.toSet());
+  /**
+   * Find the nearest spawned and waiting clients to a position using the spatial index of the
+   * world.
+   *
+   * @param world the current world
+   * @param position the position to which to find the nearest clients
+   * @param count the maximum number of clients to return
+   * @return a list of tuples containing the client and its distance, sorted by the distance
+   */
+  protected List<Tuple<Client, Double>> findNearestWaitingClients(
+      World world, Position position, int count) {
+    long currentTime = world.getCurrentTime();
+    return world.findNearestClients(
+        position, count, client -> client.isWaiting() && client.isSpawned(currentTime));
   }
 }
@@ -0,0 +1,145 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import de.sikeller.aqs.model.Position;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import lombok.Getter;
+
+/**
+ * The rounded distances between the nodes of a routing model, cached from step to step. Every node
+ * is identified by a key (e.g. the start of a client) and keeps its slot in the matrix as long as
+ * the key is part of the model, so an update only calculates the rows of the nodes which are new or
+ * whose position changed. Large updates are calculated in parallel.
+ *
+ * <p>The distances are symmetric and stored as ints in a triangular layout, which needs a quarter
+ * of the memory of a dense matrix of longs. A node without position (e.g. a virtual depot) has the
+ * distance 0 to every other node.
+ */
+class DistanceMatrix {
+  static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  /** The maximum number of slots whose triangular matrix fits into an array. */
+  static final int MAX_SLOTS = 65535;
+
+  private final Map<String, Integer> slots = new HashMap<>();
+  private final Deque<Integer> freeSlots = new ArrayDeque<>();
+  private Position[] slotPositions = new Position[0];
+  private int[] slotGenerations = new int[0];
+  private int slotCount = 0;
+  private int generation = 0;
+  private int[] distances = new int[0];
+  private int[] nodeSlots = new int[0];
+
+  /** The number of rows calculated by the last update. */
+  @Getter private int calculatedRows = 0;
+
+  /**
+   * Update the matrix to the nodes of the next model. Slots of keys which are not part of the new
+   * nodes are released and reused for new keys.
+   *
+   * @param keys the unique keys of the nodes
+   * @param positions the positions of the nodes, null for nodes without position
+   */
+  void update(String[] keys, Position[] positions) {
+    int nodeCount = keys.length;
+    generation++;
+    nodeSlots = nodeSlots.length >= nodeCount ? nodeSlots : new int[nodeCount];
+
+    // keep the slots of known keys and release the slots of removed keys
+    for (int i = 0; i < nodeCount; i++) {
+      Integer slot = slots.get(keys[i]);
+      nodeSlots[i] = slot != null ? slot : -1;
+      if (slot != null) slotGenerations[slot] = generation;
+    }
+    slots
+        .values()
+        .removeIf(
+            slot -> {
+              if (slotGenerations[slot] == generation) return false;
+              freeSlots.push(slot);
+              return true;
+            });
+
+    // assign slots to new keys and collect the slots whose position changed
+    int[] changed = new int[nodeCount];
+    int changedCount = 0;
+    for (int i = 0; i < nodeCount; i++) {
+      boolean isNew = nodeSlots[i] < 0;
+      if (isNew) {
+        nodeSlots[i] = freeSlots.isEmpty() ? newSlot() : freeSlots.pop();
+        slots.put(keys[i], nodeSlots[i]);
+      }
+      int slot = nodeSlots[i];
+      slotGenerations[slot] = generation;
+      if (isNew || !Objects.equals(slotPositions[slot], positions[i])) {
+        slotPositions[slot] = positions[i];
+        changed[changedCount++] = slot;
+      }
+    }
+
+    // mark the changed slots with the negative generation, so every distance between two changed
+    // slots is calculated once
+    for (int k = 0; k < changedCount; k++) {
+      slotGenerations[changed[k]] = -generation;
+    }
+    calculatedRows = changedCount;
+    if ((long) changedCount * slotCount < PARALLEL_THRESHOLD) {
+      for (int k = 0; k < changedCount; k++) {
+        calculateRow(changed[k]);
+      }
+    } else {
+      IntStream.range(0, changedCount).parallel().forEach(k -> calculateRow(changed[k]));
+    }
+  }
+
+  /**
+   * Returns the rounded distance between two nodes of the last update.
+   *
+   * @param fromNode the index of the first node
+   * @param toNode the index of the second node
+   * @return the distance
+   */
+  long distance(int fromNode, int toNode) {
+    return distances[index(nodeSlots[fromNode], nodeSlots[toNode])];
+  }
+
+  private int newSlot() {
+    int slot = slotCount++;
+    if (slot >= MAX_SLOTS) {
+      throw new IllegalStateException("Too many nodes for the distance matrix: " + slotCount);
+    }
+    if (slot >= slotPositions.length) {
+      int capacity = (int) Math.min(MAX_SLOTS, Math.max(16, 2L * slotPositions.length));
+      slotPositions = Arrays.copyOf(slotPositions, capacity);
+      slotGenerations = Arrays.copyOf(slotGenerations, capacity);
+      // the rows of the triangular layout do not depend on the capacity
+      distances = Arrays.copyOf(distances, index(capacity - 1, capacity - 1) + 1);
+    }
+    return slot;
+  }
+
+  private void calculateRow(int slot) {
+    var position = slotPositions[slot];
+    for (int other = 0; other < slotCount; other++) {
+      // the distance between two changed slots is calculated by the row of the smaller slot
+      if (other < slot && slotGenerations[other] == -generation) continue;
+      var otherPosition = slotPositions[other];
+      boolean isVirtual = position == null || otherPosition == null;
+      distances[index(slot, other)] =
+          isVirtual
+              ? 0
+              : (int) Math.min(Integer.MAX_VALUE, Math.round(position.distance(otherPosition)));
+    }
+  }
+
+  private static int index(int slot, int other) {
+    int high = Math.max(slot, other);
+    int low = Math.min(slot, other);
+    return (int) ((long) high * (high + 1) / 2 + low);
+  }
+}
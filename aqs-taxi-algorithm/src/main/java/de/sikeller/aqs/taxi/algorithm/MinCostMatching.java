@@ -0,0 +1,217 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * A minimum cost matching of a sparse bipartite graph of rows (e.g. clients) and columns (e.g.
+ * taxis), solved with successive shortest augmenting paths. The edges are given in a compressed
+ * layout: the edges of row <code>r</code> are the indices <code>edgeStarts[r]</code> (inclusive) to
+ * <code>edgeStarts[r + 1]</code> (exclusive) of the edge columns and costs.
+ *
+ * <p>The rows are augmented one after the other in their order. Every augmentation searches the
+ * shortest path from the row to a free column with Dijkstra on reduced costs, which stops at the
+ * first free column, so it only looks at the part of the graph around the row. The potentials of
+ * the nodes keep the reduced costs non-negative, so after every augmentation the matching has the
+ * minimum cost of all matchings of the augmented rows. A row is only left unmatched if it has no
+ * augmenting path. Nodes which can not reach a free column are skipped by all later searches, so
+ * the matching has the maximum cardinality and earlier rows are never dropped for later ones.
+ *
+ * <p>All data is kept in primitive arrays, so the matching of large graphs does not create objects
+ * per node or edge.
+ */
+class MinCostMatching {
+  private final int rowCount;
+  private final int columnCount;
+  private final int[] edgeStarts;
+  private final int[] edgeColumns;
+  private final long[] edgeCosts;
+
+  /** The nodes are the rows followed by the columns. */
+  private final long[] potentials;
+
+  private final long[] distances;
+  private final int[] settled;
+  private final boolean[] dead;
+  private final int[] columnRows;
+  private final long[] columnCosts;
+  private final int[] rowColumns;
+  private final int[] previousRows;
+  private final long[] previousCosts;
+  private int[] touched;
+  private int touchedCount = 0;
+  private int search = 0;
+
+  // a binary min heap of nodes by their distance, which may contain outdated entries
+  private long[] heapDistances = new long[16];
+  private int[] heapNodes = new int[16];
+  private int heapSize = 0;
+
+  /** The total cost of the matched edges. */
+  @Getter private long cost = 0;
+
+  /** The number of matched rows. */
+  @Getter private int matchedCount = 0;
+
+  /**
+   * Create the matching problem of a graph.
+   *
+   * @param rowCount the number of rows
+   * @param columnCount the number of columns
+   * @param edgeStarts the index of the first edge of every row and the number of edges at the end
+   * @param edgeColumns the column of every edge
+   * @param edgeCosts the non-negative cost of every edge
+   */
+  MinCostMatching(
+      int rowCount, int columnCount, int[] edgeStarts, int[] edgeColumns, long[] edgeCosts) {
+    this.rowCount = rowCount;
+    this.columnCount = columnCount;
+    this.edgeStarts = edgeStarts;
+    this.edgeColumns = edgeColumns;
+    this.edgeCosts = edgeCosts;
+    int nodeCount = rowCount + columnCount;
+    this.potentials = new long[nodeCount];
+    this.distances = new long[nodeCount];
+    this.settled = new int[nodeCount];
+    this.dead = new boolean[nodeCount];
+    this.touched = new int[16];
+    this.columnRows = new int[columnCount];
+    this.columnCosts = new long[columnCount];
+    this.rowColumns = new int[rowCount];
+    this.previousRows = new int[columnCount];
+    this.previousCosts = new long[columnCount];
+    Arrays.fill(distances, Long.MAX_VALUE);
+    Arrays.fill(columnRows, -1);
+    Arrays.fill(rowColumns, -1);
+  }
+
+  /**
+   * Match the rows to the columns.
+   *
+   * @return the matched column of every row or -1 if the row is not matched
+   */
+  int[] solve() {
+    for (int row = 0; row < rowCount && matchedCount < columnCount; row++) {
+      if (augment(row)) matchedCount++;
+    }
+    return rowColumns;
+  }
+
+  /** Search the shortest augmenting path from a free row and augment the matching along it. */
+  private boolean augment(int source) {
+    search++;
+    touchedCount = 0;
+    heapSize = 0;
+    relax(source, 0);
+    int target = -1;
+    long targetDistance = 0;
+    while (heapSize > 0) {
+      long distance = heapDistances[0];
+      int node = pop();
+      if (settled[node] == search || distance > distances[node]) continue;
+      settled[node] = search;
+      if (node >= rowCount) {
+        int column = node - rowCount;
+        int matchedRow = columnRows[column];
+        if (matchedRow < 0) {
+          target = column;
+          targetDistance = distance;
+          break;
+        }
+        // the matched edge back to its row, which is tight
+        relax(
+            matchedRow, distance - columnCosts[column] + potentials[node] - potentials[matchedRow]);
+      } else {
+        for (int edge = edgeStarts[node]; edge < edgeStarts[node + 1]; edge++) {
+          int column = edgeColumns[edge];
+          int columnNode = rowCount + column;
+          if (column == rowColumns[node] || dead[columnNode]) continue;
+          long reducedCost = edgeCosts[edge] + potentials[node] - potentials[columnNode];
+          if (relax(columnNode, distance + reducedCost)) {
+            previousRows[column] = node;
+            previousCosts[column] = edgeCosts[edge];
+          }
+        }
+      }
+    }
+
+    if (target < 0) {
+      // the settled nodes can not reach a free column, neither now nor after later augmentations
+      for (int i = 0; i < touchedCount; i++) {
+        int node = touched[i];
+        if (settled[node] == search) dead[node] = true;
+        distances[node] = Long.MAX_VALUE;
+      }
+      return false;
+    }
+
+    // keep the reduced costs non-negative and the edges of the shortest path tight
+    for (int i = 0; i < touchedCount; i++) {
+      int node = touched[i];
+      if (settled[node] == search && distances[node] < targetDistance) {
+        potentials[node] += distances[node] - targetDistance;
+      }
+      distances[node] = Long.MAX_VALUE;
+    }
+
+    int column = target;
+    while (true) {
+      int row = previousRows[column];
+      int nextColumn = rowColumns[row];
+      if (nextColumn >= 0) cost -= columnCosts[nextColumn];
+      rowColumns[row] = column;
+      columnRows[column] = row;
+      columnCosts[column] = previousCosts[column];
+      cost += previousCosts[column];
+      if (row == source) return true;
+      column = nextColumn;
+    }
+  }
+
+  private boolean relax(int node, long distance) {
+    if (distance >= distances[node]) return false;
+    if (distances[node] == Long.MAX_VALUE) {
+      if (touchedCount == touched.length) touched = Arrays.copyOf(touched, 2 * touchedCount);
+      touched[touchedCount++] = node;
+    }
+    distances[node] = distance;
+    push(node, distance);
+    return true;
+  }
+
+  private void push(int node, long distance) {
+    if (heapSize == heapNodes.length) {
+      heapNodes = Arrays.copyOf(heapNodes, 2 * heapSize);
+      heapDistances = Arrays.copyOf(heapDistances, 2 * heapSize);
+    }
+    int i = heapSize++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (heapDistances[parent] <= distance) break;
+      heapNodes[i] = heapNodes[parent];
+      heapDistances[i] = heapDistances[parent];
+      i = parent;
+    }
+    heapNodes[i] = node;
+    heapDistances[i] = distance;
+  }
+
+  private int pop() {
+    int node = heapNodes[0];
+    int lastNode = heapNodes[--heapSize];
+    long lastDistance = heapDistances[heapSize];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= heapSize) break;
+      if (child + 1 < heapSize && heapDistances[child + 1] < heapDistances[child]) child++;
+      if (heapDistances[child] >= lastDistance) break;
+      heapNodes[i] = heapNodes[child];
+      heapDistances[i] = heapDistances[child];
+      i = child;
+    }
+    heapNodes[i] = lastNode;
+    heapDistances[i] = lastDistance;
+    return node;
+  }
+}
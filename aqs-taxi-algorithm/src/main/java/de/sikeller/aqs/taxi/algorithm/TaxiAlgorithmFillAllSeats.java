@@ -4,7 +4,6 @@ import de.sikeller.aqs.model.*;
 import de.sikeller.aqs.model.AlgorithmResult;
 
 import java.util.Collection;
-import java.util.Map;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -13,13 +12,8 @@ import lombok.extern.slf4j.Slf4j;
 @Getter
 public class TaxiAlgorithmFillAllSeats extends AbstractTaxiAlgorithm implements TaxiAlgorithm {
 
-  private Map<String, Integer> parameters;
   private final String name = "FillAllSeats";
 
-  public void setParameters(Map<String, Integer> parameters) {
-    this.parameters = parameters;
-  }
-
   @Override
   public SimulationConfiguration getParameters() {
     return new SimulationConfiguration();
@@ -27,11 +21,10 @@ public class TaxiAlgorithmFillAllSeats extends AbstractTaxiAlgorithm implements
 
   @Override
   public AlgorithmResult nextStep(World world, Collection<Client> waitingClients) {
-    var taxiCandidates = getTaxisWithCapacity(world);
-    if (taxiCandidates.isEmpty()) return stop("No taxis with capacity found.");
-    var nextTaxi = taxiCandidates.iterator().next();
+    var nextTaxi = findTaxiWithCapacity(world);
+    if (nextTaxi == null) return stop("No taxis with capacity found.");
     var capacity = nextTaxi.getCurrentCapacity();
-    var nearestClients = EntityUtils.sortByNearest(nextTaxi.getPosition(), waitingClients);
+    var nearestClients = findNearestWaitingClients(world, nextTaxi.getPosition(), capacity);
 
     for (int taxiSeat = 0; taxiSeat < capacity && taxiSeat < nearestClients.size(); taxiSeat++) {
       var nextClient = nearestClients.get(taxiSeat).v1();
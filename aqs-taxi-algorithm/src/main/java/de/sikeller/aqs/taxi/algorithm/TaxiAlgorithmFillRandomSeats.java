@@ -3,7 +3,6 @@ package de.sikeller.aqs.taxi.algorithm;
 import de.sikeller.aqs.model.*;
 
 import java.util.Collection;
-import java.util.Map;
 import java.util.Random;
 
 import lombok.Getter;
@@ -13,13 +12,8 @@ import lombok.extern.slf4j.Slf4j;
 @Getter
 public class TaxiAlgorithmFillRandomSeats extends AbstractTaxiAlgorithm implements TaxiAlgorithm {
 
-  private Map<String, Integer> parameters;
   private final String name = "FillRandomSeats";
 
-  public void setParameters(Map<String, Integer> parameters) {
-    this.parameters = parameters;
-  }
-
   @Override
   public SimulationConfiguration getParameters() {
     return new SimulationConfiguration(
@@ -29,15 +23,14 @@ public class TaxiAlgorithmFillRandomSeats extends AbstractTaxiAlgorithm implemen
 
   @Override
   public AlgorithmResult nextStep(World world, Collection<Client> waitingClients) {
-    var taxiCandidates = getTaxisWithCapacity(world);
-    if (taxiCandidates.isEmpty()) return stop("No taxis with capacity found.");
-    var nextTaxi = taxiCandidates.iterator().next();
+    var nextTaxi = findTaxiWithCapacity(world);
+    if (nextTaxi == null) return stop("No taxis with capacity found.");
     var capacity =
         (int)
             (new Random(parameters.get("SeatRandomizationSeed")).nextFloat()
                     * nextTaxi.getCurrentCapacity()
                 + 1);
-    var nearestClients = EntityUtils.sortByNearest(nextTaxi.getPosition(), waitingClients);
+    var nearestClients = findNearestWaitingClients(world, nextTaxi.getPosition(), capacity);
 
     for (int taxiSeat = 0; taxiSeat < capacity && taxiSeat < nearestClients.size(); taxiSeat++) {
       var nextClient = nearestClients.get(taxiSeat).v1();
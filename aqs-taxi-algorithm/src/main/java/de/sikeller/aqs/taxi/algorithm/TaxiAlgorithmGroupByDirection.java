@@ -3,7 +3,6 @@ package de.sikeller.aqs.taxi.algorithm;
 import de.sikeller.aqs.model.*;
 
 import java.util.Collection;
-import java.util.Map;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -12,56 +11,69 @@ import lombok.extern.slf4j.Slf4j;
 @Getter
 public class TaxiAlgorithmGroupByDirection extends AbstractTaxiAlgorithm implements TaxiAlgorithm {
 
-  private Map<String, Integer> parameters;
   private final String name = "GroupByDirection";
 
-  public void setParameters(Map<String, Integer> parameters) {
-    this.parameters = parameters;
-  }
-
   @Override
   public SimulationConfiguration getParameters() {
     return new SimulationConfiguration(
-        new AlgorithmParameter("DetectionRadius"), new AlgorithmParameter("MaxDegree"));
+        new AlgorithmParameter("DetectionRadius"),
+        new AlgorithmParameter("MaxDegree"),
+        new AlgorithmParameter(PARAMETER_BATCH_ASSIGNMENT, 0));
   }
 
   @Override
   public AlgorithmResult nextStep(World world, Collection<Client> waitingClients) {
     var nextClient = waitingClients.iterator().next();
 
-    var taxiCandidates = getEmptyTaxis(world);
-    if (taxiCandidates.isEmpty()) return stop("No taxis with capacity found.");
-
-    var nearestTaxiWithCapacity =
-        EntityUtils.findNearestNeighbor(nextClient.getPosition(), taxiCandidates);
-    if (nearestTaxiWithCapacity == null) return fail("No nearest taxi found.");
+    Taxi nearestTaxi = findNearestEmptyTaxi(world, nextClient.getPosition());
+    if (nearestTaxi == null) return stop("No taxis with capacity found.");
 
-    Taxi nearestTaxi = nearestTaxiWithCapacity.v1();
+    planWithSameDirection(world, nearestTaxi, nextClient, waitingClients);
+    return ok();
+  }
 
-    world.mutate().planClientForTaxi(nearestTaxi, nextClient, TargetList.mergeOrders);
+  @Override
+  protected void assignBatchClient(World world, Taxi taxi, Client client) {
+    // search for others with same direction near the client by the spatial index of the world
+    long currentTime = world.getCurrentTime();
+    var nearClients =
+        world.findClientsInRadius(
+            client.getPosition(),
+            parameters.get("DetectionRadius"),
+            other -> other.isWaiting() && other.isSpawned(currentTime));
+    planWithSameDirection(world, taxi, client, nearClients);
+  }
 
-    log.debug("Taxi {} plan client {}", nearestTaxi.getName(), nextClient.getName());
-    var direction = nextClient.getPosition().calculateAngle(nextClient.getTarget());
+  /**
+   * Plan a client for a taxi together with the other clients which move in the same direction and
+   * wait near the client, until the taxi is full.
+   *
+   * @param world the current world
+   * @param taxi the taxi
+   * @param client the client
+   * @param candidates the waiting clients which can share the taxi with the client
+   */
+  private void planWithSameDirection(
+      World world, Taxi taxi, Client client, Collection<Client> candidates) {
+    world.mutate().planClientForTaxi(taxi, client, TargetList.mergeOrders);
+    log.debug("Taxi {} plan client {}", taxi.getName(), client.getName());
+    var direction = client.getPosition().calculateAngle(client.getTarget());
 
     // search for others with same direction
-    var clientsOrderedBySameTarget =
+    var clientsOrderedByDirection =
         EntityUtils.sortBy(
-            waitingClients, entity -> entity.getPosition().calculateAngle(entity.getTarget()));
-    for (Tuple<Client, Double> otherClient : clientsOrderedBySameTarget) {
-      if (!nearestTaxi.hasCapacity()) {
+            candidates, entity -> entity.getPosition().calculateAngle(entity.getTarget()));
+    for (Tuple<Client, Double> otherClient : clientsOrderedByDirection) {
+      if (!taxi.hasCapacity()) {
         break;
       }
-      // todo this number should be configurable by parameter:
-      if (!otherClient.v1().equals(nextClient)
+      if (!otherClient.v1().equals(client)
           && isDifferenceSmallerThan(direction, otherClient.v2(), parameters.get("MaxDegree"))
-          && nextClient.getPosition().distance(otherClient.v1().getPosition())
+          && client.getPosition().distance(otherClient.v1().getPosition())
               < parameters.get("DetectionRadius")) {
-        Client client = otherClient.v1();
-        world.mutate().planClientForTaxi(nearestTaxi, client, TargetList.mergeOrders);
+        world.mutate().planClientForTaxi(taxi, otherClient.v1(), TargetList.mergeOrders);
       }
     }
-
-    return ok();
   }
 
   /**
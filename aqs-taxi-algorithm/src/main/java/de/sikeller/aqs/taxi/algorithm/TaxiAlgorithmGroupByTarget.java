@@ -3,39 +3,30 @@ package de.sikeller.aqs.taxi.algorithm;
 import de.sikeller.aqs.model.*;
 
 import java.util.Collection;
-import java.util.Map;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Getter
-public class TaxiAlgorithmGroupByTarget extends AbstractTaxiAlgorithm implements TaxiAlgorithm {
+public class TaxiAlgorithmGroupByTarget extends AbstractGroupingTaxiAlgorithm
+    implements TaxiAlgorithm {
 
-  private Map<String, Integer> parameters;
   private final String name = "GroupByTarget";
 
-  public void setParameters(Map<String, Integer> parameters) {
-    this.parameters = parameters;
-  }
-
   @Override
   public SimulationConfiguration getParameters() {
-    return new SimulationConfiguration(new AlgorithmParameter("DetectionRadius"));
+    return new SimulationConfiguration(
+        new AlgorithmParameter("DetectionRadius"),
+        new AlgorithmParameter(PARAMETER_BATCH_ASSIGNMENT, 0));
   }
 
   @Override
   public AlgorithmResult nextStep(World world, Collection<Client> waitingClients) {
     var nextClient = waitingClients.iterator().next();
 
-    var taxiCandidates = getEmptyTaxis(world);
-    if (taxiCandidates.isEmpty()) return stop("No taxis with capacity found.");
-
-    var nearestTaxiWithCapacity =
-        EntityUtils.findNearestNeighbor(nextClient.getPosition(), taxiCandidates);
-    if (nearestTaxiWithCapacity == null) return fail("No nearest taxi found.");
-
-    Taxi nearestTaxi = nearestTaxiWithCapacity.v1();
+    Taxi nearestTaxi = findNearestEmptyTaxi(world, nextClient.getPosition());
+    if (nearestTaxi == null) return stop("No taxis with capacity found.");
 
     world.mutate().planClientForTaxi(nearestTaxi, nextClient, TargetList.mergeOrders);
     log.debug("Taxi {} plan client {}", nearestTaxi.getName(), nextClient.getName());
@@ -57,4 +48,29 @@ public class TaxiAlgorithmGroupByTarget extends AbstractTaxiAlgorithm implements
 
     return ok();
   }
+
+  @Override
+  protected void assignBatchClient(World world, Taxi taxi, Client client) {
+    world.mutate().planClientForTaxi(taxi, client, TargetList.mergeOrders);
+    waitingTargets.remove(client);
+    log.debug("Taxi {} plan client {}", taxi.getName(), client.getName());
+
+    // the waiting clients with the same target and start, nearest targets first
+    int radius = parameters.get("DetectionRadius");
+    var sameTarget =
+        waitingTargets.findInRadius(
+            client.getTarget(),
+            radius,
+            other ->
+                other.isWaiting() && client.getPosition().distance(other.getPosition()) < radius);
+    var nearestByTarget =
+        EntityUtils.sortByNearest(client.getTarget(), sameTarget, Entity::getTarget);
+    for (Tuple<Client, Double> otherClient : nearestByTarget) {
+      if (!taxi.hasCapacity() || otherClient.v2() >= radius) {
+        break;
+      }
+      world.mutate().planClientForTaxi(taxi, otherClient.v1(), TargetList.mergeOrders);
+      waitingTargets.remove(otherClient.v1());
+    }
+  }
 }
@@ -2,7 +2,6 @@ package de.sikeller.aqs.taxi.algorithm;
 
 import de.sikeller.aqs.model.*;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
@@ -12,12 +11,19 @@ import java.util.*;
 public class TaxiAlgorithmLongestToShortestDistance extends AbstractTaxiAlgorithm
     implements TaxiAlgorithm {
 
-  @Setter private Map<String, Integer> parameters;
   private final String name = "LongestToShortestDistance";
 
   @Override
   public SimulationConfiguration getParameters() {
-    return new SimulationConfiguration();
+    return new SimulationConfiguration(new AlgorithmParameter(PARAMETER_BATCH_ASSIGNMENT, 0));
+  }
+
+  @Override
+  protected Collection<Client> orderBatch(Collection<Client> waitingClients) {
+    // the longest trips first, in the same order as one client per step
+    Comparator<Client> byDistance =
+        Comparator.comparingDouble(client -> client.getPosition().distance(client.getTarget()));
+    return waitingClients.stream().sorted(byDistance.reversed()).toList();
   }
 
   @Override
@@ -29,18 +35,10 @@ public class TaxiAlgorithmLongestToShortestDistance extends AbstractTaxiAlgorith
       if (distanceNewClient > distanceNextClient) nextClient = client;
     }
     //        var nextClient = distanceTracker.;
-    var taxiCanidates = getEmptyTaxis(world);
-    if (taxiCanidates.isEmpty()) {
+    Taxi nearestTaxi = findNearestEmptyTaxi(world, nextClient.getPosition());
+    if (nearestTaxi == null) {
       return stop("No taxis with capacity found");
     }
-
-    var nearestTaxiWithCapacity =
-        EntityUtils.findNearestNeighbor(nextClient.getPosition(), taxiCanidates);
-    if (nearestTaxiWithCapacity == null) {
-      return fail("No nearest taxi found");
-    }
-
-    Taxi nearestTaxi = nearestTaxiWithCapacity.v1();
     world.mutate().planClientForTaxi(nearestTaxi, nextClient, TargetList.sequentialOrders);
     log.debug("Taxi {} plan client {}", nearestTaxi.getName(), nextClient.getName());
 
@@ -0,0 +1,79 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import de.sikeller.aqs.model.*;
+import de.sikeller.aqs.model.AlgorithmResult;
+import java.util.*;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Assigns the waiting clients to the empty taxis with a minimum total pickup distance instead of
+ * the nearest taxi per client. Every client is only connected to its nearest empty taxis, so the
+ * matching works on a sparse graph and scales to large numbers of taxis and clients. If there are
+ * more clients than taxis, the clients which wait longer are preferred.
+ */
+@Slf4j
+@Getter
+public class TaxiAlgorithmMinCostMatching extends AbstractTaxiAlgorithm implements TaxiAlgorithm {
+  private static final String PARAMETER_CANDIDATES = "Candidates";
+  private final String name = "MinCostMatching";
+
+  @Override
+  public SimulationConfiguration getParameters() {
+    return new SimulationConfiguration(
+        // Number of nearest empty taxis which are candidates for a client
+        new AlgorithmParameter(PARAMETER_CANDIDATES, 8));
+  }
+
+  @Override
+  public AlgorithmResult nextStep(World world, Collection<Client> waitingClients) {
+    var emptyTaxis = createTaxiIndex(world, Taxi::isEmpty);
+    if (emptyTaxis.getSize() == 0) return stop("No taxis with capacity found.");
+    int candidates = Math.max(1, getParameter(PARAMETER_CANDIDATES, 8));
+
+    // the candidate graph of the clients (rows) and their nearest empty taxis (columns), the rows
+    // are matched in their order, so the clients which wait longer come first
+    List<Client> clients = new ArrayList<>(waitingClients);
+    clients.sort(Comparator.comparingLong(Client::getSpawnTime));
+    List<Taxi> taxis = new ArrayList<>();
+    Map<Taxi, Integer> taxiColumns = new HashMap<>();
+    int[] edgeStarts = new int[clients.size() + 1];
+    int[] edgeColumns = new int[clients.size() * Math.min(candidates, emptyTaxis.getSize())];
+    long[] edgeCosts = new long[edgeColumns.length];
+    int edge = 0;
+    for (int row = 0; row < clients.size(); row++) {
+      edgeStarts[row] = edge;
+      for (var candidate :
+          emptyTaxis.findNearest(clients.get(row).getPosition(), candidates, t -> true)) {
+        edgeColumns[edge] =
+            taxiColumns.computeIfAbsent(
+                candidate.v1(),
+                taxi -> {
+                  taxis.add(taxi);
+                  return taxis.size() - 1;
+                });
+        edgeCosts[edge] = Math.round(candidate.v2());
+        edge++;
+      }
+    }
+    edgeStarts[clients.size()] = edge;
+
+    var matching =
+        new MinCostMatching(clients.size(), taxis.size(), edgeStarts, edgeColumns, edgeCosts);
+    int[] rowColumns = matching.solve();
+    for (int row = 0; row < clients.size(); row++) {
+      if (rowColumns[row] < 0) continue;
+      world
+          .mutate()
+          .planClientForTaxi(
+              taxis.get(rowColumns[row]), clients.get(row), TargetList.sequentialOrders);
+    }
+    log.debug(
+        "Matched {} of {} waiting clients to {} empty taxis, pickup distance: {}",
+        matching.getMatchedCount(),
+        clients.size(),
+        emptyTaxis.getSize(),
+        matching.getCost());
+    return ok();
+  }
+}
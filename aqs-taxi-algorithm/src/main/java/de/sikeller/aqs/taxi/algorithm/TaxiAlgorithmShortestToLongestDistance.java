@@ -2,23 +2,29 @@ package de.sikeller.aqs.taxi.algorithm;
 
 import de.sikeller.aqs.model.*;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collection;
-import java.util.Map;
+import java.util.Comparator;
 
 @Slf4j
 @Getter
 public class TaxiAlgorithmShortestToLongestDistance extends AbstractTaxiAlgorithm
     implements TaxiAlgorithm {
 
-  @Setter private Map<String, Integer> parameters;
   private final String name = "ShortestToLongestDistance";
 
   @Override
   public SimulationConfiguration getParameters() {
-    return new SimulationConfiguration();
+    return new SimulationConfiguration(new AlgorithmParameter(PARAMETER_BATCH_ASSIGNMENT, 0));
+  }
+
+  @Override
+  protected Collection<Client> orderBatch(Collection<Client> waitingClients) {
+    // the shortest trips first, in the same order as one client per step
+    Comparator<Client> byDistance =
+        Comparator.comparingDouble(client -> client.getPosition().distance(client.getTarget()));
+    return waitingClients.stream().sorted(byDistance).toList();
   }
 
   @Override
@@ -30,18 +36,10 @@ public class TaxiAlgorithmShortestToLongestDistance extends AbstractTaxiAlgorith
       if (distanceNewClient < distanceNextClient) nextClient = client;
     }
     //        var nextClient = distanceTracker.;
-    var taxiCanidates = getEmptyTaxis(world);
-    if (taxiCanidates.isEmpty()) {
+    Taxi nearestTaxi = findNearestEmptyTaxi(world, nextClient.getPosition());
+    if (nearestTaxi == null) {
       return stop("No taxis with capacity found");
     }
-
-    var nearestTaxiWithCapacity =
-        EntityUtils.findNearestNeighbor(nextClient.getPosition(), taxiCanidates);
-    if (nearestTaxiWithCapacity == null) {
-      return fail("No nearest taxi found");
-    }
-
-    Taxi nearestTaxi = nearestTaxiWithCapacity.v1();
     world.mutate().planClientForTaxi(nearestTaxi, nextClient, TargetList.sequentialOrders);
     log.debug("Taxi {} plan client {}", nearestTaxi.getName(), nextClient.getName());
 
@@ -5,22 +5,32 @@ import com.google.ortools.constraintsolver.*;
 import com.google.protobuf.Duration;
 import de.sikeller.aqs.model.*;
 import de.sikeller.aqs.model.AlgorithmResult;
+import de.sikeller.aqs.taxi.algorithm.VehicleRoutingProblem.LockedStart;
+import de.sikeller.aqs.taxi.algorithm.VehicleRoutingProblem.TaxiRoute;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Getter
-@Setter
 public class TaxiAlgorithmVehicleRouting extends AbstractTaxiAlgorithm implements TaxiAlgorithm {
-  private static final String ENTITY_TYPE_CLIENT_START = "[start-%s]";
-  private static final String ENTITY_TYPE_CLIENT_TARGET = "[target-%s]";
-  private static final String ENTITY_TYPE_TAXI = "[taxiSpawn-%s]";
-  private static final String ENTITY_TYPE_DEPOT = "[taxiDepot]";
-  private Map<String, Integer> parameters;
+  private static final String PARAMETER_TIME_LIMIT = "TimeLimitMillis";
+  private static final String PARAMETER_FIRST_SOLUTION_STRATEGY = "FirstSolutionStrategy";
+  private static final String PARAMETER_LOCAL_SEARCH_METAHEURISTIC = "LocalSearchMetaheuristic";
+  private static final String PARAMETER_WARM_START = "WarmStart";
+  private static final String PARAMETER_ROLLING_HORIZON = "RollingHorizon";
+  private static final String PARAMETER_OPEN_STOPS = "OpenStops";
   private final String name = "VehicleRouting";
 
+  @Getter(AccessLevel.NONE)
+  private final VehicleRoutingProblem problem = new VehicleRoutingProblem();
+
+  // the client nodes of the last solution per taxi name, the initial solution of the next step
+  @Getter(AccessLevel.NONE)
+  private final Map<String, List<String>> previousRoutes = new HashMap<>();
+
   public TaxiAlgorithmVehicleRouting() {
     log.info("Load OR-Tools...");
     Loader.loadNativeLibraries();
@@ -28,192 +38,196 @@ public class TaxiAlgorithmVehicleRouting extends AbstractTaxiAlgorithm implement
 
   @Override
   public SimulationConfiguration getParameters() {
-    return new SimulationConfiguration();
+    return new SimulationConfiguration(
+        // Time limit of the solver per step
+        new AlgorithmParameter(PARAMETER_TIME_LIMIT, 10000),
+        // First solution strategy by its OR-Tools number, e.g. 3 = path cheapest arc,
+        // 8 = parallel cheapest insertion, 15 = automatic
+        new AlgorithmParameter(
+            PARAMETER_FIRST_SOLUTION_STRATEGY,
+            FirstSolutionStrategy.Value.PARALLEL_CHEAPEST_INSERTION_VALUE),
+        // Local search metaheuristic by its OR-Tools number, e.g. 0 = unset (greedy descent),
+        // 2 = guided local search, 3 = simulated annealing, 4 = tabu search
+        new AlgorithmParameter(
+            PARAMETER_LOCAL_SEARCH_METAHEURISTIC, LocalSearchMetaheuristic.Value.UNSET_VALUE),
+        // Start the solver from the routes of the previous step -> 0 = no 1 = yes
+        new AlgorithmParameter(PARAMETER_WARM_START, 1),
+        // Keep the planned routes and only optimize new clients and the last open stops of every
+        // route -> 0 = no 1 = yes
+        new AlgorithmParameter(PARAMETER_ROLLING_HORIZON, 0),
+        // Number of stops at the end of every route which the rolling horizon optimizes again
+        new AlgorithmParameter(PARAMETER_OPEN_STOPS, 4));
+  }
+
+  @Override
+  public void init(World world) {
+    previousRoutes.clear();
   }
 
   @Override
   public AlgorithmResult nextStep(World world, Collection<Client> waitingClients) {
-    var taxiCandidates = new LinkedList<>(world.getTaxis());
-    var taxiCandidatesCount = taxiCandidates.size();
+    var taxiCandidates = new ArrayList<>(world.getTaxis());
     if (taxiCandidates.isEmpty()) return stop("No taxis with capacity found.");
+    var lockedStarts = lockRoutes(taxiCandidates);
+    var notFinishedClients = getOpenClients(world, lockedStarts);
+    var searchParameters = createSearchParameters();
+    if (searchParameters == null) return fail("Unknown search strategy!");
+
+    var solution =
+        problem.solve(
+            taxiCandidates,
+            notFinishedClients,
+            searchParameters,
+            getWarmStartRoutes(),
+            lockedStarts);
+    if (solution == null) return fail("Can not find a solution!");
+    log.info(
+        "Solved {} clients with {} taxis in {} ms ({}), objective: {}",
+        notFinishedClients.size(),
+        taxiCandidates.size(),
+        TimeUnit.NANOSECONDS.toMillis(solution.solveTimeNanos()),
+        solution.warmStart() ? "warm start" : "cold start",
+        solution.objective());
+
+    planRoutes(world, solution.routes());
+    return ok(solution.solveTimeNanos());
+  }
 
-    var notFinishedClients =
-        new LinkedList<>(
-            getClientsByModes(
-                world, Set.of(ClientMode.WAITING, ClientMode.PLANNED, ClientMode.MOVING)));
-    var notFinishedClientsCount = notFinishedClients.size();
-
-    /* waiting client positions + client target positions + taxi positions + 1*depot */
-    int entityCount = 2 * notFinishedClientsCount + taxiCandidatesCount + 1;
-
-    String[] entityTypes = new String[entityCount];
-    Position[] entityPositions = new Position[entityCount];
-    int[] demands = new int[entityCount];
-    int[][] pickupDeliveries = new int[notFinishedClientsCount][2];
-    int i = 0;
-    int p = 0;
-    for (Client waitingClient : notFinishedClients) {
-      entityTypes[i] = ENTITY_TYPE_CLIENT_START.formatted(waitingClient.getName());
-      entityPositions[i] = waitingClient.getPosition();
-      demands[i] = 1;
-      pickupDeliveries[p][0] = i;
-      i++;
-      entityTypes[i] = ENTITY_TYPE_CLIENT_TARGET.formatted(waitingClient.getName());
-      entityPositions[i] = waitingClient.getTarget();
-      demands[i] = -1;
-      pickupDeliveries[p][1] = i;
-      i++;
-      p++;
-    }
-    int[] ends = new int[taxiCandidatesCount];
-    int[] starts = new int[taxiCandidatesCount];
-    long[] taxiCapacities = new long[taxiCandidatesCount];
-    int f = 0;
-    for (Taxi taxiCandidate : taxiCandidates) {
-      entityTypes[i] = ENTITY_TYPE_TAXI.formatted(taxiCandidate.getName());
-      entityPositions[i] = taxiCandidate.getPosition();
-      demands[i] = 0;
-      starts[f] = i;
-      // ends should be arbitrary - so set distance matrix to depot position (last entry) to which
-      // the distance is always zero:
-      ends[f] = entityCount - 1;
-      taxiCapacities[f] = taxiCandidate.getCapacity();
-      i++;
-      f++;
-    }
-    entityTypes[i] = ENTITY_TYPE_DEPOT;
-    entityPositions[i] = null;
-    demands[i] = 0;
-
-    long[][] distanceMatrix = createDistanceMatrix(entityPositions);
-
-    RoutingIndexManager manager =
-        new RoutingIndexManager(distanceMatrix.length, taxiCandidatesCount, starts, ends);
-
-    RoutingModel routing = new RoutingModel(manager);
-
-    final int transitCallbackIndex =
-        routing.registerTransitCallback(
-            (long fromIndex, long toIndex) -> {
-              int fromNode = manager.indexToNode(fromIndex);
-              int toNode = manager.indexToNode(toIndex);
-              return distanceMatrix[fromNode][toNode];
-            });
-    routing.setArcCostEvaluatorOfAllVehicles(transitCallbackIndex);
-    routing.addDimension(
-        transitCallbackIndex,
-        0, // no slack
-        400000, // todo max distance capa
-        true, // start cumul to zero
-        "Distance");
-
-    // add taxi capacity constraint:
-    final int loadCallbackIndex =
-        routing.registerUnaryTransitCallback((long index) -> demands[manager.indexToNode(index)]);
-    routing.addDimensionWithVehicleCapacity(
-        loadCallbackIndex,
-        0, // no slack
-        taxiCapacities,
-        true, // start cumul to zero
-        "Capacity");
-
-    RoutingDimension distanceDimension = routing.getMutableDimension("Distance");
-    distanceDimension.setGlobalSpanCostCoefficient(100);
-
-    Solver solver = routing.solver();
-    for (int[] request : pickupDeliveries) {
-      long pickupIndex = manager.nodeToIndex(request[0]);
-      long deliveryIndex = manager.nodeToIndex(request[1]);
-      routing.addPickupAndDelivery(pickupIndex, deliveryIndex);
-      // client has to be picked up and delivered by same taxi:
-      solver.addConstraint(
-          solver.makeEquality(routing.vehicleVar(pickupIndex), routing.vehicleVar(deliveryIndex)));
-      // client has to be picked up before delivery:
-      solver.addConstraint(
-          solver.makeLessOrEqual(
-              distanceDimension.cumulVar(pickupIndex), distanceDimension.cumulVar(deliveryIndex)));
+  protected List<Client> getNotFinishedClients(World world) {
+    return new ArrayList<>(
+        getClientsByModes(
+            world, Set.of(ClientMode.WAITING, ClientMode.PLANNED, ClientMode.MOVING)));
+  }
+
+  /**
+   * Lock the routes of the taxis for the rolling horizon. All stops of a route except the last open
+   * stops are locked, so the model only grows with the new clients and not with the routes.
+   *
+   * @param taxis the taxis
+   * @return the locked starts of the routes per taxi or null if the rolling horizon is disabled
+   */
+  protected Map<Taxi, LockedStart> lockRoutes(Collection<Taxi> taxis) {
+    if (getParameter(PARAMETER_ROLLING_HORIZON, 0) == 0) return null;
+    int openStops = getParameter(PARAMETER_OPEN_STOPS, 4);
+    Map<Taxi, LockedStart> lockedStarts = new HashMap<>();
+    for (Taxi taxi : taxis) {
+      lockedStarts.put(taxi, LockedStart.of(taxi, openStops));
     }
+    return lockedStarts;
+  }
 
-    RoutingSearchParameters searchParameters =
-        main.defaultRoutingSearchParameters().toBuilder()
-            .setFirstSolutionStrategy(FirstSolutionStrategy.Value.PARALLEL_CHEAPEST_INSERTION)
-            .setTimeLimit(Duration.newBuilder().setSeconds(10).build())
-            .build();
+  /**
+   * Returns the clients which are not finished and not part of a locked start.
+   *
+   * @param world the world
+   * @param lockedStarts the locked starts or null if no stops are locked
+   * @return the clients to plan
+   */
+  protected List<Client> getOpenClients(World world, Map<Taxi, LockedStart> lockedStarts) {
+    var clients = getNotFinishedClients(world);
+    if (lockedStarts == null) return clients;
+    Set<Client> lockedClients = new HashSet<>();
+    for (LockedStart lockedStart : lockedStarts.values()) {
+      lockedStart.path().forEach(stop -> lockedClients.add(stop.getClient()));
+      lockedClients.addAll(lockedStart.passengers());
+    }
+    clients.removeIf(lockedClients::contains);
+    return clients;
+  }
 
-    Assignment solution = routing.solveWithParameters(searchParameters);
-    if (solution == null) return fail("Can not find a solution!");
+  /**
+   * Create the search parameters of the solver from the parameters of the algorithm.
+   *
+   * @return the search parameters or null if a strategy is unknown
+   */
+  protected RoutingSearchParameters createSearchParameters() {
+    var firstSolutionStrategy =
+        FirstSolutionStrategy.Value.forNumber(
+            getParameter(
+                PARAMETER_FIRST_SOLUTION_STRATEGY,
+                FirstSolutionStrategy.Value.PARALLEL_CHEAPEST_INSERTION_VALUE));
+    var localSearchMetaheuristic =
+        LocalSearchMetaheuristic.Value.forNumber(
+            getParameter(
+                PARAMETER_LOCAL_SEARCH_METAHEURISTIC, LocalSearchMetaheuristic.Value.UNSET_VALUE));
+    if (firstSolutionStrategy == null || localSearchMetaheuristic == null) return null;
+    long timeLimitMillis = getParameter(PARAMETER_TIME_LIMIT, 10000);
+    return main.defaultRoutingSearchParameters().toBuilder()
+        .setFirstSolutionStrategy(firstSolutionStrategy)
+        .setLocalSearchMetaheuristic(localSearchMetaheuristic)
+        .setTimeLimit(
+            Duration.newBuilder()
+                .setSeconds(timeLimitMillis / 1000)
+                .setNanos((int) (timeLimitMillis % 1000) * 1_000_000)
+                .build())
+        .build();
+  }
 
-    printSolution(taxiCandidatesCount, routing, manager, solution, demands, entityTypes);
+  /** Returns the routes of the previous step or null if the solver should start without them. */
+  protected Map<String, List<String>> getWarmStartRoutes() {
+    return getParameter(PARAMETER_WARM_START, 1) != 0 ? previousRoutes : null;
+  }
 
+  /**
+   * Replace the plans of all taxis of the routes with the routes.
+   *
+   * @param world the world
+   * @param routes the new routes
+   */
+  protected void planRoutes(World world, List<TaxiRoute> routes) {
+    if (getParameter(PARAMETER_ROLLING_HORIZON, 0) != 0) {
+      planRoutesIncrementally(world, routes);
+      return;
+    }
     // todo fix this quick and dirty clients reset which removes already moving clients from taxis
-    for (Taxi taxiCandidate : taxiCandidates) {
-      world.mutate().clearTaxi(taxiCandidate);
+    for (TaxiRoute route : routes) {
+      world.mutate().clearTaxi(route.taxi());
     }
 
-    for (int l = 0; l < taxiCandidatesCount; ++l) {
-      long index = routing.start(l);
-      Taxi taxi = taxiCandidates.get(l);
-      List<OrderNode> path = new LinkedList<>();
-      while (!routing.isEnd(index)) {
-        index = solution.value(routing.nextVar(index));
-        int entityIndex = manager.indexToNode(index);
-        if (entityIndex / 2 < notFinishedClientsCount) {
-          path.add(
-              new OrderNode(notFinishedClients.get(entityIndex / 2), entityPositions[entityIndex]));
-          if (entityIndex % 2 == 0) {
-            var client = notFinishedClients.get(entityIndex / 2);
-            world.mutate().planClientForTaxi(taxi, client,  TargetList.sequentialOrders);
-          }
-        }
+    for (TaxiRoute route : routes) {
+      for (Client client : route.clients()) {
+        world.mutate().planClientForTaxi(route.taxi(), client, TargetList.sequentialOrders);
       }
       // todo fix this if the spawn window of clients are larger and clients dynamically spawns...
-      world.mutate().planOrderPath(taxi, orders -> path);
+      world.mutate().planOrderPath(route.taxi(), orders -> route.path());
+      previousRoutes.put(route.taxi().getName(), route.nodes());
     }
-    return ok();
   }
 
-  private static long[][] createDistanceMatrix(Position[] entityPositions) {
-    var entityCount = entityPositions.length;
-    long[][] distanceMatrix = new long[entityCount][entityCount];
-    for (int k = 0; k < entityCount; k++) {
-      var c = entityPositions[k];
-      for (int j = 0; j < entityCount; j++) {
-        var o = entityPositions[j];
-        boolean isVirtualDepot = c == null || o == null;
-        distanceMatrix[k][j] = isVirtualDepot ? 0 : Math.round(c.distance(o));
+  /**
+   * Plan the routes without clearing the taxis, so their passengers stay in the taxi. A taxi which
+   * loses a planned client to another taxi only forgets this client, the locked start of its route
+   * is part of the new route anyway.
+   */
+  private void planRoutesIncrementally(World world, List<TaxiRoute> routes) {
+    Map<Client, Taxi> clientTaxis = new HashMap<>();
+    for (TaxiRoute route : routes) {
+      route.clients().forEach(client -> clientTaxis.put(client, route.taxi()));
+    }
+    Set<Taxi> changedTaxis = new HashSet<>();
+    for (TaxiRoute route : routes) {
+      var taxi = route.taxi();
+      for (Client client : taxi.getPlannedPassengers()) {
+        if (taxi.equals(clientTaxis.get(client))) continue;
+        world.mutate().unplanClientForTaxi(taxi, client);
+        changedTaxis.add(taxi);
       }
     }
-    return distanceMatrix;
-  }
 
-  static void printSolution(
-      int taxiCandidatesCount,
-      RoutingModel routing,
-      RoutingIndexManager manager,
-      Assignment solution,
-      int[] demands,
-      String[] entityTypes) {
-    log.debug("Objective : {}", solution.objectiveValue());
-    long maxRouteDistance = 0;
-    for (int i = 0; i < taxiCandidatesCount; ++i) {
-      long index = routing.start(i);
-      log.debug("Route for Vehicle {}:", i);
-      long routeDistance = 0;
-      long routeLoad = 0;
-      StringBuilder route = new StringBuilder();
-      while (!routing.isEnd(index)) {
-        int nodeIndex = manager.indexToNode(index);
-        routeLoad += demands[nodeIndex];
-        route.append(entityTypes[nodeIndex]).append("(").append(routeLoad).append(") -> ");
-        long previousIndex = index;
-        index = solution.value(routing.nextVar(index));
-        routeDistance += routing.getArcCostForVehicle(previousIndex, index, i);
+    for (TaxiRoute route : routes) {
+      var taxi = route.taxi();
+      var path = route.path();
+      Set<Client> plannedClients = taxi.getPlannedPassengers();
+      boolean changed = changedTaxis.contains(taxi);
+      for (Client client : route.clients()) {
+        if (plannedClients.contains(client)) continue;
+        world.mutate().planClientForTaxi(taxi, client, TargetList.sequentialOrders);
+        changed = true;
+      }
+      if (changed || !path.equals(taxi.getTargets().toList())) {
+        world.mutate().planOrderPath(taxi, orders -> path);
       }
-      route.append(entityTypes[manager.indexToNode(index)]);
-      log.debug("{}", route);
-      log.debug("Distance of the route: {}m", routeDistance);
-      maxRouteDistance = Math.max(routeDistance, maxRouteDistance);
+      previousRoutes.put(taxi.getName(), route.nodes());
     }
-    log.debug("Maximum of the route distances: {}m", maxRouteDistance);
   }
 }
@@ -0,0 +1,292 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import de.sikeller.aqs.model.*;
+import de.sikeller.aqs.model.AlgorithmResult;
+import de.sikeller.aqs.taxi.algorithm.VehicleRoutingProblem.Solution;
+import de.sikeller.aqs.taxi.algorithm.VehicleRoutingProblem.TaxiRoute;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A variant of {@link TaxiAlgorithmVehicleRouting} which splits the world into regions and solves
+ * the vehicle routing problem of every region on its own thread. The regions are clusters of the
+ * client positions (k-means). The taxis are distributed over the regions in proportion to their
+ * clients, nearest taxis first, and clients in a taxi stay in the region of their taxi. With the
+ * rolling horizon, the locked starts of the routes stay with their taxis as well.
+ *
+ * <p>The solve time of the step is the longest solve time of the regions.
+ */
+@Slf4j
+public class TaxiAlgorithmVehicleRoutingDecomposed extends TaxiAlgorithmVehicleRouting {
+  private static final String PARAMETER_REGIONS = "Regions";
+  private static final int MAX_CLUSTER_ITERATIONS = 20;
+
+  // one problem per region, so the distance matrices are reused by the next steps
+  private final List<VehicleRoutingProblem> problems = new ArrayList<>();
+
+  @Override
+  public String getName() {
+    return "VehicleRoutingDecomposed";
+  }
+
+  @Override
+  public SimulationConfiguration getParameters() {
+    var parameters = new ArrayList<>(super.getParameters().getParameters());
+    // Number of regions which are solved in parallel
+    parameters.add(new AlgorithmParameter(PARAMETER_REGIONS, 4));
+    return new SimulationConfiguration(parameters.toArray(AlgorithmParameter[]::new));
+  }
+
+  @Override
+  public AlgorithmResult nextStep(World world, Collection<Client> waitingClients) {
+    var taxis = new ArrayList<>(world.getTaxis());
+    var lockedStarts = lockRoutes(taxis);
+    var clients = getOpenClients(world, lockedStarts);
+    int regionCount =
+        Math.min(getParameter(PARAMETER_REGIONS, 4), Math.min(taxis.size(), clients.size()));
+    if (regionCount <= 1) return super.nextStep(world, waitingClients);
+    var searchParameters = createSearchParameters();
+    if (searchParameters == null) return fail("Unknown search strategy!");
+
+    var regions = partition(taxis, clients, regionCount);
+    while (problems.size() < regionCount) {
+      problems.add(new VehicleRoutingProblem());
+    }
+    var previousRoutes = getWarmStartRoutes();
+    Solution[] solutions = new Solution[regionCount];
+    // the regions are solved in parallel, so the step takes the wall-clock time of all of them
+    long start = System.nanoTime();
+    IntStream.range(0, regionCount)
+        .parallel()
+        .forEach(
+            r -> {
+              if (regions[r].taxis().isEmpty()) return;
+              solutions[r] =
+                  problems
+                      .get(r)
+                      .solve(
+                          regions[r].taxis(),
+                          regions[r].clients(),
+                          searchParameters,
+                          previousRoutes,
+                          lockedStarts);
+            });
+    long solveTime = System.nanoTime() - start;
+
+    List<TaxiRoute> routes = new ArrayList<>(taxis.size());
+    long objective = 0;
+    long slowestRegionTime = 0;
+    for (int r = 0; r < regionCount; r++) {
+      if (regions[r].taxis().isEmpty()) continue;
+      if (solutions[r] == null) return fail("Can not find a solution for region " + r + "!");
+      routes.addAll(solutions[r].routes());
+      objective += solutions[r].objective();
+      slowestRegionTime = Math.max(slowestRegionTime, solutions[r].solveTimeNanos());
+      log.debug(
+          "Region {}: {} clients with {} taxis in {} ms, objective: {}",
+          r,
+          regions[r].clients().size(),
+          regions[r].taxis().size(),
+          TimeUnit.NANOSECONDS.toMillis(solutions[r].solveTimeNanos()),
+          solutions[r].objective());
+    }
+    log.info(
+        "Solved {} clients with {} taxis in {} regions in {} ms, objective: {}",
+        clients.size(),
+        taxis.size(),
+        regionCount,
+        TimeUnit.NANOSECONDS.toMillis(solveTime),
+        objective);
+    log.debug("Slowest region in {} ms", TimeUnit.NANOSECONDS.toMillis(slowestRegionTime));
+
+    planRoutes(world, routes);
+    return ok(solveTime);
+  }
+
+  /** The taxis and clients of a region. */
+  record Region(List<Taxi> taxis, List<Client> clients) {}
+
+  /**
+   * Split the taxis and clients into regions. Every region with clients gets at least one taxi.
+   * With fewer taxis than regions, the clients of a region without taxi are added to the region
+   * with taxis whose centroid is the nearest.
+   *
+   * @param taxis the taxis, at least one
+   * @param clients the clients, at least one per region
+   * @param regionCount the number of regions
+   * @return the regions
+   */
+  static Region[] partition(List<Taxi> taxis, List<Client> clients, int regionCount) {
+    int[] clusters = new int[clients.size()];
+    double[][] centroids = cluster(clients, regionCount, clusters);
+
+    // distribute the taxis in proportion to the clients (largest remainder)
+    int[] clientCounts = new int[regionCount];
+    for (int cluster : clusters) {
+      clientCounts[cluster]++;
+    }
+    int[] quotas = new int[regionCount];
+    double[] remainders = new double[regionCount];
+    int remaining = taxis.size();
+    for (int r = 0; r < regionCount; r++) {
+      double share = (double) taxis.size() * clientCounts[r] / clients.size();
+      quotas[r] = (int) share;
+      remainders[r] = share - quotas[r];
+      remaining -= quotas[r];
+    }
+    for (; remaining > 0; remaining--) {
+      int best = 0;
+      for (int r = 1; r < regionCount; r++) {
+        if (remainders[r] > remainders[best]) best = r;
+      }
+      quotas[best]++;
+      remainders[best] = -1;
+    }
+    for (int r = 0; r < regionCount; r++) {
+      if (clientCounts[r] == 0 || quotas[r] > 0) continue;
+      // take a taxi from the region with the most taxis it does not need
+      int donor = 0;
+      for (int other = 1; other < regionCount; other++) {
+        if (spareTaxis(quotas, clientCounts, other) > spareTaxis(quotas, clientCounts, donor)) {
+          donor = other;
+        }
+      }
+      if (spareTaxis(quotas, clientCounts, donor) <= 0) break;
+      quotas[donor]--;
+      quotas[r]++;
+    }
+
+    // assign the taxis to the nearest regions with free quota
+    double[] distances = new double[taxis.size() * regionCount];
+    for (int t = 0; t < taxis.size(); t++) {
+      var position = taxis.get(t).getPosition();
+      for (int r = 0; r < regionCount; r++) {
+        distances[t * regionCount + r] =
+            Math.hypot(position.getX() - centroids[r][0], position.getY() - centroids[r][1]);
+      }
+    }
+    Integer[] order = IntStream.range(0, distances.length).boxed().toArray(Integer[]::new);
+    Arrays.sort(order, Comparator.comparingDouble(pair -> distances[pair]));
+    Map<Taxi, Integer> taxiRegions = new HashMap<>();
+    Region[] regions = new Region[regionCount];
+    for (int r = 0; r < regionCount; r++) {
+      regions[r] = new Region(new ArrayList<>(), new ArrayList<>());
+    }
+    for (int pair : order) {
+      var taxi = taxis.get(pair / regionCount);
+      int r = pair % regionCount;
+      if (quotas[r] == 0 || taxiRegions.containsKey(taxi)) continue;
+      quotas[r]--;
+      taxiRegions.put(taxi, r);
+      regions[r].taxis().add(taxi);
+    }
+
+    int[] clientRegions = new int[regionCount];
+    for (int r = 0; r < regionCount; r++) {
+      clientRegions[r] =
+          regions[r].taxis().isEmpty() ? nearestRegionWithTaxis(regions, centroids, r) : r;
+    }
+
+    // clients in a taxi stay with their taxi
+    Map<Client, Integer> passengerRegions = new HashMap<>();
+    for (var entry : taxiRegions.entrySet()) {
+      for (Client passenger : entry.getKey().getContainedPassengers()) {
+        passengerRegions.put(passenger, entry.getValue());
+      }
+    }
+    for (int c = 0; c < clients.size(); c++) {
+      var client = clients.get(c);
+      int region = clientRegions[clusters[c]];
+      regions[passengerRegions.getOrDefault(client, region)].clients().add(client);
+    }
+    return regions;
+  }
+
+  private static int nearestRegionWithTaxis(Region[] regions, double[][] centroids, int region) {
+    int nearest = -1;
+    double nearestDistance = Double.MAX_VALUE;
+    for (int r = 0; r < regions.length; r++) {
+      if (regions[r].taxis().isEmpty()) continue;
+      double distance =
+          Math.hypot(
+              centroids[r][0] - centroids[region][0], centroids[r][1] - centroids[region][1]);
+      if (distance < nearestDistance) {
+        nearest = r;
+        nearestDistance = distance;
+      }
+    }
+    return nearest;
+  }
+
+  private static int spareTaxis(int[] quotas, int[] clientCounts, int region) {
+    return quotas[region] - (clientCounts[region] > 0 ? 1 : 0);
+  }
+
+  /**
+   * Cluster the positions of the clients with k-means. The initial centroids are the farthest
+   * points, so the result is deterministic.
+   *
+   * @param clients the clients
+   * @param k the number of clusters
+   * @param clusters the cluster of each client
+   * @return the centroids of the clusters
+   */
+  private static double[][] cluster(List<Client> clients, int k, int[] clusters) {
+    int n = clients.size();
+    double[] xs = new double[n];
+    double[] ys = new double[n];
+    for (int c = 0; c < n; c++) {
+      xs[c] = clients.get(c).getPosition().getX();
+      ys[c] = clients.get(c).getPosition().getY();
+    }
+    double[][] centroids = new double[k][];
+    centroids[0] = new double[] {xs[0], ys[0]};
+    double[] nearest = new double[n];
+    Arrays.fill(nearest, Double.MAX_VALUE);
+    for (int r = 1; r < k; r++) {
+      int farthest = 0;
+      for (int c = 0; c < n; c++) {
+        double dx = xs[c] - centroids[r - 1][0];
+        double dy = ys[c] - centroids[r - 1][1];
+        nearest[c] = Math.min(nearest[c], dx * dx + dy * dy);
+        if (nearest[c] > nearest[farthest]) farthest = c;
+      }
+      centroids[r] = new double[] {xs[farthest], ys[farthest]};
+    }
+
+    Arrays.fill(clusters, -1);
+    for (int iteration = 0; iteration < MAX_CLUSTER_ITERATIONS; iteration++) {
+      boolean changed = false;
+      for (int c = 0; c < n; c++) {
+        int best = 0;
+        double bestDistance = Double.MAX_VALUE;
+        for (int r = 0; r < k; r++) {
+          double dx = xs[c] - centroids[r][0];
+          double dy = ys[c] - centroids[r][1];
+          double distance = dx * dx + dy * dy;
+          if (distance < bestDistance) {
+            best = r;
+            bestDistance = distance;
+          }
+        }
+        changed |= clusters[c] != best;
+        clusters[c] = best;
+      }
+      if (!changed) break;
+      double[][] sums = new double[k][3];
+      for (int c = 0; c < n; c++) {
+        sums[clusters[c]][0] += xs[c];
+        sums[clusters[c]][1] += ys[c];
+        sums[clusters[c]][2]++;
+      }
+      for (int r = 0; r < k; r++) {
+        // an empty cluster keeps its centroid
+        if (sums[r][2] > 0)
+          centroids[r] = new double[] {sums[r][0] / sums[r][2], sums[r][1] / sums[r][2]};
+      }
+    }
+    return centroids;
+  }
+}
@@ -0,0 +1,469 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import com.google.ortools.constraintsolver.*;
+import de.sikeller.aqs.model.*;
+import java.util.*;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The vehicle routing problem of a group of taxis and clients, solved with OR-Tools. Every client
+ * is a pickup at its position and a delivery at its target which have to be served by the same
+ * taxi. The routes end at a virtual depot, so they can end anywhere.
+ *
+ * <p>The route of a taxi can start with a {@link LockedStart}. Its stops are not part of the model,
+ * the taxi starts at the end of the locked stops instead, so the size of the model only depends on
+ * the open stops.
+ *
+ * <p>A problem keeps the distances of its nodes between the steps (see {@link DistanceMatrix}), so
+ * an instance should be reused for the same group of taxis. Different instances can be solved at
+ * the same time on different threads.
+ */
+@Slf4j
+class VehicleRoutingProblem {
+  static final long MAX_ROUTE_DISTANCE = 400000; // todo max distance capa
+  private static final String ENTITY_TYPE_CLIENT_START = "[start-%s]";
+  private static final String ENTITY_TYPE_CLIENT_TARGET = "[target-%s]";
+  private static final String ENTITY_TYPE_TAXI = "[taxiSpawn-%s]";
+  private static final String ENTITY_TYPE_DEPOT = "[taxiDepot]";
+
+  private final DistanceMatrix distanceMatrix = new DistanceMatrix();
+
+  /**
+   * The planned route of a taxi.
+   *
+   * @param taxi the taxi
+   * @param clients the clients in the order of their pickups
+   * @param path the pickups and deliveries of the clients
+   * @param nodes the keys of the nodes of the path, used as initial solution of the next step
+   */
+  record TaxiRoute(Taxi taxi, List<Client> clients, List<OrderNode> path, List<String> nodes) {}
+
+  /**
+   * The solution of a problem.
+   *
+   * @param routes the routes of all taxis of the problem
+   * @param objective the objective value of the solution
+   * @param solveTimeNanos the time to create and solve the model
+   * @param warmStart whether the solver started from the previous routes
+   */
+  record Solution(List<TaxiRoute> routes, long objective, long solveTimeNanos, boolean warmStart) {}
+
+  /**
+   * The locked first stops of the route of a taxi, which are kept as they are.
+   *
+   * @param path the locked stops
+   * @param pickups the clients which are picked up by the locked stops
+   * @param passengers the clients which are in the taxi at the end of the locked stops and have to
+   *     be delivered by the open part of the route
+   * @param position the position at the end of the locked stops
+   * @param distance the distance from the taxi to the end of the locked stops
+   */
+  record LockedStart(
+      List<OrderNode> path,
+      List<Client> pickups,
+      List<Client> passengers,
+      Position position,
+      long distance) {
+
+    /**
+     * Lock all stops of the route of a taxi except the last open stops. The next stop is always
+     * locked.
+     *
+     * @param taxi the taxi
+     * @param openStops the number of stops which are not locked
+     * @return the locked start of the route
+     */
+    static LockedStart of(Taxi taxi, int openStops) {
+      var targets = taxi.getTargets();
+      int lockedCount = targets.isEmpty() ? 0 : Math.max(1, targets.size() - openStops);
+      List<OrderNode> path = new ArrayList<>(lockedCount);
+      List<Client> pickups = new ArrayList<>();
+      Set<Client> passengers = new LinkedHashSet<>(taxi.getContainedPassengers());
+      var position = taxi.getPosition();
+      long distance = 0;
+      for (int i = 0; i < lockedCount; i++) {
+        var stop = targets.get(i);
+        path.add(stop);
+        distance += Math.round(position.distance(stop.getPosition()));
+        position = stop.getPosition();
+        // the first stop of a client which is not in the taxi is its pickup
+        if (passengers.remove(stop.getClient())) continue;
+        pickups.add(stop.getClient());
+        passengers.add(stop.getClient());
+      }
+      return new LockedStart(path, pickups, new ArrayList<>(passengers), position, distance);
+    }
+  }
+
+  /**
+   * Solve the problem of a group of taxis and clients.
+   *
+   * @param taxis the taxis
+   * @param clients the clients which are not finished
+   * @param searchParameters the parameters of the solver
+   * @param previousRoutes the nodes of the previous routes per taxi name which are used as initial
+   *     solution or null to solve without initial solution
+   * @param lockedStarts the locked starts of the routes per taxi or null if no stops are locked,
+   *     the clients must not contain the clients of the locked starts
+   * @return the solution or null if there is no solution
+   */
+  Solution solve(
+      List<Taxi> taxis,
+      List<Client> clients,
+      RoutingSearchParameters searchParameters,
+      Map<String, List<String>> previousRoutes,
+      Map<Taxi, LockedStart> lockedStarts) {
+    long solveStartTime = System.nanoTime();
+    var taxiCandidatesCount = taxis.size();
+    var notFinishedClientsCount = clients.size();
+    LockedStart[] locks = new LockedStart[taxiCandidatesCount];
+    int passengerCount = 0;
+    for (int l = 0; l < taxiCandidatesCount && lockedStarts != null; l++) {
+      locks[l] = lockedStarts.get(taxis.get(l));
+      passengerCount += locks[l] != null ? locks[l].passengers().size() : 0;
+    }
+
+    /* waiting client positions + client target positions + passenger target positions + taxi
+     * positions + 1*depot */
+    int entityCount = 2 * notFinishedClientsCount + passengerCount + taxiCandidatesCount + 1;
+
+    String[] entityTypes = new String[entityCount];
+    Position[] entityPositions = new Position[entityCount];
+    Client[] entityClients = new Client[entityCount];
+    int[] demands = new int[entityCount];
+    // the distances of the locked stops, which are added to the first arc of a route
+    long[] startDistances = new long[entityCount];
+    int[][] pickupDeliveries = new int[notFinishedClientsCount][2];
+    // the passenger targets and the taxis which have to deliver them
+    int[][] passengerDeliveries = new int[passengerCount][2];
+    int i = 0;
+    int p = 0;
+    for (Client waitingClient : clients) {
+      entityTypes[i] = ENTITY_TYPE_CLIENT_START.formatted(waitingClient.getName());
+      entityPositions[i] = waitingClient.getPosition();
+      entityClients[i] = waitingClient;
+      demands[i] = 1;
+      pickupDeliveries[p][0] = i;
+      i++;
+      entityTypes[i] = ENTITY_TYPE_CLIENT_TARGET.formatted(waitingClient.getName());
+      entityPositions[i] = waitingClient.getTarget();
+      entityClients[i] = waitingClient;
+      demands[i] = -1;
+      pickupDeliveries[p][1] = i;
+      i++;
+      p++;
+    }
+    p = 0;
+    for (int l = 0; l < taxiCandidatesCount; l++) {
+      if (locks[l] == null) continue;
+      for (Client passenger : locks[l].passengers()) {
+        entityTypes[i] = ENTITY_TYPE_CLIENT_TARGET.formatted(passenger.getName());
+        entityPositions[i] = passenger.getTarget();
+        entityClients[i] = passenger;
+        demands[i] = -1;
+        passengerDeliveries[p][0] = i;
+        passengerDeliveries[p][1] = l;
+        i++;
+        p++;
+      }
+    }
+    int[] ends = new int[taxiCandidatesCount];
+    int[] starts = new int[taxiCandidatesCount];
+    long[] taxiCapacities = new long[taxiCandidatesCount];
+    int f = 0;
+    for (Taxi taxiCandidate : taxis) {
+      entityTypes[i] = ENTITY_TYPE_TAXI.formatted(taxiCandidate.getName());
+      entityPositions[i] = locks[f] != null ? locks[f].position() : taxiCandidate.getPosition();
+      // the passengers are loaded at the start of the route
+      demands[i] = locks[f] != null ? locks[f].passengers().size() : 0;
+      startDistances[i] = locks[f] != null ? locks[f].distance() : 0;
+      starts[f] = i;
+      // ends should be arbitrary - so set distance matrix to depot position (last entry) to which
+      // the distance is always zero:
+      ends[f] = entityCount - 1;
+      taxiCapacities[f] = taxiCandidate.getCapacity();
+      i++;
+      f++;
+    }
+    entityTypes[i] = ENTITY_TYPE_DEPOT;
+    entityPositions[i] = null;
+    demands[i] = 0;
+
+    // only the distances of new or moved entities are calculated, see DistanceMatrix
+    distanceMatrix.update(entityTypes, entityPositions);
+    log.debug(
+        "Calculated {} of {} distance matrix rows",
+        distanceMatrix.getCalculatedRows(),
+        entityCount);
+
+    RoutingIndexManager manager =
+        new RoutingIndexManager(entityCount, taxiCandidatesCount, starts, ends);
+
+    RoutingModel routing = new RoutingModel(manager);
+
+    final int transitCallbackIndex =
+        routing.registerTransitCallback(
+            (long fromIndex, long toIndex) -> {
+              int fromNode = manager.indexToNode(fromIndex);
+              int toNode = manager.indexToNode(toIndex);
+              return distanceMatrix.distance(fromNode, toNode) + startDistances[fromNode];
+            });
+    routing.setArcCostEvaluatorOfAllVehicles(transitCallbackIndex);
+    routing.addDimension(
+        transitCallbackIndex,
+        0, // no slack
+        MAX_ROUTE_DISTANCE,
+        true, // start cumul to zero
+        "Distance");
+
+    // add taxi capacity constraint:
+    final int loadCallbackIndex =
+        routing.registerUnaryTransitCallback((long index) -> demands[manager.indexToNode(index)]);
+    routing.addDimensionWithVehicleCapacity(
+        loadCallbackIndex,
+        0, // no slack
+        taxiCapacities,
+        true, // start cumul to zero
+        "Capacity");
+
+    RoutingDimension distanceDimension = routing.getMutableDimension("Distance");
+    distanceDimension.setGlobalSpanCostCoefficient(100);
+
+    Solver solver = routing.solver();
+    for (int[] request : pickupDeliveries) {
+      long pickupIndex = manager.nodeToIndex(request[0]);
+      long deliveryIndex = manager.nodeToIndex(request[1]);
+      routing.addPickupAndDelivery(pickupIndex, deliveryIndex);
+      // client has to be picked up and delivered by same taxi:
+      solver.addConstraint(
+          solver.makeEquality(routing.vehicleVar(pickupIndex), routing.vehicleVar(deliveryIndex)));
+      // client has to be picked up before delivery:
+      solver.addConstraint(
+          solver.makeLessOrEqual(
+              distanceDimension.cumulVar(pickupIndex), distanceDimension.cumulVar(deliveryIndex)));
+    }
+    for (int[] delivery : passengerDeliveries) {
+      // passengers have to be delivered by their taxi:
+      solver.addConstraint(
+          solver.makeEquality(
+              routing.vehicleVar(manager.nodeToIndex(delivery[0])), (long) delivery[1]));
+    }
+
+    Assignment initialSolution = null;
+    if (previousRoutes != null) {
+      var initialRoutes =
+          createInitialRoutes(
+              previousRoutes,
+              taxis,
+              entityTypes,
+              starts,
+              demands,
+              startDistances,
+              taxiCapacities,
+              pickupDeliveries,
+              passengerDeliveries);
+      if (initialRoutes != null) {
+        for (long[] route : initialRoutes) {
+          Arrays.setAll(route, k -> manager.nodeToIndex((int) route[k]));
+        }
+        // the search is configured when the model is closed, so it has to be closed before the
+        // routes are read
+        routing.closeModelWithParameters(searchParameters);
+        initialSolution = routing.readAssignmentFromRoutes(initialRoutes, true);
+      }
+    }
+    Assignment solution =
+        initialSolution != null
+            ? routing.solveFromAssignmentWithParameters(initialSolution, searchParameters)
+            : null;
+    if (solution == null) {
+      initialSolution = null;
+      solution = routing.solveWithParameters(searchParameters);
+    }
+    if (solution == null) return null;
+
+    printSolution(taxiCandidatesCount, routing, manager, solution, demands, entityTypes);
+
+    List<TaxiRoute> routes = new ArrayList<>(taxiCandidatesCount);
+    for (int l = 0; l < taxiCandidatesCount; ++l) {
+      long index = routing.start(l);
+      List<Client> routeClients = new ArrayList<>();
+      List<OrderNode> path = new LinkedList<>();
+      List<String> nodes = new ArrayList<>();
+      if (locks[l] != null) {
+        routeClients.addAll(locks[l].pickups());
+        path.addAll(locks[l].path());
+      }
+      while (!routing.isEnd(index)) {
+        index = solution.value(routing.nextVar(index));
+        int entityIndex = manager.indexToNode(index);
+        var client = entityClients[entityIndex];
+        if (client != null) {
+          path.add(new OrderNode(client, entityPositions[entityIndex]));
+          nodes.add(entityTypes[entityIndex]);
+          if (demands[entityIndex] > 0) {
+            routeClients.add(client);
+          }
+        }
+      }
+      routes.add(new TaxiRoute(taxis.get(l), routeClients, path, nodes));
+    }
+    return new Solution(
+        routes,
+        solution.objectiveValue(),
+        System.nanoTime() - solveStartTime,
+        initialSolution != null);
+  }
+
+  /**
+   * Create the initial routes of the solver from the routes of the previous step. Nodes of finished
+   * clients are skipped, passengers which are not routed are delivered at the end of the routes of
+   * their taxis and new clients are inserted at the cheapest feasible positions.
+   *
+   * @return the nodes of the routes per taxi or null if there are no previous routes or a client
+   *     can not be inserted
+   */
+  private long[][] createInitialRoutes(
+      Map<String, List<String>> previousRoutes,
+      List<Taxi> taxiCandidates,
+      String[] entityTypes,
+      int[] starts,
+      int[] demands,
+      long[] startDistances,
+      long[] taxiCapacities,
+      int[][] pickupDeliveries,
+      int[][] passengerDeliveries) {
+    if (previousRoutes.isEmpty()) return null;
+    Map<String, Integer> nodes = new HashMap<>();
+    for (int node = 0; node < entityTypes.length; node++) {
+      nodes.put(entityTypes[node], node);
+    }
+    Map<Integer, Integer> passengerTaxis = new HashMap<>();
+    for (int[] delivery : passengerDeliveries) {
+      passengerTaxis.put(delivery[0], delivery[1]);
+    }
+    List<List<Integer>> routes = new ArrayList<>(taxiCandidates.size());
+    Set<Integer> routedNodes = new HashSet<>();
+    for (int l = 0; l < taxiCandidates.size(); l++) {
+      List<Integer> route = new ArrayList<>();
+      for (String key : previousRoutes.getOrDefault(taxiCandidates.get(l).getName(), List.of())) {
+        Integer node = nodes.get(key);
+        if (node != null && passengerTaxis.getOrDefault(node, l) == l) route.add(node);
+      }
+      routedNodes.addAll(route);
+      routes.add(route);
+    }
+    for (int[] delivery : passengerDeliveries) {
+      if (!routedNodes.contains(delivery[0])) routes.get(delivery[1]).add(delivery[0]);
+    }
+    for (int[] request : pickupDeliveries) {
+      if (routedNodes.contains(request[0])) continue;
+      if (!insertCheapest(
+          routes, request[0], request[1], starts, demands, startDistances, taxiCapacities)) {
+        return null;
+      }
+    }
+    return routes.stream()
+        .map(route -> route.stream().mapToLong(Integer::longValue).toArray())
+        .toArray(long[][]::new);
+  }
+
+  private boolean insertCheapest(
+      List<List<Integer>> routes,
+      int pickup,
+      int delivery,
+      int[] starts,
+      int[] demands,
+      long[] startDistances,
+      long[] taxiCapacities) {
+    long bestCost = Long.MAX_VALUE;
+    int bestTaxi = -1;
+    int bestPickupPosition = -1;
+    int bestDeliveryPosition = -1;
+    for (int l = 0; l < routes.size(); l++) {
+      List<Integer> route = routes.get(l);
+      int size = route.size();
+      // the node before each position and the load after each node of the route
+      int[] previous = new int[size + 1];
+      long[] loads = new long[size];
+      long startLoad = demands[starts[l]];
+      long routeDistance = startDistances[starts[l]];
+      previous[0] = starts[l];
+      for (int k = 0; k < size; k++) {
+        loads[k] = (k > 0 ? loads[k - 1] : startLoad) + demands[route.get(k)];
+        routeDistance += distanceMatrix.distance(previous[k], route.get(k));
+        previous[k + 1] = route.get(k);
+      }
+      for (int i = 0; i <= size; i++) {
+        if ((i > 0 ? loads[i - 1] : startLoad) + 1 > taxiCapacities[l]) continue;
+        long pickupCost = insertionCost(previous[i], pickup, route, i);
+        for (int j = i; j <= size; j++) {
+          // the client is in the taxi from the pickup to the delivery
+          if (j > i && loads[j - 1] + 1 > taxiCapacities[l]) break;
+          long cost =
+              j == i
+                  ? insertionCost(previous[i], pickup, delivery, route, i)
+                  : pickupCost + insertionCost(previous[j], delivery, route, j);
+          if (cost < bestCost && routeDistance + cost <= MAX_ROUTE_DISTANCE) {
+            bestCost = cost;
+            bestTaxi = l;
+            bestPickupPosition = i;
+            bestDeliveryPosition = j;
+          }
+        }
+      }
+    }
+    if (bestTaxi < 0) return false;
+    var route = routes.get(bestTaxi);
+    route.add(bestDeliveryPosition, delivery);
+    route.add(bestPickupPosition, pickup);
+    return true;
+  }
+
+  private long insertionCost(int previous, int node, List<Integer> route, int position) {
+    return insertionCost(previous, node, node, route, position);
+  }
+
+  private long insertionCost(int previous, int first, int last, List<Integer> route, int position) {
+    // the end of a route is the virtual depot with the distance 0 to all nodes
+    if (position == route.size()) {
+      return distanceMatrix.distance(previous, first) + distanceMatrix.distance(first, last);
+    }
+    int next = route.get(position);
+    return distanceMatrix.distance(previous, first)
+        + distanceMatrix.distance(first, last)
+        + distanceMatrix.distance(last, next)
+        - distanceMatrix.distance(previous, next);
+  }
+
+  static void printSolution(
+      int taxiCandidatesCount,
+      RoutingModel routing,
+      RoutingIndexManager manager,
+      Assignment solution,
+      int[] demands,
+      String[] entityTypes) {
+    log.debug("Objective : {}", solution.objectiveValue());
+    long maxRouteDistance = 0;
+    for (int i = 0; i < taxiCandidatesCount; ++i) {
+      long index = routing.start(i);
+      log.debug("Route for Vehicle {}:", i);
+      long routeDistance = 0;
+      long routeLoad = 0;
+      StringBuilder route = new StringBuilder();
+      while (!routing.isEnd(index)) {
+        int nodeIndex = manager.indexToNode(index);
+        routeLoad += demands[nodeIndex];
+        route.append(entityTypes[nodeIndex]).append("(").append(routeLoad).append(") -> ");
+        long previousIndex = index;
+        index = solution.value(routing.nextVar(index));
+        routeDistance += routing.getArcCostForVehicle(previousIndex, index, i);
+      }
+      route.append(entityTypes[manager.indexToNode(index)]);
+      log.debug("{}", route);
+      log.debug("Distance of the route: {}m", routeDistance);
+      maxRouteDistance = Math.max(routeDistance, maxRouteDistance);
+    }
+    log.debug("Maximum of the route distances: {}m", maxRouteDistance);
+  }
+}
@@ -10,22 +10,44 @@ import java.util.*;
 @Slf4j
 @Getter
 public class DistributedCalculationTimer {
-  // --- Listen für die aggregierten Bottleneck-Zeiten pro Step ---
-  private final List<Long> step_ActualWallClockTimesNanos = new LinkedList<>();
-  private final List<Long> step_SimulatedRqsBottleneckTimesNanos = new LinkedList<>();
-  private final List<Long> step_SimulatedTaxiBottleneckTimesNanos = new LinkedList<>();
-  private final List<Long> step_SimulatedClientDecisionBottleneckTimesNanos = new LinkedList<>();
+  // --- Histograms of the aggregated bottleneck times per step ---
+  private final LatencyHistogram step_ActualWallClockTimesNanos = new LatencyHistogram();
+  private final LatencyHistogram step_SimulatedRqsBottleneckTimesNanos = new LatencyHistogram();
+  private final LatencyHistogram step_SimulatedTaxiBottleneckTimesNanos = new LatencyHistogram();
+  private final LatencyHistogram step_SimulatedClientDecisionBottleneckTimesNanos =
+      new LatencyHistogram();
   // Sum of the three bottlenecks
-  private final List<Long> step_SimulatedTotalParallelTimesNanos = new LinkedList<>();
+  private final LatencyHistogram step_SimulatedTotalParallelTimesNanos = new LatencyHistogram();
+  // Measured wall-clock time of all cost calculations (sequential or parallel) per step
+  private final LatencyHistogram step_ActualCostCalculationWallClockTimesNanos =
+      new LatencyHistogram();
+
+  // --- Histograms of the individual RQS queries and route cost calculations of all steps ---
+  private final LatencyHistogram rqsQueryTimesNanos = new LatencyHistogram();
+  private final LatencyHistogram costCalculationTimesNanos = new LatencyHistogram();
+
+  // times of the last step or null before the first step
+  private StepTimes lastStepTimes;
 
   // helper fur current nextStep call (reset after each step)
   private long wallClockStepStartTimeNanos;
-  // RQS: list of all individual RQS durations in this step
-  private List<Long> currentStepIndividualRqsTimesNanos;
+  // RQS: longest individual RQS duration in this step
+  private long currentStepMaxRqsTimeNanos;
   // Taxis: Map of accumulated processing times per taxi in this step
   private Map<Taxi, Long> currentStepTaxiProcessingTimesNanos;
-  // Clients: List of all individual client decision times in this step
-  private List<Long> currentStepIndividualClientDecisionTimesNanos;
+  // Clients: longest individual client decision time in this step
+  private long currentStepMaxClientDecisionTimeNanos;
+  // Cost calculations: accumulated wall-clock time of all offer calculations in this step
+  private long currentStepCostCalculationWallClockTimeNanos;
+
+  /** The aggregated times of a single step in nanoseconds. */
+  public record StepTimes(
+      long actualWallClock,
+      long simulatedRqsBottleneck,
+      long simulatedTaxiBottleneck,
+      long simulatedClientDecisionBottleneck,
+      long simulatedTotalParallel,
+      long actualCostCalculationWallClock) {}
 
   protected void startOverallNextStep() {
     resetCurrentStepHelpers();
@@ -35,52 +57,45 @@ public class DistributedCalculationTimer {
   protected void stopOverallNextStepAndAggregate() {
     // 1. Wall time for the current step
     long actualWallClockTime = System.nanoTime() - wallClockStepStartTimeNanos;
-    step_ActualWallClockTimesNanos.add(actualWallClockTime);
 
     // 2. RQS Bottleneck-Time for the current step
-    long rqsBottleneck = 0;
-    if (currentStepIndividualRqsTimesNanos != null
-        && !currentStepIndividualRqsTimesNanos.isEmpty()) {
-      rqsBottleneck =
-          currentStepIndividualRqsTimesNanos.stream().mapToLong(Long::longValue).max().orElse(0L);
-    }
-    step_SimulatedRqsBottleneckTimesNanos.add(rqsBottleneck);
+    long rqsBottleneck = currentStepMaxRqsTimeNanos;
 
     // 3. Taxi Bottleneck-Time for the current step
     long taxiBottleneck = 0;
-    if (currentStepTaxiProcessingTimesNanos != null
-        && !currentStepTaxiProcessingTimesNanos.isEmpty()) {
-      taxiBottleneck =
-          currentStepTaxiProcessingTimesNanos.values().stream()
-              .mapToLong(Long::longValue)
-              .max()
-              .orElse(0L);
+    if (currentStepTaxiProcessingTimesNanos != null) {
+      for (long taxiTime : currentStepTaxiProcessingTimesNanos.values()) {
+        taxiBottleneck = Math.max(taxiBottleneck, taxiTime);
+      }
     }
-    step_SimulatedTaxiBottleneckTimesNanos.add(taxiBottleneck);
 
     // 4. Client Decision Bottleneck-Time for the current step
-    long clientDecisionBottleneck = 0;
-    if (currentStepIndividualClientDecisionTimesNanos != null
-        && !currentStepIndividualClientDecisionTimesNanos.isEmpty()) {
-      clientDecisionBottleneck =
-          currentStepIndividualClientDecisionTimesNanos.stream()
-              .mapToLong(Long::longValue)
-              .max()
-              .orElse(0L);
-    }
-    step_SimulatedClientDecisionBottleneckTimesNanos.add(clientDecisionBottleneck);
+    long clientDecisionBottleneck = currentStepMaxClientDecisionTimeNanos;
 
     // 5. entire simulated parallel time for this step
-    step_SimulatedTotalParallelTimesNanos.add(
-        rqsBottleneck + taxiBottleneck + clientDecisionBottleneck);
+    // 6. measured cost calculation time to compare with the simulated taxi bottleneck
+    lastStepTimes =
+        new StepTimes(
+            actualWallClockTime,
+            rqsBottleneck,
+            taxiBottleneck,
+            clientDecisionBottleneck,
+            rqsBottleneck + taxiBottleneck + clientDecisionBottleneck,
+            currentStepCostCalculationWallClockTimeNanos);
+    step_ActualWallClockTimesNanos.record(lastStepTimes.actualWallClock());
+    step_SimulatedRqsBottleneckTimesNanos.record(lastStepTimes.simulatedRqsBottleneck());
+    step_SimulatedTaxiBottleneckTimesNanos.record(lastStepTimes.simulatedTaxiBottleneck());
+    step_SimulatedClientDecisionBottleneckTimesNanos.record(
+        lastStepTimes.simulatedClientDecisionBottleneck());
+    step_SimulatedTotalParallelTimesNanos.record(lastStepTimes.simulatedTotalParallel());
+    step_ActualCostCalculationWallClockTimesNanos.record(
+        lastStepTimes.actualCostCalculationWallClock());
   }
 
   // --- Methods for adding individual times during the current step ---
   protected void recordRqsQueryTime(long durationNanos) {
-    if (currentStepIndividualRqsTimesNanos == null) {
-      currentStepIndividualRqsTimesNanos = new ArrayList<>();
-    }
-    currentStepIndividualRqsTimesNanos.add(durationNanos);
+    currentStepMaxRqsTimeNanos = Math.max(currentStepMaxRqsTimeNanos, durationNanos);
+    rqsQueryTimesNanos.record(durationNanos);
   }
 
   protected void recordSingleTaxiRouteCalcTime(Taxi taxi, long durationNanos) {
@@ -88,39 +103,48 @@ public class DistributedCalculationTimer {
       currentStepTaxiProcessingTimesNanos = new HashMap<>();
     }
     currentStepTaxiProcessingTimesNanos.merge(taxi, durationNanos, Long::sum);
+    costCalculationTimesNanos.record(durationNanos);
   }
 
   protected void recordClientDecisionTime(long durationNanos) {
-    if (currentStepIndividualClientDecisionTimesNanos == null) {
-      currentStepIndividualClientDecisionTimesNanos = new ArrayList<>();
-    }
-    currentStepIndividualClientDecisionTimesNanos.add(durationNanos);
+    currentStepMaxClientDecisionTimeNanos =
+        Math.max(currentStepMaxClientDecisionTimeNanos, durationNanos);
+  }
+
+  protected void recordCostCalculationWallClockTime(long durationNanos) {
+    currentStepCostCalculationWallClockTimeNanos += durationNanos;
   }
 
   // --- Reset ---
   private void resetCurrentStepHelpers() {
-    if (currentStepIndividualRqsTimesNanos != null) currentStepIndividualRqsTimesNanos.clear();
-    else currentStepIndividualRqsTimesNanos = new ArrayList<>();
+    currentStepMaxRqsTimeNanos = 0;
 
     if (currentStepTaxiProcessingTimesNanos != null) currentStepTaxiProcessingTimesNanos.clear();
     else currentStepTaxiProcessingTimesNanos = new HashMap<>();
 
-    if (currentStepIndividualClientDecisionTimesNanos != null)
-      currentStepIndividualClientDecisionTimesNanos.clear();
-    else currentStepIndividualClientDecisionTimesNanos = new ArrayList<>();
+    currentStepMaxClientDecisionTimeNanos = 0;
+    currentStepCostCalculationWallClockTimeNanos = 0;
   }
 
   protected void resetOverallTimer() {
-    step_ActualWallClockTimesNanos.clear();
-    step_SimulatedRqsBottleneckTimesNanos.clear();
-    step_SimulatedTaxiBottleneckTimesNanos.clear();
-    step_SimulatedClientDecisionBottleneckTimesNanos.clear();
-    step_SimulatedTotalParallelTimesNanos.clear();
+    step_ActualWallClockTimesNanos.reset();
+    step_SimulatedRqsBottleneckTimesNanos.reset();
+    step_SimulatedTaxiBottleneckTimesNanos.reset();
+    step_SimulatedClientDecisionBottleneckTimesNanos.reset();
+    step_SimulatedTotalParallelTimesNanos.reset();
+    step_ActualCostCalculationWallClockTimesNanos.reset();
+    rqsQueryTimesNanos.reset();
+    costCalculationTimesNanos.reset();
+    lastStepTimes = null;
     resetCurrentStepHelpers();
   }
 
   // --- Logging ---
   protected void logLastStepTimes(long currentSimTime) {
+    if (lastStepTimes == null) {
+      log.info("Times for Simulation Step {}: N/A", currentSimTime);
+      return;
+    }
     log.info(
         """
             Times for Simulation Step {}:
@@ -128,17 +152,15 @@ public class DistributedCalculationTimer {
             Simulated RQS Bottleneck       : {} ns
             Simulated Taxi Bottleneck      : {} ns
             Simulated Client Dec. Bottleneck: {} ns
-            Simulated Total Parallel Time  : {} ns""",
+            Simulated Total Parallel Time  : {} ns
+            Actual Cost Calc. Wall-Clock   : {} ns""",
         currentSimTime,
-        getLastFromList(step_ActualWallClockTimesNanos),
-        getLastFromList(step_SimulatedRqsBottleneckTimesNanos),
-        getLastFromList(step_SimulatedTaxiBottleneckTimesNanos),
-        getLastFromList(step_SimulatedClientDecisionBottleneckTimesNanos),
-        getLastFromList(step_SimulatedTotalParallelTimesNanos));
-  }
-
-  private String getLastFromList(List<Long> list) {
-    return list.isEmpty() ? "N/A" : String.valueOf(list.getLast());
+        lastStepTimes.actualWallClock(),
+        lastStepTimes.simulatedRqsBottleneck(),
+        lastStepTimes.simulatedTaxiBottleneck(),
+        lastStepTimes.simulatedClientDecisionBottleneck(),
+        lastStepTimes.simulatedTotalParallel(),
+        lastStepTimes.actualCostCalculationWallClock());
   }
 
   protected void logTotalAggregatedTimes() {
@@ -149,18 +171,35 @@ public class DistributedCalculationTimer {
             Simulated RQS Bottleneck       : {} ns
             Simulated Taxi Bottleneck      : {} ns
             Simulated Client Dec. Bottleneck: {} ns
-            Simulated Total Parallel Time  : {} ns""",
-        step_ActualWallClockTimesNanos.stream().mapToLong(Long::longValue).sum(),
-        step_SimulatedRqsBottleneckTimesNanos.stream().mapToLong(Long::longValue).sum(),
-        step_SimulatedTaxiBottleneckTimesNanos.stream().mapToLong(Long::longValue).sum(),
-        step_SimulatedClientDecisionBottleneckTimesNanos.stream().mapToLong(Long::longValue).sum(),
-        step_SimulatedTotalParallelTimesNanos.stream().mapToLong(Long::longValue).sum());
+            Simulated Total Parallel Time  : {} ns
+            Actual Cost Calc. Wall-Clock   : {} ns
+            Step Wall-Clock Percentiles    : {}
+            RQS Query Percentiles          : {}
+            Route Cost Calc. Percentiles   : {}""",
+        step_ActualWallClockTimesNanos.getSum(),
+        step_SimulatedRqsBottleneckTimesNanos.getSum(),
+        step_SimulatedTaxiBottleneckTimesNanos.getSum(),
+        step_SimulatedClientDecisionBottleneckTimesNanos.getSum(),
+        step_SimulatedTotalParallelTimesNanos.getSum(),
+        step_ActualCostCalculationWallClockTimesNanos.getSum(),
+        formatPercentiles(step_ActualWallClockTimesNanos),
+        formatPercentiles(rqsQueryTimesNanos),
+        formatPercentiles(costCalculationTimesNanos));
+  }
+
+  private String formatPercentiles(LatencyHistogram histogram) {
+    return "p50 %d ns, p90 %d ns, p99 %d ns, p99.9 %d ns"
+        .formatted(
+            histogram.percentile(50),
+            histogram.percentile(90),
+            histogram.percentile(99),
+            histogram.percentile(99.9));
   }
 
   public Long getLastSimulatedTotalParallelTimeNanos() {
-    if (step_SimulatedTotalParallelTimesNanos.isEmpty()) {
+    if (lastStepTimes == null) {
       return 0L;
     }
-    return step_SimulatedTotalParallelTimesNanos.getLast();
+    return lastStepTimes.simulatedTotalParallel();
   }
 }
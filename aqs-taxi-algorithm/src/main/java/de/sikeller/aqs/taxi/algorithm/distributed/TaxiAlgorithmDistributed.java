@@ -17,29 +17,26 @@ public class TaxiAlgorithmDistributed extends AbstractTaxiAlgorithm {
 
   private final String name = "Distributed";
 
-  private final RangeQuerySystem rangeQuerySystem;
-  private final CostCalculator costCalculator;
+  // the range query system and the cost calculator are selected by the parameters in init
+  private RangeQuerySystem rangeQuerySystem;
+  private CostCalculator costCalculator;
   private final DistributedCalculationTimer timer;
 
   // Map to keep track of the current search radius for each client across simulation steps
   private final Map<Client, Double> clientSearchRadii = new HashMap<>();
 
-  private Map<String, Integer> parameters = new HashMap<>();
   private double referenceTaxiSpeed_kph = 80.0;
 
   public TaxiAlgorithmDistributed() {
-    this.rangeQuerySystem = new SimulatedRangeQuerySystem();
-    this.costCalculator = new SequentialCostCalculator();
     this.timer = new DistributedCalculationTimer();
-    log.info(
-        "TaxiAlgorithmDistributed (re)initialized with SimulatedRQS and SequentialCostCalculator.");
+    this.parameters = new HashMap<>();
   }
 
   @Override
   public void setParameters(Map<String, Integer> parameters) {
-    this.parameters = Objects.requireNonNullElseGet(parameters, HashMap::new);
-    rangeQuerySystem.setParameters(this.parameters);
-    costCalculator.setParameters(this.parameters);
+    super.setParameters(Objects.requireNonNullElseGet(parameters, HashMap::new));
+    if (rangeQuerySystem != null) rangeQuerySystem.setParameters(this.parameters);
+    if (costCalculator != null) costCalculator.setParameters(this.parameters);
   }
 
   @Override
@@ -50,7 +47,13 @@ public class TaxiAlgorithmDistributed extends AbstractTaxiAlgorithm {
         // Factor to increase search radius Factor if no taxi is found
         new AlgorithmParameter("RadiusIncreaseFactor", 2),
         // Calculate also Routes for full (at the time of the request) taxis -> 0 = no 1 = yes
-        new AlgorithmParameter("CalculateFullTaxis", 0));
+        new AlgorithmParameter("CalculateFullTaxis", 0),
+        // Range Query System: 0 = scan all taxis, 1 = segment grid index over the taxi routes
+        new AlgorithmParameter("IndexedRangeQuery", 1),
+        // Cost Calculator: 0 = one candidate taxi after the other, 1 = all candidates in parallel
+        new AlgorithmParameter("ParallelCostCalculation", 0),
+        // Cost Calculator: 0 = copy the route for each insertion, 1 = incremental insertion costs
+        new AlgorithmParameter("InsertionCostCalculation", 1));
   }
 
   @Override
@@ -58,7 +61,7 @@ public class TaxiAlgorithmDistributed extends AbstractTaxiAlgorithm {
     clientSearchRadii.clear();
     timer.resetOverallTimer();
     // Read reference taxi speed from the world in km/h
-    Optional<Taxi> anyTaxi = world.getTaxis().stream().findAny();
+    Optional<Taxi> anyTaxi = world.getTaxiView().stream().findAny();
     this.referenceTaxiSpeed_kph = anyTaxi.map(Taxi::getCurrentSpeed).orElse(80.0);
     this.referenceTaxiSpeed_kph =
         this.referenceTaxiSpeed_kph > 0 ? this.referenceTaxiSpeed_kph : 80.0;
@@ -68,8 +71,34 @@ public class TaxiAlgorithmDistributed extends AbstractTaxiAlgorithm {
         this.referenceTaxiSpeed_kph,
         this.parameters);
     // Pass parameters again in case they changed
+    if (rangeQuerySystem != null) {
+      rangeQuerySystem.close();
+    }
+    rangeQuerySystem = createRangeQuerySystem();
     rangeQuerySystem.setParameters(this.parameters);
+    rangeQuerySystem.init(world);
+    log.info("Using range query system {}", rangeQuerySystem.getClass().getSimpleName());
+    costCalculator = createCostCalculator();
     costCalculator.setParameters(this.parameters);
+    log.info("Using cost calculator {}", costCalculator.getClass().getSimpleName());
+  }
+
+  private RangeQuerySystem createRangeQuerySystem() {
+    if (parameters.getOrDefault("IndexedRangeQuery", 1) != 0) {
+      return new IndexedRangeQuerySystem();
+    }
+    return new SimulatedRangeQuerySystem();
+  }
+
+  private CostCalculator createCostCalculator() {
+    CostCalculator calculator =
+        parameters.getOrDefault("InsertionCostCalculation", 1) != 0
+            ? new InsertionCostCalculator()
+            : new SequentialCostCalculator();
+    if (parameters.getOrDefault("ParallelCostCalculation", 0) != 0) {
+      return new ParallelCostCalculator(calculator);
+    }
+    return calculator;
   }
 
   @Override
@@ -151,33 +180,41 @@ public class TaxiAlgorithmDistributed extends AbstractTaxiAlgorithm {
       if (!candidateTaxis.isEmpty()) {
         // 2. Get offers from candidate taxis
         Map<Taxi, CostCalculationResult> offers = new HashMap<>();
+        List<Taxi> offeringTaxis = new ArrayList<>(candidateTaxis.size());
         for (Taxi taxi : candidateTaxis) {
           if (calculateFullTaxis || taxi.hasCapacity()) {
-            CostCalculationResult calcResult =
-                costCalculator.calculateMarginalCost(taxi, client, maxClientWalkingTime_s);
-            timer.recordSingleTaxiRouteCalcTime(taxi, calcResult.calculationTimeNanos());
-            log.debug("Route Calculation Time(ns): {}", calcResult.calculationTimeNanos());
-
-            if (calcResult.cost() != CostCalculationResult.INFEASIBLE_COST) {
-              offers.put(taxi, calcResult);
-              log.trace(
-                  "Client {} received FEASIBLE offer from Taxi {} with cost {} (calc time: {} ms)",
-                  client.getName(),
-                  taxi.getName(),
-                  calcResult.cost(),
-                  TimeUnit.NANOSECONDS.toMillis(calcResult.calculationTimeNanos()));
-            } else {
-              log.trace(
-                  "Client {} - Taxi {} reported INFEASIBLE Capacity/Time Limit (calc time: {} ms)",
-                  client.getName(),
-                  taxi.getName(),
-                  TimeUnit.NANOSECONDS.toMillis(calcResult.calculationTimeNanos()));
-            }
+            offeringTaxis.add(taxi);
           } else {
             log.trace(
                 "Client {} - Taxi {} skipped (no capacity)", client.getName(), taxi.getName());
           }
         }
+        final long costCalculationStartTimeNanos = System.nanoTime();
+        List<CostCalculationResult> calcResults =
+            costCalculator.calculateMarginalCosts(offeringTaxis, client, maxClientWalkingTime_s);
+        timer.recordCostCalculationWallClockTime(System.nanoTime() - costCalculationStartTimeNanos);
+        for (int i = 0; i < offeringTaxis.size(); i++) {
+          Taxi taxi = offeringTaxis.get(i);
+          CostCalculationResult calcResult = calcResults.get(i);
+          timer.recordSingleTaxiRouteCalcTime(taxi, calcResult.calculationTimeNanos());
+          log.debug("Route Calculation Time(ns): {}", calcResult.calculationTimeNanos());
+
+          if (calcResult.cost() != CostCalculationResult.INFEASIBLE_COST) {
+            offers.put(taxi, calcResult);
+            log.trace(
+                "Client {} received FEASIBLE offer from Taxi {} with cost {} (calc time: {} ms)",
+                client.getName(),
+                taxi.getName(),
+                calcResult.cost(),
+                TimeUnit.NANOSECONDS.toMillis(calcResult.calculationTimeNanos()));
+          } else {
+            log.trace(
+                "Client {} - Taxi {} reported INFEASIBLE Capacity/Time Limit (calc time: {} ms)",
+                client.getName(),
+                taxi.getName(),
+                TimeUnit.NANOSECONDS.toMillis(calcResult.calculationTimeNanos()));
+          }
+        }
 
         clientDecisionBlockStartTimeNanos = System.nanoTime();
 
@@ -2,6 +2,8 @@ package de.sikeller.aqs.taxi.algorithm.distributed.costing;
 
 import de.sikeller.aqs.model.Client;
 import de.sikeller.aqs.model.Taxi;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /** Interface for calculating the marginal cost of adding a new client to a taxi's route. */
@@ -23,6 +25,24 @@ public interface CostCalculator {
   CostCalculationResult calculateMarginalCost(
       Taxi taxi, Client newClient, double maxClientTripTime);
 
+  /**
+   * Calculates the marginal costs of several taxis for the same client. The default
+   * implementation calls {@link #calculateMarginalCost} for one taxi after the other.
+   *
+   * @param taxis The candidate taxis.
+   * @param newClient The new client requesting a ride.
+   * @param maxClientTripTime The maximum permissible total travel time for the new client.
+   * @return The results of the cost calculations in the order of the given taxis.
+   */
+  default List<CostCalculationResult> calculateMarginalCosts(
+      List<Taxi> taxis, Client newClient, double maxClientTripTime) {
+    List<CostCalculationResult> results = new ArrayList<>(taxis.size());
+    for (Taxi taxi : taxis) {
+      results.add(calculateMarginalCost(taxi, newClient, maxClientTripTime));
+    }
+    return results;
+  }
+
   /**
    * Receives parameters from the simulation UI.
    *
@@ -0,0 +1,237 @@
+package de.sikeller.aqs.taxi.algorithm.distributed.costing;
+
+import de.sikeller.aqs.model.*;
+import java.util.*;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link CostCalculator} which finds the same best insertion as the {@link
+ * SequentialCostCalculator} without building a candidate route for each insertion pair.
+ *
+ * <p>The existing route is read once into primitive arrays: the prefix distances along the route,
+ * the distances of every stop to the new pickup and drop off position and the load of the taxi
+ * before every stop. The length, the trip time of the new client and the capacity of an insertion
+ * pair are then derived from these arrays in constant time. Only the route of the best insertion is
+ * materialized. The arrays are reused per thread, so the calculator can also be used by the {@link
+ * ParallelCostCalculator}.
+ *
+ * <p>Routes which are not consistent (e.g. a drop off of a client which is not in the taxi, or a
+ * stop which is pickup and drop off at the same time) are handed to the {@link
+ * SequentialCostCalculator} to keep its exact behavior for these cases.
+ */
+@Slf4j
+public class InsertionCostCalculator implements CostCalculator {
+  private static final double ROUNDING_TOLERANCE_M = 1e-6;
+
+  private final SequentialCostCalculator fallback = new SequentialCostCalculator();
+  private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+  @Override
+  public void setParameters(Map<String, Integer> parameters) {
+    fallback.setParameters(parameters);
+  }
+
+  @Override
+  public CostCalculationResult calculateMarginalCost(
+      Taxi taxi, Client newClient, double maxClientTripTime_s) {
+    final long startTime = System.nanoTime();
+    final double taxiSpeed_mps = taxi.getCurrentSpeed() / 3.6;
+    if (taxiSpeed_mps <= 0) {
+      return fallback.calculateMarginalCost(taxi, newClient, maxClientTripTime_s);
+    }
+
+    TargetList route = taxi.getTargets();
+    Workspace ws = workspaces.get();
+    if (!ws.load(taxi, route, newClient)) {
+      log.trace("Taxi {}: Route not consistent, using sequential calculation", taxi.getName());
+      return fallback.calculateMarginalCost(taxi, newClient, maxClientTripTime_s);
+    }
+
+    final int n = route.size();
+    final int capacity = taxi.getCapacity();
+    final double maxTripDistance_m = maxClientTripTime_s * taxiSpeed_mps;
+    final double originalLength_m = ws.prefix[n];
+    final double directDistance_m = ws.toPickup[n + 1];
+
+    int bestPickup = -1;
+    int bestDropoff = -1;
+    double minNewRouteLength_m = CostCalculationResult.INFEASIBLE_COST;
+
+    if (ws.loadValid && ws.loadBefore[0] <= capacity) {
+      for (int i = 0; i <= n; i++) {
+        // the new client is in the taxi from the pickup before stop i on
+        if (ws.loadBefore[i] + 1 > capacity) continue;
+        double toPickup_m = ws.prefix[i] + ws.toPickup[i];
+        double segmentI_m = i < n ? ws.prefix[i + 1] - ws.prefix[i] : 0;
+
+        // j == i: drop off directly after the pickup
+        double inTaxi_m = directDistance_m;
+        if (withinTripTime(toPickup_m, inTaxi_m, maxClientTripTime_s, taxiSpeed_mps)) {
+          double length_m =
+              originalLength_m
+                  - segmentI_m
+                  + ws.toPickup[i]
+                  + directDistance_m
+                  + (i < n ? ws.toDropoff[i + 1] : 0);
+          if (length_m < minNewRouteLength_m) {
+            minNewRouteLength_m = length_m;
+            bestPickup = i;
+            bestDropoff = i;
+          }
+        }
+        if (i == n) break;
+
+        // j > i: stops i..j-1 are visited with the new client on board
+        double detourPickup_m = ws.toPickup[i] + ws.toPickup[i + 1] - segmentI_m;
+        for (int j = i + 1; j <= n; j++) {
+          int stop = j - 1;
+          if (ws.pickup[stop] && ws.loadBefore[stop + 1] + 1 > capacity) break;
+          inTaxi_m = ws.toPickup[i + 1] + ws.prefix[j] - ws.prefix[i + 1] + ws.toDropoff[j];
+          if (!withinTripTime(toPickup_m, inTaxi_m, maxClientTripTime_s, taxiSpeed_mps)) {
+            // the time in the taxi only grows with later drop offs (up to rounding errors)
+            if (toPickup_m + inTaxi_m > maxTripDistance_m + ROUNDING_TOLERANCE_M) break;
+            continue;
+          }
+          double segmentJ_m = j < n ? ws.prefix[j + 1] - ws.prefix[j] : 0;
+          double length_m =
+              originalLength_m
+                  + detourPickup_m
+                  - segmentJ_m
+                  + ws.toDropoff[j]
+                  + (j < n ? ws.toDropoff[j + 1] : 0);
+          if (length_m < minNewRouteLength_m) {
+            minNewRouteLength_m = length_m;
+            bestPickup = i;
+            bestDropoff = j;
+          }
+        }
+      }
+    }
+
+    List<OrderNode> bestRoute = null;
+    double marginalCost_m = CostCalculationResult.INFEASIBLE_COST;
+    if (bestPickup >= 0) {
+      bestRoute = new ArrayList<>(n + 2);
+      for (int k = 0; k < n; k++) {
+        if (k == bestPickup) bestRoute.add(new OrderNode(newClient, newClient.getPosition()));
+        if (k == bestDropoff) bestRoute.add(new OrderNode(newClient, newClient.getTarget()));
+        bestRoute.add(route.get(k));
+      }
+      if (bestPickup == n) bestRoute.add(new OrderNode(newClient, newClient.getPosition()));
+      if (bestDropoff == n) bestRoute.add(new OrderNode(newClient, newClient.getTarget()));
+      marginalCost_m = Math.max(0, routeLength(taxi.getPosition(), bestRoute) - originalLength_m);
+      log.trace(
+          "Taxi {}: Best insertion for client {} has marginal cost: {}",
+          taxi.getName(),
+          newClient.getName(),
+          marginalCost_m);
+    } else {
+      log.trace(
+          "Taxi {}: No feasible route found to insert client {}",
+          taxi.getName(),
+          newClient.getName());
+    }
+    return new CostCalculationResult(marginalCost_m, System.nanoTime() - startTime, bestRoute);
+  }
+
+  /** Same comparison as the sequential calculator, which compares times and not distances. */
+  private static boolean withinTripTime(
+      double toPickup_m, double inTaxi_m, double maxClientTripTime_s, double taxiSpeed_mps) {
+    return toPickup_m / taxiSpeed_mps + inTaxi_m / taxiSpeed_mps <= maxClientTripTime_s;
+  }
+
+  /** Sums up the route the same way as the sequential calculator to report identical costs. */
+  private static double routeLength(Position start, List<OrderNode> nodes) {
+    double length = 0;
+    Position last = start;
+    for (OrderNode node : nodes) {
+      length += last.distance(node.getPosition());
+      last = node.getPosition();
+    }
+    return length;
+  }
+
+  /** Reusable primitive arrays describing the current route of a taxi. */
+  private static class Workspace {
+    /** prefix[k]: distance from the taxi position to stop k-1 (prefix[0] = 0). */
+    double[] prefix = new double[16];
+
+    /**
+     * toPickup[k]: distance of point k to the new pickup, where point 0 is the taxi position and
+     * point k is stop k-1. toPickup[n + 1] holds the distance from the pickup to the drop off.
+     */
+    double[] toPickup = new double[16];
+
+    /** toDropoff[k]: distance of point k to the new drop off. */
+    double[] toDropoff = new double[16];
+
+    /** loadBefore[k]: passengers in the taxi before stop k, loadBefore[n] after the last stop. */
+    int[] loadBefore = new int[16];
+
+    /** pickup[k]: stop k is a pickup, i.e. a stop where the capacity is checked. */
+    boolean[] pickup = new boolean[16];
+
+    /** False if a pickup of the existing route already exceeds the capacity. */
+    boolean loadValid;
+
+    private final Set<Client> passengers = new HashSet<>();
+
+    /**
+     * Read a route into the arrays.
+     *
+     * @return false if the route is not consistent and has to be calculated sequentially
+     */
+    boolean load(Taxi taxi, TargetList route, Client newClient) {
+      int n = route.size();
+      ensureCapacity(n + 2);
+      Position pickupPosition = newClient.getPosition();
+      Position dropoffPosition = newClient.getTarget();
+      if (pickupPosition.equals(dropoffPosition)) return false;
+
+      passengers.clear();
+      passengers.addAll(taxi.getContainedPassengers());
+      if (passengers.contains(newClient)) return false;
+      int capacity = taxi.getCapacity();
+      loadValid = true;
+      loadBefore[0] = passengers.size();
+
+      Position last = taxi.getPosition();
+      prefix[0] = 0;
+      toPickup[0] = last.distance(pickupPosition);
+      toDropoff[0] = last.distance(dropoffPosition);
+      int k = 0;
+      for (OrderNode node : route) {
+        Client client = node.getClient();
+        Position position = node.getPosition();
+        if (client.equals(newClient)) return false;
+        boolean isPickup = position.equals(client.getPosition());
+        boolean isDropoff = position.equals(client.getTarget());
+        if (isPickup && isDropoff) return false;
+        if (isDropoff && !passengers.remove(client)) return false;
+        if (isPickup) {
+          if (!passengers.add(client)) return false;
+          if (passengers.size() > capacity) loadValid = false;
+        }
+        pickup[k] = isPickup;
+        loadBefore[k + 1] = passengers.size();
+        prefix[k + 1] = prefix[k] + last.distance(position);
+        toPickup[k + 1] = position.distance(pickupPosition);
+        toDropoff[k + 1] = position.distance(dropoffPosition);
+        last = position;
+        k++;
+      }
+      toPickup[n + 1] = pickupPosition.distance(dropoffPosition);
+      return true;
+    }
+
+    private void ensureCapacity(int size) {
+      if (prefix.length >= size) return;
+      int newSize = Math.max(size, prefix.length * 2);
+      prefix = new double[newSize];
+      toPickup = new double[newSize];
+      toDropoff = new double[newSize];
+      loadBefore = new int[newSize];
+      pickup = new boolean[newSize];
+    }
+  }
+}
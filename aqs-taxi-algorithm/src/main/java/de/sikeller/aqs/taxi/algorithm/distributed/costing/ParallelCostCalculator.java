@@ -0,0 +1,52 @@
+package de.sikeller.aqs.taxi.algorithm.distributed.costing;
+
+import de.sikeller.aqs.model.Client;
+import de.sikeller.aqs.model.Taxi;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link CostCalculator} which evaluates all candidate taxis of a client concurrently on the
+ * common fork-join pool, like the taxis of a real distributed system would calculate their offers
+ * in parallel. The cost calculation of a single taxi is delegated to another calculator, which must
+ * only read the taxi and the client.
+ */
+@Slf4j
+public class ParallelCostCalculator implements CostCalculator {
+  private final CostCalculator delegate;
+
+  public ParallelCostCalculator() {
+    this(new SequentialCostCalculator());
+  }
+
+  public ParallelCostCalculator(CostCalculator delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void setParameters(Map<String, Integer> parameters) {
+    delegate.setParameters(parameters);
+  }
+
+  @Override
+  public CostCalculationResult calculateMarginalCost(
+      Taxi taxi, Client newClient, double maxClientTripTime) {
+    return delegate.calculateMarginalCost(taxi, newClient, maxClientTripTime);
+  }
+
+  @Override
+  public List<CostCalculationResult> calculateMarginalCosts(
+      List<Taxi> taxis, Client newClient, double maxClientTripTime) {
+    if (taxis.size() < 2) {
+      return delegate.calculateMarginalCosts(taxis, newClient, maxClientTripTime);
+    }
+    CostCalculationResult[] results = new CostCalculationResult[taxis.size()];
+    Arrays.parallelSetAll(
+        results, i -> delegate.calculateMarginalCost(taxis.get(i), newClient, maxClientTripTime));
+    log.trace(
+        "Calculated {} offers for client {} in parallel", results.length, newClient.getName());
+    return Arrays.asList(results);
+  }
+}
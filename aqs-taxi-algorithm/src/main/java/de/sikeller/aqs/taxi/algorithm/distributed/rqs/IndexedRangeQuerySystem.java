@@ -0,0 +1,207 @@
+package de.sikeller.aqs.taxi.algorithm.distributed.rqs;
+
+import de.sikeller.aqs.model.*;
+import java.util.*;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link RangeQuerySystem} backed by a uniform segment grid over the taxi routes. Each taxi is
+ * registered in all grid cells its route polyline (current position and all planned targets) passes
+ * through. A query only looks at the taxis registered in the cells around the client start position
+ * and checks them exactly, so the result is the same as the one of the {@link
+ * SimulatedRangeQuerySystem} without iterating over all taxis.
+ *
+ * <p>The index is updated incrementally: the world informs this system about every route change
+ * done by the {@link WorldMutator}. Moving along the route or reaching a target does not require an
+ * update, because the remaining route is always covered by the indexed route.
+ *
+ * <p>Search radii which span large parts of the world would visit the same taxis in many cells. If
+ * the cells of a query are expected to hold more entries than there are taxis, all indexed taxis
+ * are checked directly instead.
+ */
+@Slf4j
+public class IndexedRangeQuerySystem implements RangeQuerySystem, RouteListener {
+  /** Default edge length of a grid cell in meters. */
+  public static final int DEFAULT_CELL_SIZE = 1000;
+
+  /** Tolerance for positions which are rounded to integer coordinates while moving. */
+  private static final double ROUNDING_MARGIN = 2.0;
+
+  private final SimulatedRangeQuerySystem exactCheck = new SimulatedRangeQuerySystem();
+  private final int cellSize;
+  private Map<String, Integer> parameters = new HashMap<>();
+  private World world;
+  private int columns;
+  private int rows;
+  private List<Taxi>[] cells;
+  private final Map<Taxi, int[]> taxiCells = new HashMap<>();
+  private long cellEntries = 0;
+
+  public IndexedRangeQuerySystem() {
+    this(DEFAULT_CELL_SIZE);
+  }
+
+  public IndexedRangeQuerySystem(int cellSize) {
+    this.cellSize = cellSize;
+  }
+
+  @Override
+  public void setParameters(Map<String, Integer> parameters) {
+    this.parameters = Objects.requireNonNullElseGet(parameters, HashMap::new);
+    exactCheck.setParameters(this.parameters);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void init(World world) {
+    close();
+    this.world = world;
+    this.columns = Math.max(1, (world.getMaxX() + cellSize - 1) / cellSize);
+    this.rows = Math.max(1, (world.getMaxY() + cellSize - 1) / cellSize);
+    this.cells = new List[columns * rows];
+    this.taxiCells.clear();
+    this.cellEntries = 0;
+    for (Taxi taxi : world.getTaxiView()) {
+      onRouteChanged(taxi);
+    }
+    world.registerRouteListener(this);
+    log.debug("Indexed {} taxi routes in a {}x{} grid", taxiCells.size(), columns, rows);
+  }
+
+  @Override
+  public void close() {
+    if (world != null) {
+      world.removeRouteListener(this);
+    }
+  }
+
+  @Override
+  public Set<Taxi> findTaxisInRange(
+      World world, Position clientStart, Position clientTarget, double searchRadius) {
+    if (this.world != world) {
+      init(world);
+    }
+    final boolean calculateFullTaxis = parameters.getOrDefault("CalculateFullTaxis", 0) != 0;
+    Set<Taxi> candidateTaxis = new HashSet<>();
+    double radius = searchRadius + ROUNDING_MARGIN;
+    int minColumn = column(clientStart.getX() - radius);
+    int maxColumn = column(clientStart.getX() + radius);
+    int minRow = row(clientStart.getY() - radius);
+    int maxRow = row(clientStart.getY() + radius);
+    long windowCells = (long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1);
+    if (windowCells * cellEntries >= (long) taxiCells.size() * cells.length) {
+      for (Taxi taxi : taxiCells.keySet()) {
+        if (!calculateFullTaxis && !taxi.hasCapacity()) continue;
+        if (exactCheck.isTaxiInRange(taxi, clientStart, searchRadius)) {
+          candidateTaxis.add(taxi);
+        }
+      }
+      return candidateTaxis;
+    }
+    Set<Taxi> checked = new HashSet<>();
+    for (int r = minRow; r <= maxRow; r++) {
+      for (int c = minColumn; c <= maxColumn; c++) {
+        List<Taxi> cell = cells[r * columns + c];
+        if (cell == null) continue;
+        for (Taxi taxi : cell) {
+          if (!checked.add(taxi)) continue;
+          if (!calculateFullTaxis && !taxi.hasCapacity()) continue;
+          if (exactCheck.isTaxiInRange(taxi, clientStart, searchRadius)) {
+            candidateTaxis.add(taxi);
+          }
+        }
+      }
+    }
+    return candidateTaxis;
+  }
+
+  /**
+   * Re-index the route of a taxi. Called by the world on every route change.
+   *
+   * @param taxi the taxi with the changed route
+   */
+  @Override
+  public void onRouteChanged(Taxi taxi) {
+    if (cells == null) return;
+    var oldCells = taxiCells.remove(taxi);
+    if (oldCells != null) {
+      for (int cell : oldCells) {
+        removeFromCell(taxi, cell);
+      }
+      cellEntries -= oldCells.length;
+    }
+    var newCells = routeCells(taxi);
+    for (int cell : newCells) {
+      if (cells[cell] == null) {
+        cells[cell] = new ArrayList<>();
+      }
+      cells[cell].add(taxi);
+    }
+    taxiCells.put(taxi, newCells);
+    cellEntries += newCells.length;
+  }
+
+  /** Collect all distinct cells the route polyline of a taxi passes through. */
+  private int[] routeCells(Taxi taxi) {
+    Set<Integer> routeCells = new LinkedHashSet<>();
+    Position last = taxi.getPosition();
+    routeCells.add(cellOf(last.getX(), last.getY()));
+    for (OrderNode node : taxi.getTargets()) {
+      addSegmentCells(last, node.getPosition(), routeCells);
+      last = node.getPosition();
+    }
+    return routeCells.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Add all cells a segment passes through. The segment is cut into vertical slabs (one per grid
+   * column) and for each slab all rows between the lowest and highest point of the segment inside
+   * the slab are added.
+   */
+  private void addSegmentCells(Position a, Position b, Set<Integer> result) {
+    if (a.getX() > b.getX()) {
+      var swap = a;
+      a = b;
+      b = swap;
+    }
+    int firstColumn = column(a.getX());
+    int lastColumn = column(b.getX());
+    double dx = b.getX() - a.getX();
+    double slope = dx == 0 ? 0 : (b.getY() - a.getY()) / dx;
+    for (int c = firstColumn; c <= lastColumn; c++) {
+      double xLeft = Math.max(a.getX(), (double) c * cellSize);
+      double xRight = Math.min(b.getX(), (double) (c + 1) * cellSize);
+      double yLeft = dx == 0 ? a.getY() : a.getY() + (xLeft - a.getX()) * slope;
+      double yRight = dx == 0 ? b.getY() : a.getY() + (xRight - a.getX()) * slope;
+      int firstRow = row(Math.min(yLeft, yRight));
+      int lastRow = row(Math.max(yLeft, yRight));
+      for (int r = firstRow; r <= lastRow; r++) {
+        result.add(r * columns + c);
+      }
+    }
+  }
+
+  private void removeFromCell(Taxi taxi, int cell) {
+    List<Taxi> bucket = cells[cell];
+    if (bucket == null) return;
+    for (int i = 0; i < bucket.size(); i++) {
+      if (bucket.get(i) == taxi) {
+        bucket.set(i, bucket.getLast());
+        bucket.removeLast();
+        return;
+      }
+    }
+  }
+
+  private int cellOf(double x, double y) {
+    return row(y) * columns + column(x);
+  }
+
+  private int column(double x) {
+    return Math.clamp((long) Math.floor(x / cellSize), 0, columns - 1);
+  }
+
+  private int row(double y) {
+    return Math.clamp((long) Math.floor(y / cellSize), 0, rows - 1);
+  }
+}
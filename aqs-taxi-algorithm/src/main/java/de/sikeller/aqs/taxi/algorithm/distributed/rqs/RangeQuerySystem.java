@@ -11,6 +11,19 @@ import de.sikeller.aqs.model.*;
  */
 public interface RangeQuerySystem {
 
+  /**
+   * Initializes the range query system with the given world before a simulation run.
+   *
+   * @param world The world to initialize the range query system with.
+   */
+  default void init(World world) {}
+
+  /**
+   * Releases the range query system if it is replaced, e.g. the listeners it registered in the
+   * world.
+   */
+  default void close() {}
+
   /**
    * Finds taxis within a specified range relevant to a client's requested route.
    *
@@ -22,60 +22,73 @@ public class SimulatedRangeQuerySystem implements RangeQuerySystem {
     List<Position> clientRouteSegment = List.of(clientStart, clientTarget); // Simple direct route
     final boolean calculateFullTaxis = parameters.getOrDefault("CalculateFullTaxis", 0) != 0;
 
-    for (Taxi taxi : world.getTaxis()) {
+    for (Taxi taxi : world.getTaxiView()) {
       if (!calculateFullTaxis && !taxi.hasCapacity()) {
         log.trace("RQS - Taxi {} skipped (no capacity)", taxi.getName());
         continue;
       }
-      if (taxi.isMoving()) {
-        // Taxi is active and has a route
-        List<OrderNode> taxiRouteNodes = taxi.getTargets().toList();
-        if (!taxiRouteNodes.isEmpty()) {
-          // Combine current position with target positions to form route segments
-          List<Position> taxiRoutePoints = new java.util.LinkedList<>();
-          taxiRoutePoints.add(taxi.getPosition()); // Start from current position
-          taxiRoutePoints.addAll(taxiRouteNodes.stream().map(OrderNode::getPosition).toList());
-
-          // --- SIMPLIFIED CHECK ---
-          // Check distance from client start to any point on the taxi's route polyline.
-          // This is an approximation of route overlap/proximity.
-          // A more complex check would involve segment-to-segment distance.
-          if (isClientCloseToTaxiRoute(clientStart, taxiRoutePoints, searchRadius)) {
-            candidateTaxis.add(taxi);
-            log.trace(
-                "Active Taxi {} added as candidate for client at {} (route proximity check)",
-                taxi.getName(),
-                clientStart);
-          }
-        } else {
-          // Taxi is marked as moving but has no targets? Might be an edge case or just finished.
-          // Treat as idle for safety? Or ignore? Let's check distance to current position like
-          // idle.
-          if (taxi.getPosition().distance(clientStart) <= searchRadius) {
-            candidateTaxis.add(taxi);
-            log.trace(
-                "Idle/Empty-Route Taxi {} added as candidate for client at {} (position proximity check)",
-                taxi.getName(),
-                clientStart);
-          }
-        }
+      if (isTaxiInRange(taxi, clientStart, searchRadius)) {
+        candidateTaxis.add(taxi);
+      }
+    }
 
+    return candidateTaxis;
+  }
+
+  /**
+   * Checks if a single taxi is relevant for a client's ride request. A moving taxi is relevant if
+   * its remaining route passes the client start position within the search radius, an idle taxi if
+   * its current position is within the search radius.
+   *
+   * @param taxi The taxi to check.
+   * @param clientStart The starting position of the client's request.
+   * @param searchRadius The radius around the client's start position to search within.
+   * @return True if the taxi is a candidate for the client.
+   */
+  boolean isTaxiInRange(Taxi taxi, Position clientStart, double searchRadius) {
+    if (taxi.isMoving()) {
+      // Taxi is active and has a route
+      TargetList taxiRoute = taxi.getTargets();
+      if (!taxiRoute.isEmpty()) {
+        // --- SIMPLIFIED CHECK ---
+        // Check distance from client start to any point on the taxi's route polyline, which
+        // starts at the current position and continues with the target positions.
+        // This is an approximation of route overlap/proximity.
+        // A more complex check would involve segment-to-segment distance.
+        if (isClientCloseToTaxiRoute(clientStart, taxi.getPosition(), taxiRoute, searchRadius)) {
+          log.trace(
+              "Active Taxi {} added as candidate for client at {} (route proximity check)",
+              taxi.getName(),
+              clientStart);
+          return true;
+        }
       } else {
-        // Taxi is idle (not moving)
-        // Check distance from client start to taxi's current position
-        // TODO: Implement the concept of idle taxis expanding their area later.
-        // For now, just check simple distance.
-        if (taxi.getPosition().distance(clientStart) <= searchRadius) {
-          candidateTaxis.add(taxi);
+        // Taxi is marked as moving but has no targets? Might be an edge case or just finished.
+        // Treat as idle for safety? Or ignore? Let's check distance to current position like
+        // idle.
+        if (taxi.getPosition().isWithin(clientStart, searchRadius)) {
           log.trace(
-              "Idle Taxi {} added as candidate for client at {} (position proximity check)",
+              "Idle/Empty-Route Taxi {} added as candidate for client at {} (position proximity check)",
               taxi.getName(),
               clientStart);
+          return true;
         }
       }
-    }
 
-    return candidateTaxis;
+    } else {
+      // Taxi is idle (not moving)
+      // Check distance from client start to taxi's current position
+      // TODO: Implement the concept of idle taxis expanding their area later.
+      // For now, just check simple distance.
+      if (taxi.getPosition().isWithin(clientStart, searchRadius)) {
+        log.trace(
+            "Idle Taxi {} added as candidate for client at {} (position proximity check)",
+            taxi.getName(),
+            clientStart);
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
@@ -83,29 +96,26 @@ public class SimulatedRangeQuerySystem implements RangeQuerySystem {
    * points).
    *
    * @param point The client's starting point.
-   * @param polylinePoints The list of points defining the taxi's route (including current
-   *     position).
+   * @param start The current position of the taxi, the first point of the polyline.
+   * @param route The planned stops of the taxi, the remaining points of the polyline.
    * @param radius The search radius.
    * @return True if the minimum distance to the point is within radius.
    */
   private boolean isClientCloseToTaxiRoute(
-      Position point, List<Position> polylinePoints, double radius) {
-    if (polylinePoints == null || polylinePoints.size() < 2) {
-      // Need at least 2 points (current pos + 1 target) to form a segment
-      if (polylinePoints != null && polylinePoints.size() == 1) {
-        // Only current position available, check distance to that point
-        return point.distance(polylinePoints.getFirst()) <= radius;
-      }
-      return false; // Not a valid polyline
+      Position point, Position start, TargetList route, double radius) {
+    if (route.isEmpty()) {
+      // Only current position available, check distance to that point
+      return point.isWithin(start, radius);
     }
 
     double minDistanceSq = Double.POSITIVE_INFINITY;
 
     // Iterate through each segment of the polyline
-    for (int i = 0; i < polylinePoints.size() - 1; i++) {
-      Position p1 = polylinePoints.get(i);
-      Position p2 = polylinePoints.get(i + 1);
+    Position p1 = start;
+    for (int i = 0; i < route.size(); i++) {
+      Position p2 = route.getPosition(i);
       minDistanceSq = Math.min(minDistanceSq, pointToSegmentDistanceSq(point, p1, p2));
+      p1 = p2;
     }
 
     // Check if the minimum distance is within the radius
@@ -135,12 +145,11 @@ public class SimulatedRangeQuerySystem implements RangeQuerySystem {
     double t = Math.max(0, Math.min(1, dotProduct / l2)); // Clamp t to [0, 1] for the segment
 
     // Projection falls on the segment
-    Position projection =
-        new Position(
-            (int) Math.round(a.getX() + t * (b.getX() - a.getX())),
-            (int) Math.round(a.getY() + t * (b.getY() - a.getY())));
+    int projectionX = (int) Math.round(a.getX() + t * (b.getX() - a.getX()));
+    int projectionY = (int) Math.round(a.getY() + t * (b.getY() - a.getY()));
 
-    return distanceSq(p, projection); // Squared distance from p to projection
+    // Squared distance from p to projection
+    return Geometry.distanceSquared(p.getX(), p.getY(), projectionX, projectionY);
   }
 
   /**
@@ -151,8 +160,6 @@ public class SimulatedRangeQuerySystem implements RangeQuerySystem {
    * @return Squared distance.
    */
   private double distanceSq(Position p1, Position p2) {
-    double dx = p1.getX() - p2.getX();
-    double dy = p1.getY() - p2.getY();
-    return dx * dx + dy * dy;
+    return Geometry.distanceSquared(p1.getX(), p1.getY(), p2.getX(), p2.getY());
   }
 }
@@ -0,0 +1,119 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class AbstractTaxiAlgorithmTest {
+
+  @Test
+  void nextBatchMatchesOneClientPerStep() {
+    List<Supplier<AbstractTaxiAlgorithm>> algorithms =
+        List.of(
+            TaxiAlgorithmSinglePassenger::new,
+            TaxiAlgorithmShortestToLongestDistance::new,
+            TaxiAlgorithmLongestToShortestDistance::new);
+    for (var algorithm : algorithms) {
+      var stepWorld = world();
+      var step = algorithm.get();
+      step.setParameters(Map.of());
+      int steps = 0;
+      while (step.nextStep(stepWorld).getStatus() == AlgorithmResult.Result.FOUND) {
+        steps++;
+      }
+
+      var batchWorld = world();
+      var batch = algorithm.get();
+      batch.setParameters(Map.of(AbstractTaxiAlgorithm.PARAMETER_BATCH_ASSIGNMENT, 1));
+      assertTrue(batch.isBatchAssignment());
+      assertEquals(AlgorithmResult.Result.FOUND, batch.nextStep(batchWorld).getStatus());
+
+      // every empty taxi got the same client as with one client per step
+      assertEquals(40, steps);
+      assertEquals(plannedClients(stepWorld), plannedClients(batchWorld), step.getName());
+      assertEquals(AlgorithmResult.Result.STOP, batch.nextStep(batchWorld).getStatus());
+    }
+  }
+
+  @Test
+  void nextBatchSkipsClientsPlannedWithEarlierClients() {
+    var world = world();
+    var algorithm = new TaxiAlgorithmGroupByTarget();
+    algorithm.setParameters(
+        Map.of("DetectionRadius", 3000, AbstractTaxiAlgorithm.PARAMETER_BATCH_ASSIGNMENT, 1));
+    assertEquals(AlgorithmResult.Result.FOUND, algorithm.nextStep(world).getStatus());
+
+    var planned = plannedClients(world);
+    Set<String> clients = new HashSet<>();
+    planned.values().forEach(names -> names.forEach(name -> assertTrue(clients.add(name))));
+    // every taxi got a client of the batch and some share their taxi
+    assertEquals(40, planned.size());
+    assertTrue(clients.size() > planned.size());
+    for (Taxi taxi : world.getTaxiView()) {
+      assertTrue(taxi.getContainedPassengers().size() + taxi.getPlannedPassengers().size() <= 4);
+    }
+  }
+
+  @Test
+  void orderBatchSortsByTripDistance() {
+    var world = world();
+    var waitingClients = new ArrayList<>(world.getClientView());
+    var shortest = new TaxiAlgorithmShortestToLongestDistance().orderBatch(waitingClients);
+    var longest = new TaxiAlgorithmLongestToShortestDistance().orderBatch(waitingClients);
+
+    assertEquals(waitingClients.size(), shortest.size());
+    assertEquals(new HashSet<>(waitingClients), new HashSet<>(shortest));
+    var shortestList = new ArrayList<>(shortest);
+    for (int i = 1; i < shortestList.size(); i++) {
+      assertTrue(tripDistance(shortestList.get(i - 1)) <= tripDistance(shortestList.get(i)));
+    }
+    assertEquals(shortestList.reversed(), new ArrayList<>(longest));
+    // the other algorithms keep the order of the waiting clients
+    assertSame(waitingClients, new TaxiAlgorithmSinglePassenger().orderBatch(waitingClients));
+  }
+
+  @Test
+  void batchAssignmentIsReadFromTheParameters() {
+    var algorithm = new TaxiAlgorithmSinglePassenger();
+    assertFalse(algorithm.isBatchAssignment());
+    algorithm.setParameters(Map.of(AbstractTaxiAlgorithm.PARAMETER_BATCH_ASSIGNMENT, 0));
+    assertFalse(algorithm.isBatchAssignment());
+    assertEquals(7, algorithm.getParameter("unknown", 7));
+    algorithm.setParameters(Map.of(AbstractTaxiAlgorithm.PARAMETER_BATCH_ASSIGNMENT, 1));
+    assertTrue(algorithm.isBatchAssignment());
+  }
+
+  private static double tripDistance(Client client) {
+    return client.getPosition().distance(client.getTarget());
+  }
+
+  /** The names of the planned clients by the names of their taxis. */
+  private static Map<String, Set<String>> plannedClients(World world) {
+    Map<String, Set<String>> planned = new TreeMap<>();
+    for (Taxi taxi : world.getTaxiView()) {
+      if (taxi.getPlannedPassengers().isEmpty()) continue;
+      Set<String> names = new HashSet<>();
+      taxi.getPlannedPassengers().forEach(client -> names.add(client.getName()));
+      planned.put(taxi.getName(), names);
+    }
+    return planned;
+  }
+
+  private static WorldObject world() {
+    var random = new Random(31);
+    var world = TestWorlds.world(10000);
+    TestWorlds.addTaxis(world, random, 40, i -> 4);
+    TestWorlds.addClients(world, random, 150, i -> 0, 5);
+    new WorldSimulator(world).move(1);
+    return world;
+  }
+}
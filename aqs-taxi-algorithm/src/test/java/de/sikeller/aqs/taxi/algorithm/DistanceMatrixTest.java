@@ -0,0 +1,94 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.Geometry;
+import de.sikeller.aqs.model.Position;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DistanceMatrixTest {
+
+  @Test
+  void distancesMatchGeometryAfterNodesChanged() {
+    var random = new Random(11);
+    var matrix = new DistanceMatrix();
+    Map<String, Position> nodes = new HashMap<>();
+    int nextKey = 0;
+    for (int step = 0; step < 200; step++) {
+      Map<String, Position> previous = new HashMap<>(nodes);
+      // remove some nodes, move some and add new ones, so released slots are reused
+      nodes.keySet().removeIf(key -> random.nextInt(4) == 0);
+      nodes.replaceAll((key, position) -> random.nextInt(5) == 0 ? position(random) : position);
+      int added = random.nextInt(step % 50 == 0 ? 400 : 20);
+      for (int i = 0; i < added; i++) {
+        nodes.put("n" + nextKey++, position(random));
+      }
+      // a node which was removed in an earlier step comes back
+      if (nextKey > 0) nodes.put("n" + random.nextInt(nextKey), position(random));
+
+      List<String> keys = new ArrayList<>(nodes.keySet());
+      Collections.shuffle(keys, random);
+      update(matrix, keys, nodes);
+
+      long changed = keys.stream().filter(k -> !nodes.get(k).equals(previous.get(k))).count();
+      assertEquals(changed, matrix.getCalculatedRows());
+      assertDistances(matrix, keys, nodes);
+    }
+    assertTrue(nextKey > 1000);
+  }
+
+  @Test
+  void nodesWithoutPositionHaveNoDistance() {
+    var matrix = new DistanceMatrix();
+    Map<String, Position> nodes = new HashMap<>();
+    nodes.put("a", new Position(0, 0));
+    nodes.put("b", new Position(3, 4));
+    nodes.put("depot", null);
+    var keys = List.of("depot", "a", "b");
+    update(matrix, keys, nodes);
+    assertEquals(0, matrix.distance(0, 1));
+    assertEquals(0, matrix.distance(2, 0));
+    assertEquals(5, matrix.distance(1, 2));
+
+    // the depot gets a position and b is replaced by c in its slot
+    nodes.put("depot", new Position(0, 8));
+    nodes.remove("b");
+    nodes.put("c", new Position(6, 8));
+    keys = List.of("c", "a", "depot");
+    update(matrix, keys, nodes);
+    assertEquals(2, matrix.getCalculatedRows());
+    assertDistances(matrix, keys, nodes);
+    assertEquals(6, matrix.distance(0, 2));
+  }
+
+  private static void update(
+      DistanceMatrix matrix, List<String> keys, Map<String, Position> nodes) {
+    matrix.update(
+        keys.toArray(String[]::new), keys.stream().map(nodes::get).toArray(Position[]::new));
+  }
+
+  private static void assertDistances(
+      DistanceMatrix matrix, List<String> keys, Map<String, Position> nodes) {
+    for (int i = 0; i < keys.size(); i++) {
+      var from = nodes.get(keys.get(i));
+      for (int j = 0; j < keys.size(); j++) {
+        var to = nodes.get(keys.get(j));
+        long expected =
+            from == null || to == null
+                ? 0
+                : Math.round(Geometry.distance(from.getX(), from.getY(), to.getX(), to.getY()));
+        assertEquals(expected, matrix.distance(i, j), keys.get(i) + " " + keys.get(j));
+      }
+    }
+  }
+
+  private static Position position(Random random) {
+    return new Position(random.nextInt(40000), random.nextInt(40000));
+  }
+}
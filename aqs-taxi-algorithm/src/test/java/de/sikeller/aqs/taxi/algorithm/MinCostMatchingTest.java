@@ -0,0 +1,139 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class MinCostMatchingTest {
+  private static final long NO_EDGE = -1;
+  private static final long INFEASIBLE = Long.MAX_VALUE;
+
+  @Test
+  void matchesBruteForce() {
+    var random = new Random(37);
+    int moreRows = 0;
+    int unmatchedRows = 0;
+    for (int run = 0; run < 5000; run++) {
+      int rows = 1 + random.nextInt(7);
+      int columns = 1 + random.nextInt(6);
+      double density = random.nextDouble();
+      long[][] costs = new long[rows][columns];
+      for (int row = 0; row < rows; row++) {
+        for (int column = 0; column < columns; column++) {
+          costs[row][column] = random.nextDouble() < density ? random.nextInt(20) : NO_EDGE;
+        }
+      }
+      var matching = matching(costs);
+      int[] rowColumns = matching.solve();
+
+      // the matched rows are the earliest rows which can be matched together
+      long matchedRows = 0;
+      for (int row = 0; row < rows; row++) {
+        if (minCost(costs, matchedRows | 1L << row, 0, 0) != INFEASIBLE) {
+          matchedRows |= 1L << row;
+        }
+      }
+      assertEquals(Long.bitCount(matchedRows), matching.getMatchedCount());
+      assertEquals(maxCardinality(costs, 0, 0), matching.getMatchedCount());
+      long cost = 0;
+      boolean[] usedColumns = new boolean[columns];
+      for (int row = 0; row < rows; row++) {
+        int column = rowColumns[row];
+        assertEquals((matchedRows >> row & 1) != 0, column >= 0, "row " + row);
+        if (column < 0) continue;
+        assertNotEquals(NO_EDGE, costs[row][column]);
+        assertFalse(usedColumns[column]);
+        usedColumns[column] = true;
+        cost += costs[row][column];
+      }
+      assertEquals(cost, matching.getCost());
+      assertEquals(minCost(costs, matchedRows, 0, 0), cost);
+      if (rows > columns) moreRows++;
+      if (Long.bitCount(matchedRows) < rows) unmatchedRows++;
+    }
+    assertTrue(moreRows > 1000);
+    assertTrue(unmatchedRows > 1000);
+  }
+
+  @Test
+  void earlierRowsArePreferredIfThereAreMoreRowsThanColumns() {
+    var matching = matching(new long[][] {{10}, {1}, {0}});
+    assertArrayEquals(new int[] {0, -1, -1}, matching.solve());
+    assertEquals(10, matching.getCost());
+    assertEquals(1, matching.getMatchedCount());
+  }
+
+  @Test
+  void rowsWithoutEdgesAreNotMatched() {
+    var matching = matching(new long[][] {{NO_EDGE, NO_EDGE}, {3, 4}, {NO_EDGE, NO_EDGE}, {1, 9}});
+    assertArrayEquals(new int[] {-1, 1, -1, 0}, matching.solve());
+    assertEquals(5, matching.getCost());
+    assertEquals(2, matching.getMatchedCount());
+  }
+
+  @Test
+  void nodesWithoutAugmentingPathAreSkippedByLaterRows() {
+    // row 1 can not be matched, so row 0, row 1 and column 0 are pruned, but row 2 still finds
+    // column 1 and row 3 column 2 through the reassignment of row 2
+    var matching =
+        matching(
+            new long[][] {
+              {1, NO_EDGE, NO_EDGE},
+              {0, NO_EDGE, NO_EDGE},
+              {0, 5, 2},
+              {NO_EDGE, NO_EDGE, 1},
+            });
+    assertArrayEquals(new int[] {0, -1, 1, 2}, matching.solve());
+    assertEquals(1 + 5 + 1, matching.getCost());
+    assertEquals(3, matching.getMatchedCount());
+  }
+
+  /** Build the sparse graph of a cost matrix, {@link #NO_EDGE} is a missing edge. */
+  private static MinCostMatching matching(long[][] costs) {
+    int columns = costs[0].length;
+    int[] edgeStarts = new int[costs.length + 1];
+    List<Integer> edgeColumns = new ArrayList<>();
+    List<Long> edgeCosts = new ArrayList<>();
+    for (int row = 0; row < costs.length; row++) {
+      edgeStarts[row] = edgeColumns.size();
+      for (int column = 0; column < columns; column++) {
+        if (costs[row][column] == NO_EDGE) continue;
+        edgeColumns.add(column);
+        edgeCosts.add(costs[row][column]);
+      }
+    }
+    edgeStarts[costs.length] = edgeColumns.size();
+    return new MinCostMatching(
+        costs.length,
+        columns,
+        edgeStarts,
+        edgeColumns.stream().mapToInt(Integer::intValue).toArray(),
+        edgeCosts.stream().mapToLong(Long::longValue).toArray());
+  }
+
+  /** The minimum cost of a matching of exactly the given rows or {@link #INFEASIBLE}. */
+  private static long minCost(long[][] costs, long rows, int row, int usedColumns) {
+    if (row == costs.length) return 0;
+    if ((rows >> row & 1) == 0) return minCost(costs, rows, row + 1, usedColumns);
+    long best = INFEASIBLE;
+    for (int column = 0; column < costs[row].length; column++) {
+      if (costs[row][column] == NO_EDGE || (usedColumns >> column & 1) != 0) continue;
+      long rest = minCost(costs, rows, row + 1, usedColumns | 1 << column);
+      if (rest != INFEASIBLE) best = Math.min(best, costs[row][column] + rest);
+    }
+    return best;
+  }
+
+  private static int maxCardinality(long[][] costs, int row, int usedColumns) {
+    if (row == costs.length) return 0;
+    int best = maxCardinality(costs, row + 1, usedColumns);
+    for (int column = 0; column < costs[row].length; column++) {
+      if (costs[row][column] == NO_EDGE || (usedColumns >> column & 1) != 0) continue;
+      best = Math.max(best, 1 + maxCardinality(costs, row + 1, usedColumns | 1 << column));
+    }
+    return best;
+  }
+}
@@ -0,0 +1,32 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.*;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class TaxiAlgorithmMinCostMatchingTest {
+
+  @Test
+  void clientWhichWaitsLongerIsPreferred() {
+    var world = WorldObject.builder().maxX(10000).maxY(10000).build();
+    world.addTaxi("t0", 2, new Position(0, 0), 50);
+    // the client which is added first spawns later and is nearer to the taxi
+    world.addClient("late", 5, new Position(100, 0), new Position(100, 5000), 0);
+    world.addClient("early", 0, new Position(5000, 0), new Position(5000, 5000), 0);
+    new WorldSimulator(world).move(6);
+    var algorithm = new TaxiAlgorithmMinCostMatching();
+    algorithm.setParameters(Map.of());
+
+    assertEquals(AlgorithmResult.Result.FOUND, algorithm.nextStep(world).getStatus());
+
+    var taxi = world.getTaxiView().iterator().next();
+    assertEquals(Set.of("early"), names(taxi.getPlannedPassengers()));
+  }
+
+  private static Set<String> names(Set<Client> clients) {
+    return Set.copyOf(clients.stream().map(Client::getName).toList());
+  }
+}
@@ -0,0 +1,157 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.*;
+import de.sikeller.aqs.taxi.algorithm.TaxiAlgorithmVehicleRoutingDecomposed.Region;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import org.junit.jupiter.api.Test;
+
+class TaxiAlgorithmVehicleRoutingDecomposedTest {
+
+  @Test
+  void taxisAreDistributedInProportionToClients() {
+    var random = new Random(13);
+    var world = TestWorlds.world(10000);
+    addClients(world, random, 60, 0, 0);
+    addClients(world, random, 30, 9000, 0);
+    addClients(world, random, 10, 0, 9000);
+    TestWorlds.addTaxis(world, random, 20, i -> 2);
+    new WorldSimulator(world).move(1);
+
+    var regions = partition(world, 3);
+
+    assertEquals(List.of(10, 30, 60), sorted(regions, r -> r.clients().size()));
+    assertEquals(List.of(2, 6, 12), sorted(regions, r -> r.taxis().size()));
+    for (Region region : regions) {
+      assertEquals(region.clients().size() / 5, region.taxis().size());
+    }
+  }
+
+  @Test
+  void everyRegionWithClientsGetsATaxi() {
+    var random = new Random(17);
+    var world = TestWorlds.world(10000);
+    addClients(world, random, 97, 0, 0);
+    addClients(world, random, 2, 9000, 0);
+    addClients(world, random, 1, 0, 9000);
+    for (int i = 0; i < 10; i++) {
+      world.addTaxi("t" + i, 2, TestWorlds.randomPosition(random, 0, 0, 1000), 50);
+    }
+    new WorldSimulator(world).move(1);
+
+    var regions = partition(world, 3);
+
+    assertEquals(List.of(1, 2, 97), sorted(regions, r -> r.clients().size()));
+    assertEquals(List.of(1, 1, 8), sorted(regions, r -> r.taxis().size()));
+  }
+
+  @Test
+  void passengersStayWithTheirTaxi() {
+    var random = new Random(19);
+    var world = TestWorlds.world(10000);
+    addClients(world, random, 30, 0, 0);
+    addClients(world, random, 30, 9000, 0);
+    // all taxis are near the first region, the taxis with passengers are the farthest ones
+    for (int i = 0; i < 8; i++) {
+      world.addTaxi("t" + i, 2, TestWorlds.randomPosition(random, 0, 0, 1000), 50);
+    }
+    world.addTaxi("p0", 2, new Position(3000, 500), 50);
+    world.addTaxi("p1", 2, new Position(3000, 600), 50);
+    world.addClient("c-p0", 0, new Position(3000, 500), new Position(3000, 9000), 5);
+    world.addClient("c-p1", 0, new Position(3000, 600), new Position(3000, 9000), 5);
+    var simulator = new WorldSimulator(world);
+    simulator.move(1);
+    for (String name : List.of("p0", "p1")) {
+      world
+          .mutate()
+          .planClientForTaxi(
+              taxi(world, name), client(world, "c-" + name), TargetList.sequentialOrders);
+    }
+    simulator.move(3);
+
+    var regions = partition(world, 2);
+
+    int passengers = 0;
+    for (Region region : regions) {
+      for (Taxi taxi : region.taxis()) {
+        for (Client passenger : taxi.getContainedPassengers()) {
+          assertTrue(region.clients().contains(passenger), passenger.getName());
+          passengers++;
+        }
+      }
+    }
+    assertEquals(2, passengers);
+    // the passengers are in the first cluster, but their taxis are needed in the second region
+    var second = regions[0].taxis().contains(taxi(world, "p0")) ? regions[0] : regions[1];
+    assertTrue(second.taxis().contains(taxi(world, "p1")));
+    assertEquals(30 + 2, second.clients().size());
+  }
+
+  @Test
+  void clientsOfRegionsWithoutTaxiAreAddedToTheNearestRegion() {
+    var random = new Random(23);
+    var world = TestWorlds.world(10000);
+    addClients(world, random, 20, 0, 0);
+    addClients(world, random, 20, 9000, 0);
+    addClients(world, random, 20, 9000, 3000);
+    addClients(world, random, 20, 0, 9000);
+    world.addTaxi("t0", 2, new Position(500, 500), 50);
+    world.addTaxi("t1", 2, new Position(9500, 500), 50);
+    new WorldSimulator(world).move(1);
+
+    var regions = partition(world, 4);
+
+    for (Region region : regions) {
+      if (region.taxis().isEmpty()) assertTrue(region.clients().isEmpty());
+    }
+    var t1 = Arrays.stream(regions).filter(r -> r.taxis().contains(taxi(world, "t1"))).findFirst();
+    assertEquals(40, t1.orElseThrow().clients().size());
+    assertEquals(List.of(0, 0, 1, 1), sorted(regions, r -> r.taxis().size()));
+    assertEquals(List.of(0, 0, 40, 40), sorted(regions, r -> r.clients().size()));
+  }
+
+  /** Partition the world and check that every taxi and client is in exactly one region. */
+  private static Region[] partition(World world, int regionCount) {
+    List<Taxi> taxis = new ArrayList<>(world.getTaxiView());
+    List<Client> clients = new ArrayList<>(world.getClientView());
+    var regions = TaxiAlgorithmVehicleRoutingDecomposed.partition(taxis, clients, regionCount);
+    assertEquals(regionCount, regions.length);
+    var regionTaxis = Arrays.stream(regions).flatMap(r -> r.taxis().stream()).toList();
+    var regionClients = Arrays.stream(regions).flatMap(r -> r.clients().stream()).toList();
+    assertEquals(taxis.size(), regionTaxis.size());
+    assertEquals(new HashSet<>(taxis), new HashSet<>(regionTaxis));
+    assertEquals(clients.size(), regionClients.size());
+    assertEquals(new HashSet<>(clients), new HashSet<>(regionClients));
+    return regions;
+  }
+
+  private static List<Integer> sorted(Region[] regions, ToIntFunction<Region> size) {
+    return Arrays.stream(regions).map(size::applyAsInt).sorted().toList();
+  }
+
+  private static void addClients(WorldObject world, Random random, int count, int x, int y) {
+    int offset = world.getClientView().size();
+    for (int i = 0; i < count; i++) {
+      world.addClient(
+          "c" + (offset + i),
+          0,
+          TestWorlds.randomPosition(random, x, y, 1000),
+          TestWorlds.randomPosition(random, world),
+          5);
+    }
+  }
+
+  private static Taxi taxi(World world, String name) {
+    return world.getTaxiView().stream().filter(t -> t.getName().equals(name)).findFirst().get();
+  }
+
+  private static Client client(World world, String name) {
+    return world.getClientView().stream().filter(c -> c.getName().equals(name)).findFirst().get();
+  }
+}
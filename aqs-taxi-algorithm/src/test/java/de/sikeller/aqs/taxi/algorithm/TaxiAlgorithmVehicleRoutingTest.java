@@ -0,0 +1,56 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.*;
+import de.sikeller.aqs.model.events.EventClientEntersTaxi;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class TaxiAlgorithmVehicleRoutingTest {
+
+  @Test
+  void rollingHorizonKeepsPassengersInTheirTaxi() {
+    var random = new Random(29);
+    var world = TestWorlds.world(5000);
+    TestWorlds.addTaxis(world, random, 6, i -> 3);
+    TestWorlds.addClients(world, random, 60, i -> random.nextInt(600), 0);
+    var algorithm = new TaxiAlgorithmVehicleRouting();
+    algorithm.setParameters(Map.of("RollingHorizon", 1, "OpenStops", 2, "TimeLimitMillis", 200));
+    algorithm.init(world);
+    var simulator = new WorldSimulator(world);
+
+    int steps = 0;
+    for (long time = 1; !world.isFinished() && time < 5000; time++) {
+      simulator.move(time);
+      if (time % 10 != 0) continue;
+      Map<Taxi, Set<Client>> passengers = new HashMap<>();
+      world.getTaxiView().forEach(taxi -> passengers.put(taxi, taxi.getContainedPassengers()));
+      assertNotEquals(AlgorithmResult.Result.EXCEPTION, algorithm.nextStep(world).getStatus());
+      steps++;
+      for (Taxi taxi : world.getTaxiView()) {
+        assertEquals(passengers.get(taxi), taxi.getContainedPassengers(), taxi.getName());
+        for (Client passenger : passengers.get(taxi)) {
+          assertTrue(
+              taxi.getTargets().toList().contains(new OrderNode(passenger, passenger.getTarget())),
+              passenger.getName());
+        }
+      }
+    }
+
+    assertTrue(world.isFinished());
+    assertTrue(steps > 20);
+    // a passenger which is dropped is picked up again, so every client enters a taxi only once
+    var entered =
+        world.getContext().getEventDispatcher().getAll().stream()
+            .filter(EventClientEntersTaxi.class::isInstance)
+            .map(event -> ((EventClientEntersTaxi) event).getClient().getName())
+            .toList();
+    assertEquals(world.getClientView().size(), entered.size());
+    assertEquals(entered.size(), new HashSet<>(entered).size());
+  }
+}
@@ -0,0 +1,87 @@
+package de.sikeller.aqs.taxi.algorithm;
+
+import de.sikeller.aqs.model.Position;
+import de.sikeller.aqs.model.World;
+import de.sikeller.aqs.model.WorldObject;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+/** Creates the random worlds of the algorithm tests. */
+public final class TestWorlds {
+
+  private TestWorlds() {}
+
+  /**
+   * Create an empty square world.
+   *
+   * @param size the width and height of the world
+   * @return the world
+   */
+  public static WorldObject world(int size) {
+    return WorldObject.builder().maxX(size).maxY(size).build();
+  }
+
+  /**
+   * Add taxis at random positions of the world, named "t0", "t1", ... after the prefix.
+   *
+   * @param world the world
+   * @param random the random of the positions
+   * @param prefix the prefix of the names
+   * @param count the number of taxis with a speed of 50
+   * @param seats the seat count of the i-th taxi
+   */
+  public static void addTaxis(
+      WorldObject world, Random random, String prefix, int count, IntUnaryOperator seats) {
+    for (int i = 0; i < count; i++) {
+      world.addTaxi(prefix + "t" + i, seats.applyAsInt(i), randomPosition(random, world), 50);
+    }
+  }
+
+  /** Add taxis at random positions of the world, named "t0", "t1", ... */
+  public static void addTaxis(WorldObject world, Random random, int count, IntUnaryOperator seats) {
+    addTaxis(world, random, "", count, seats);
+  }
+
+  /**
+   * Add clients at random positions with random targets, named "c0", "c1", ... after the prefix.
+   *
+   * @param world the world
+   * @param random the random of the positions
+   * @param prefix the prefix of the names
+   * @param count the number of clients
+   * @param spawnTime the spawn time of the i-th client, it is taken before its positions
+   * @param speed the walking speed of the clients
+   */
+  public static void addClients(
+      WorldObject world,
+      Random random,
+      String prefix,
+      int count,
+      IntUnaryOperator spawnTime,
+      int speed) {
+    for (int i = 0; i < count; i++) {
+      world.addClient(
+          prefix + "c" + i,
+          spawnTime.applyAsInt(i),
+          randomPosition(random, world),
+          randomPosition(random, world),
+          speed);
+    }
+  }
+
+  /** Add clients at random positions with random targets, named "c0", "c1", ... */
+  public static void addClients(
+      WorldObject world, Random random, int count, IntUnaryOperator spawnTime, int speed) {
+    addClients(world, random, "", count, spawnTime, speed);
+  }
+
+  /** A random position inside the world. */
+  public static Position randomPosition(Random random, World world) {
+    return randomPosition(random, 0, 0, world.getMaxX());
+  }
+
+  /** A random position inside the square of the given size with its lower corner at x, y. */
+  public static Position randomPosition(Random random, int x, int y, int size) {
+    return new Position(x + random.nextInt(size), y + random.nextInt(size));
+  }
+}
@@ -0,0 +1,103 @@
+package de.sikeller.aqs.taxi.algorithm.distributed.costing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.*;
+import de.sikeller.aqs.taxi.algorithm.TestWorlds;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class InsertionCostCalculatorTest {
+
+  @Test
+  void offersMatchSequentialCostCalculator() {
+    var random = new Random(5);
+    var world = TestWorlds.world(10000);
+    TestWorlds.addTaxis(world, random, 150, i -> 1 + i % 4);
+    TestWorlds.addClients(world, random, 600, i -> 2 * i, 5);
+    var sequential = new SequentialCostCalculator();
+    var insertion = new InsertionCostCalculator();
+    var simulator = new WorldSimulator(world);
+
+    int offers = 0;
+    int feasible = 0;
+    int fullTaxis = 0;
+    int onboardTaxis = 0;
+    for (long time = 1; time <= 1200; time++) {
+      simulator.move(time);
+      for (Client client : world.getClientsByModes(Set.of(ClientMode.WAITING), true)) {
+        double maxTripTime = maxTripTime(client, random);
+        CostCalculationResult best = null;
+        Taxi bestTaxi = null;
+        for (var nearest : world.findNearestTaxis(client.getPosition(), 8, t -> true)) {
+          var taxi = nearest.v1();
+          var expected = sequential.calculateMarginalCost(taxi, client, maxTripTime);
+          var actual = insertion.calculateMarginalCost(taxi, client, maxTripTime);
+          assertEquals(expected.cost(), actual.cost(), taxi.getName() + " " + client.getName());
+          assertEquals(expected.optimalRoute(), actual.optimalRoute());
+          offers++;
+          if (!taxi.hasCapacity()) fullTaxis++;
+          if (!taxi.getContainedPassengers().isEmpty()) onboardTaxis++;
+          if (expected.cost() == CostCalculationResult.INFEASIBLE_COST) continue;
+          feasible++;
+          if (best == null || expected.cost() < best.cost()) {
+            best = expected;
+            bestTaxi = taxi;
+          }
+        }
+        // build interleaved routes like the distributed algorithm
+        if (best != null) {
+          List<OrderNode> route = best.optimalRoute();
+          world.mutate().planClientForTaxi(bestTaxi, client, TargetList.sequentialOrders);
+          world.mutate().planOrderPath(bestTaxi, orders -> route);
+        }
+      }
+    }
+
+    assertTrue(offers > 4000);
+    assertTrue(feasible > 1000);
+    assertTrue(fullTaxis > 1000);
+    assertTrue(onboardTaxis > 1000);
+  }
+
+  @Test
+  void fullTaxiPicksUpAfterPassengerLeft() {
+    var world = WorldObject.builder().maxX(1000).maxY(1000).build();
+    world.addTaxi("t0", 1, new Position(0, 0), 36);
+    world.addClient("c0", 0, new Position(10, 0), new Position(900, 0), 0);
+    world.addClient("c1", 0, new Position(500, 0), new Position(600, 0), 0);
+    var simulator = new WorldSimulator(world);
+    simulator.move(1);
+    var taxi = world.getTaxiView().iterator().next();
+    var clients = world.getClientView().iterator();
+    var passenger = clients.next();
+    var client = clients.next();
+    world.mutate().planClientForTaxi(taxi, passenger, TargetList.sequentialOrders);
+    simulator.move(3);
+    assertEquals(ClientMode.MOVING, passenger.getMode());
+
+    var expected = new SequentialCostCalculator().calculateMarginalCost(taxi, client, 1e6);
+    var actual = new InsertionCostCalculator().calculateMarginalCost(taxi, client, 1e6);
+
+    // the client can only be picked up after the passenger left the taxi
+    assertEquals(expected.cost(), actual.cost());
+    assertEquals(expected.optimalRoute(), actual.optimalRoute());
+    assertEquals(List.of(passenger, client, client), clientsOf(actual.optimalRoute()));
+  }
+
+  private static List<Client> clientsOf(List<OrderNode> route) {
+    return route.stream().map(OrderNode::getClient).toList();
+  }
+
+  /** No limit, the walking time of the client as in the distributed algorithm, or a tight limit. */
+  private static double maxTripTime(Client client, Random random) {
+    double walkingTime = client.getPosition().distance(client.getTarget()) / (5 / 3.6);
+    return switch (random.nextInt(3)) {
+      case 0 -> Double.POSITIVE_INFINITY;
+      case 1 -> walkingTime;
+      default -> walkingTime / 8;
+    };
+  }
+}
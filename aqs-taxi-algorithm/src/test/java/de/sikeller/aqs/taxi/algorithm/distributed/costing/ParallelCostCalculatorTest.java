@@ -0,0 +1,63 @@
+package de.sikeller.aqs.taxi.algorithm.distributed.costing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.*;
+import de.sikeller.aqs.taxi.algorithm.TestWorlds;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ParallelCostCalculatorTest {
+
+  @Test
+  void offersMatchDelegateInOrderOfTaxis() {
+    var random = new Random(9);
+    var world = TestWorlds.world(10000);
+    TestWorlds.addTaxis(world, random, 200, i -> 2);
+    TestWorlds.addClients(world, random, 100, i -> 0, 5);
+    new WorldSimulator(world).move(1);
+    List<Taxi> taxis = new ArrayList<>(world.getTaxiView());
+    List<Client> clients = new ArrayList<>(world.getClientView());
+    // give half of the taxis a route
+    for (int i = 0; i < clients.size(); i += 2) {
+      world.mutate().planClientForTaxi(taxis.get(i), clients.get(i), TargetList.sequentialOrders);
+    }
+
+    for (CostCalculator delegate :
+        List.of(new SequentialCostCalculator(), new InsertionCostCalculator())) {
+      var parallel = new ParallelCostCalculator(delegate);
+      for (int c = 1; c < clients.size(); c += 10) {
+        var client = clients.get(c);
+        var actual = parallel.calculateMarginalCosts(taxis, client, Double.POSITIVE_INFINITY);
+        assertEquals(taxis.size(), actual.size());
+        for (int t = 0; t < taxis.size(); t++) {
+          var expected =
+              delegate.calculateMarginalCost(taxis.get(t), client, Double.POSITIVE_INFINITY);
+          assertEquals(expected.cost(), actual.get(t).cost());
+          assertEquals(expected.optimalRoute(), actual.get(t).optimalRoute());
+        }
+      }
+    }
+  }
+
+  @Test
+  void calculatesSmallCandidateListsDirectly() {
+    var world = WorldObject.builder().maxX(1000).maxY(1000).build();
+    world.addTaxi("t0", 2, new Position(0, 0), 36);
+    world.addClient("c0", 0, new Position(100, 0), new Position(500, 0), 5);
+    new WorldSimulator(world).move(1);
+    var taxi = world.getTaxiView().iterator().next();
+    var client = world.getClientView().iterator().next();
+    var parallel = new ParallelCostCalculator();
+
+    assertTrue(parallel.calculateMarginalCosts(List.of(), client, 1e6).isEmpty());
+    var results = parallel.calculateMarginalCosts(List.of(taxi), client, 1e6);
+    assertEquals(1, results.size());
+    assertEquals(500, results.getFirst().cost(), 1e-9);
+    assertEquals(
+        CostCalculationResult.INFEASIBLE_COST,
+        parallel.calculateMarginalCost(taxi, client, 1).cost());
+  }
+}
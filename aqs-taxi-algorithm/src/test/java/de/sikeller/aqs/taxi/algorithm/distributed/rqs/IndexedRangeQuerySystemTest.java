@@ -0,0 +1,91 @@
+package de.sikeller.aqs.taxi.algorithm.distributed.rqs;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.sikeller.aqs.model.*;
+import de.sikeller.aqs.taxi.algorithm.TestWorlds;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IndexedRangeQuerySystemTest {
+
+  @Test
+  void findTaxisInRangeMatchesSimulatedRangeQuerySystem() {
+    for (int calculateFullTaxis = 0; calculateFullTaxis <= 1; calculateFullTaxis++) {
+      var random = new Random(11);
+      var world = plannedWorld(random, "");
+      var parameters = Map.of("CalculateFullTaxis", calculateFullTaxis);
+      var simulated = new SimulatedRangeQuerySystem();
+      simulated.setParameters(parameters);
+      var indexed = new IndexedRangeQuerySystem(500);
+      indexed.setParameters(parameters);
+      indexed.init(world);
+
+      var simulator = new WorldSimulator(world);
+      var waitingClients =
+          world.getClientView().stream().filter(Client::isWaiting).toList().iterator();
+      int found = 0;
+      for (long time = 11; time <= 600; time += 10) {
+        simulator.move(time);
+        // change some routes while the taxis are moving
+        for (int i = 0; i < 5 && waitingClients.hasNext(); i++) {
+          var client = waitingClients.next();
+          var taxi = world.findNearestTaxis(client.getPosition(), 1, t -> true).getFirst().v1();
+          world.mutate().planClientForTaxi(taxi, client, TargetList.sequentialOrders);
+        }
+        for (int q = 0; q < 20; q++) {
+          var start = TestWorlds.randomPosition(random, world);
+          var target = TestWorlds.randomPosition(random, world);
+          double radius = random.nextInt(q % 5 == 0 ? 8000 : 800);
+          var expected = simulated.findTaxisInRange(world, start, target, radius);
+          assertEquals(expected, indexed.findTaxisInRange(world, start, target, radius));
+          found += expected.size();
+        }
+      }
+      assertTrue(found > 0);
+    }
+  }
+
+  @Test
+  void initRemovesListenerOfPreviousWorld() {
+    var random = new Random(3);
+    var previousWorld = plannedWorld(random, "previous-");
+    var world = plannedWorld(random, "");
+    var parameters = Map.of("CalculateFullTaxis", 1);
+    var indexed = new IndexedRangeQuerySystem(500);
+    indexed.setParameters(parameters);
+    indexed.init(previousWorld);
+    indexed.init(world);
+
+    // a route change in the previous world must not add its taxi to the index of the new world
+    var taxi = previousWorld.getTaxiView().iterator().next();
+    var client = previousWorld.getClientView().stream().filter(Client::isWaiting).findFirst();
+    previousWorld
+        .mutate()
+        .planClientForTaxi(taxi, client.orElseThrow(), TargetList.sequentialOrders);
+
+    var found = indexed.findTaxisInRange(world, taxi.getPosition(), taxi.getPosition(), 100);
+    assertFalse(found.contains(taxi));
+    var simulated = new SimulatedRangeQuerySystem();
+    simulated.setParameters(parameters);
+    assertEquals(
+        simulated.findTaxisInRange(world, taxi.getPosition(), taxi.getPosition(), 100), found);
+  }
+
+  private static WorldObject plannedWorld(Random random, String prefix) {
+    var world = TestWorlds.world(10000);
+    TestWorlds.addTaxis(world, random, prefix, 200, i -> 2);
+    TestWorlds.addClients(world, random, prefix, 600, i -> 0, 5);
+    var simulator = new WorldSimulator(world);
+    simulator.move(10);
+    var taxis = world.getTaxiView().iterator();
+    for (Client client : world.getClientView()) {
+      if (!taxis.hasNext()) break;
+      if (client.getName().hashCode() % 3 == 0) {
+        world.mutate().planClientForTaxi(taxis.next(), client, TargetList.sequentialOrders);
+      }
+    }
+    return world;
+  }
+}
@@ -8,6 +8,7 @@ import java.awt.*;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.NumberFormat;
+import java.util.regex.Pattern;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import lombok.extern.slf4j.Slf4j;
@@ -27,12 +28,16 @@ import org.jfree.data.category.DefaultCategoryDataset;
 @Slf4j
 public class ResultVisualization extends AbstractVisualization {
 
+  /** The columns of the percentiles in the result table, e.g. P50 or P99.9. */
+  private static final Pattern PERCENTILE_COLUMN = Pattern.compile("P\\d+(\\.\\d+)?");
+
   private JTable table;
   private DefaultTableModel model;
   private JPanel chartPanel;
   private final DefaultCategoryDataset taxiDataset = new DefaultCategoryDataset();
   private final DefaultCategoryDataset clientDataset = new DefaultCategoryDataset();
   private final DefaultCategoryDataset timeDataset = new DefaultCategoryDataset();
+  private final DefaultCategoryDataset timePercentileDataset = new DefaultCategoryDataset();
 
   public ResultVisualization() {
     super("Taxi Scenario Results");
@@ -85,6 +90,9 @@ public class ResultVisualization extends AbstractVisualization {
         createBarChart("Taxi Travel Distance", null, "Distance in Kilometers", taxiDataset));
     chartPanel.add(createBarChart("Client Travel Time", null, "Time in Minutes", clientDataset));
     chartPanel.add(createBarChart("Calculation Time", null, "Time in Millis", timeDataset));
+    chartPanel.add(
+        createBarChart(
+            "Calculation Time Percentiles", null, "Time in Millis", timePercentileDataset));
     frame.pack();
   }
 
@@ -157,9 +165,19 @@ public class ResultVisualization extends AbstractVisualization {
     }
     // only show average value for time calculation (column 3):
     timeDataset.addValue(resultTable.getDouble(2, 3), algorithmRun, resultTable.getColumns()[3]);
+    // percentiles of the time calculation (columns P50, P90, ...):
+    for (int i = 0; i < resultTable.getColumns().length; i++) {
+      if (!isPercentileColumn(resultTable.getColumns()[i])) continue;
+      timePercentileDataset.addValue(
+          resultTable.getDouble(2, i), algorithmRun, resultTable.getColumns()[i]);
+    }
     frame.pack();
   }
 
+  private static boolean isPercentileColumn(String column) {
+    return PERCENTILE_COLUMN.matcher(column).matches();
+  }
+
   public void openResults() {
     frame.setVisible(true);
   }
@@ -194,6 +212,7 @@ public class ResultVisualization extends AbstractVisualization {
     taxiDataset.clear();
     clientDataset.clear();
     timeDataset.clear();
+    timePercentileDataset.clear();
     SwingUtilities.updateComponentTreeUI(table);
   }
 
@@ -79,7 +79,7 @@ public class TaxiScenarioCanvas extends JPanel {
     var background = new BackgroundDrawing(visuProperties, world.getCurrentTime());
     background.printBackgroundShape(g2d, widthRatio, heightRatio, canvasWidth, canvasHeight);
 
-    var taxis = TaxiDrawing.of(world.getTaxis(), visuProperties);
+    var taxis = TaxiDrawing.of(world.getTaxiView(), visuProperties);
     var clients = ClientDrawing.of(world.getSpawnedClients(), visuProperties);
 
     clients.forEach(t -> t.printBackgroundShape(g2d, widthRatio, heightRatio));